@@ -73,9 +73,9 @@ public final class RestXqFunction extends WebFunction {
   private QNm requestBody;
 
   /** Error (can be {@code null}). */
-  private RestXqError error;
+  RestXqError error;
   /** Error (can be {@code null}). */
-  private RestXqPerm permission;
+  RestXqPerm permission;
 
   /**
    * Constructor.
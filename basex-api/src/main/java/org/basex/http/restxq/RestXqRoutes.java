@@ -0,0 +1,144 @@
+package org.basex.http.restxq;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.http.*;
+import org.basex.http.web.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * Routing index for RESTXQ functions.
+ *
+ * Functions with path annotations are organized in a tree: the leading literal segments of a
+ * path template (i.e., all segments before the first template variable) lead to the node to
+ * which a function is attached. Separate trees are built for each HTTP method. A request
+ * only needs to be checked against the functions that are attached to the nodes of its path.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class RestXqRoutes {
+  /** Trees for functions with explicit methods. */
+  private final HashMap<String, Node> methods = new HashMap<>();
+  /** Tree for functions that accept all methods. */
+  private final Node all = new Node();
+  /** Functions with error annotations. */
+  private final ArrayList<RestXqFunction> errors = new ArrayList<>();
+  /** Functions with permission annotations. */
+  private final ArrayList<RestXqFunction> perms = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param modules web modules
+   */
+  public RestXqRoutes(final Collection<WebModule> modules) {
+    for(final WebModule module : modules) {
+      for(final RestXqFunction func : module.functions()) {
+        if(func.path != null) {
+          final String[] segments = segments(func.path.toString());
+          if(func.methods.isEmpty()) {
+            all.add(segments, func);
+          } else {
+            for(final String method : func.methods) {
+              methods.computeIfAbsent(method, m -> new Node()).add(segments, func);
+            }
+          }
+        }
+        if(func.error != null) errors.add(func);
+        if(func.permission != null) perms.add(func);
+      }
+    }
+  }
+
+  /**
+   * Returns RESTXQ or permission functions that match the current request.
+   * @param conn HTTP connection
+   * @param error error code (assigned if error function is to be called)
+   * @param perm permission flag
+   * @return list of matching functions, ordered by specifity
+   */
+  public List<RestXqFunction> find(final HTTPConnection conn, final QNm error,
+      final boolean perm) {
+
+    // collect candidates
+    final ArrayList<RestXqFunction> candidates;
+    if(perm) {
+      candidates = perms;
+    } else if(error != null) {
+      candidates = errors;
+    } else {
+      candidates = new ArrayList<>();
+      final String[] segments = conn.path().substring(1).split("/", -1);
+      all.collect(segments, candidates);
+      final Node node = methods.get(conn.method);
+      if(node != null) node.collect(segments, candidates);
+    }
+
+    // filter and sort functions by specifity
+    final ArrayList<RestXqFunction> list = new ArrayList<>();
+    for(final RestXqFunction func : candidates) {
+      if(func.matches(conn, error, perm)) list.add(func);
+    }
+    Collections.sort(list);
+    return list;
+  }
+
+  /**
+   * Returns the decoded leading literal segments of a path template.
+   * @param path path template
+   * @return segments
+   */
+  private static String[] segments(final String path) {
+    final String pth = path.startsWith("/") ? path.substring(1) : path;
+    final ArrayList<String> list = new ArrayList<>();
+    if(!pth.isEmpty()) {
+      for(final String segment : pth.split("/", -1)) {
+        if(segment.indexOf('{') != -1) break;
+        final byte[] decoded = XMLToken.decodeUri(token(segment), false);
+        // skip segments with encoded slashes and invalid encodings
+        if(contains(decoded, '/') || contains(decoded, REPLACEMENT)) break;
+        list.add(string(decoded));
+      }
+    }
+    return list.toArray(new String[0]);
+  }
+
+  /** Node of a routing tree. */
+  private static final class Node {
+    /** Child nodes, indexed by literal segments. */
+    private final HashMap<String, Node> children = new HashMap<>();
+    /** Functions attached to this node. */
+    private final ArrayList<RestXqFunction> functions = new ArrayList<>();
+
+    /**
+     * Attaches a function.
+     * @param segments literal segments
+     * @param func function
+     */
+    void add(final String[] segments, final RestXqFunction func) {
+      Node node = this;
+      for(final String segment : segments) {
+        node = node.children.computeIfAbsent(segment, s -> new Node());
+      }
+      node.functions.add(func);
+    }
+
+    /**
+     * Collects all functions attached to the nodes of the specified path.
+     * @param segments segments of the request path
+     * @param list list of functions
+     */
+    void collect(final String[] segments, final List<RestXqFunction> list) {
+      Node node = this;
+      list.addAll(node.functions);
+      for(final String segment : segments) {
+        node = node.children.get(segment);
+        if(node == null) break;
+        list.addAll(node.functions);
+      }
+    }
+  }
+}
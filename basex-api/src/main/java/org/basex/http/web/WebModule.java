@@ -41,12 +41,13 @@ public final class WebModule {
   /**
    * Checks the module for relevant annotations.
    * @param ctx database context
+   * @return {@code true} if the module was parsed, {@code false} if it is unchanged
    * @throws QueryException query exception
    * @throws IOException I/O exception
    */
-  void parse(final Context ctx) throws QueryException, IOException {
+  boolean parse(final Context ctx) throws QueryException, IOException {
     final long ts = file.timeStamp();
-    if(time == ts) return;
+    if(time == ts) return false;
 
     time = ts;
     content = file.string();
@@ -71,6 +72,7 @@ public final class WebModule {
       // ignore modules that cannot be parsed
       Util.debug(ex);
     }
+    return true;
   }
 
   /**
@@ -35,6 +35,8 @@ public final class WebModules {
 
   /** Module cache. */
   private HashMap<String, WebModule> modules = new HashMap<>();
+  /** Routing index for RESTXQ functions (rebuilt if modules have changed). */
+  private RestXqRoutes routes;
   /** Indicates if modules have been cached. */
   private boolean parsed;
   /** Last access time. */
@@ -143,17 +145,7 @@ public final class WebModules {
    */
   private List<RestXqFunction> find(final HTTPConnection conn, final QNm error, final boolean perm)
       throws QueryException, IOException {
-
-    // collect and sort all functions
-    final ArrayList<RestXqFunction> list = new ArrayList<>();
-    for(final WebModule module : cache(conn.context).values()) {
-      for(final RestXqFunction func : module.functions()) {
-        if(func.matches(conn, error, perm)) list.add(func);
-      }
-    }
-    // sort by specifity
-    Collections.sort(list);
-    return list;
+    return routes(conn.context).find(conn, error, perm);
   }
 
   /**
@@ -333,7 +325,11 @@ public final class WebModules {
       if(!path.exists()) throw HTTPStatus.NO_RESTXQ_DIRECTORY.get();
 
       cache = new HashMap<>();
-      parse(ctx, path, cache, modules);
+      // rebuild routing index if modules have been added, changed or removed
+      final RestXqRoutes rts = routes;
+      routes = null;
+      final boolean changed = parse(ctx, path, cache, modules) || cache.size() != modules.size();
+      routes = changed || rts == null ? new RestXqRoutes(cache.values()) : rts;
       modules = cache;
       parsed = true;
     }
@@ -343,28 +339,42 @@ public final class WebModules {
     return cache;
   }
 
+  /**
+   * Returns the routing index for RESTXQ functions.
+   * @param ctx database context
+   * @return routing index
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private synchronized RestXqRoutes routes(final Context ctx) throws QueryException, IOException {
+    cache(ctx);
+    return routes;
+  }
+
   /**
    * Parses the specified path for modules with relevant annotations and caches new entries.
    * @param root root path
    * @param ctx database context
    * @param cache cached modules
    * @param old old cache
+   * @return {@code true} if new or updated modules were parsed
    * @throws QueryException query exception
    * @throws IOException I/O exception
    */
-  private static void parse(final Context ctx, final IOFile root,
+  private static boolean parse(final Context ctx, final IOFile root,
       final HashMap<String, WebModule> cache, final HashMap<String, WebModule> old)
       throws QueryException, IOException {
 
     // check if directory is to be skipped
     final IOFile[] files = root.children();
     for(final IOFile file : files) {
-      if(file.name().equals(IO.IGNORESUFFIX)) return;
+      if(file.name().equals(IO.IGNORESUFFIX)) return false;
     }
 
+    boolean parsed = false;
     for(final IOFile file : files) {
       if(file.isDir()) {
-        parse(ctx, file, cache, old);
+        parsed |= parse(ctx, file, cache, old);
       } else {
         final String path = file.path();
         if(file.hasSuffix(IO.XQSUFFIXES)) {
@@ -373,10 +383,11 @@ public final class WebModules {
           if(module == null) module = new WebModule(file);
 
           // parse updated module, add to cache
-          module.parse(ctx);
+          parsed |= module.parse(ctx);
           cache.put(path, module);
         }
       }
     }
+    return parsed;
   }
 }
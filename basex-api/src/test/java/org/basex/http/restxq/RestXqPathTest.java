@@ -178,6 +178,26 @@ public final class RestXqPathTest extends RestXqTest {
             "declare %R:path('{$p=.+}/x') function m:f2($p) { 2 };", "1");
   }
 
+  /**
+   * Selects functions with shared path prefixes.
+   * @throws Exception exception
+   */
+  @Test public void prefixes() throws Exception {
+    final String f =
+        "declare %R:path('a') function m:f1() { 1 }; " +
+        "declare %R:path('a/b') function m:f2() { 2 }; " +
+        "declare %R:path('a/b/{$x}') function m:f3($x) { 3 }; " +
+        "declare %R:POST %R:path('a/b') function m:f5() { 5 }; " +
+        "declare %R:path('{$x}/b/c') function m:f6($x) { 6 };";
+    get("1", f, "a");
+    get("2", f, "a/b");
+    get("3", f, "a/b/x");
+    get("3", f, "a/b/c");
+    get("6", f, "x/b/c");
+    get(404, f, "a/c");
+    get(404, f, "b");
+  }
+
   /**
    * Various annotations.
    * @throws Exception exception
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 import java.util.Map.*;
 
@@ -32,6 +33,8 @@ public final class BaseXServer extends CLI implements Runnable {
   private volatile boolean stop;
   /** Server socket. */
   private ServerSocket socket;
+  /** Selector for idle client sessions ({@code null}: one thread per session). */
+  private ClientSelector selector;
   /** Start as service. */
   private boolean service;
   /** Daemon flag. */
@@ -102,7 +105,12 @@ public final class BaseXServer extends CLI implements Runnable {
     }
 
     try {
-      socket = new ServerSocket();
+      if(sopts.get(StaticOptions.SERVERNIO)) {
+        socket = ServerSocketChannel.open().socket();
+        selector = new ClientSelector();
+      } else {
+        socket = new ServerSocket();
+      }
       socket.setReuseAddress(true);
       socket.bind(new InetSocketAddress(addr, port));
       stopFile = stopFile(getClass(), port);
@@ -163,7 +171,8 @@ public final class BaseXServer extends CLI implements Runnable {
             }, ka);
             authorizing.add(cl);
           }
-          cl.start();
+          if(selector != null) selector.add(cl);
+          else cl.start();
         }
       } catch(final SocketException ex) {
         Util.debug(ex);
@@ -199,6 +208,7 @@ public final class BaseXServer extends CLI implements Runnable {
       cl.close();
     }
     context.sessions.close();
+    if(selector != null) selector.close();
 
     try {
       // close interactive input if server was stopped by another process
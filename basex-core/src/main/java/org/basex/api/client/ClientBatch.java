@@ -0,0 +1,173 @@
+package org.basex.api.client;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.io.in.*;
+import org.basex.io.out.*;
+import org.basex.server.*;
+import org.basex.util.*;
+
+/**
+ * This class collects requests and sends them to the server in a single message.
+ * The requests are executed in the given order, and a status is returned for each request.
+ * Results of commands are discarded.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientBatch {
+  /** Client session. */
+  private final ClientSession cs;
+  /** Execute all requests as a single job. */
+  private final boolean singleJob;
+  /** Cached requests. */
+  private final ArrayOutput requests = new ArrayOutput();
+  /** Number of requests. */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param session client session
+   * @param singleJob execute all requests as a single job, and stop after the first error
+   */
+  ClientBatch(final ClientSession session, final boolean singleJob) {
+    cs = session;
+    this.singleJob = singleJob;
+  }
+
+  /**
+   * Adds a database command.
+   * @param command command to be executed
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch execute(final String command) throws IOException {
+    // an empty string would be interpreted as end of batch
+    send(command.isEmpty() ? " " : command);
+    size++;
+    return this;
+  }
+
+  /**
+   * Adds a database command.
+   * @param command command to be executed
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch execute(final Command command) throws IOException {
+    return execute(command.toString());
+  }
+
+  /**
+   * Adds a request for creating a database.
+   * @param name name of database
+   * @param input xml input
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch create(final String name, final InputStream input) throws IOException {
+    return add(ServerCmd.CREATE, name, input);
+  }
+
+  /**
+   * Adds a request for adding a document to the opened database.
+   * @param path target path
+   * @param input xml input
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch add(final String path, final InputStream input) throws IOException {
+    return add(ServerCmd.ADD, path, input);
+  }
+
+  /**
+   * Adds a request for putting (adding or replacing) a document in the opened database.
+   * @param path target path
+   * @param input xml input
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch put(final String path, final InputStream input) throws IOException {
+    return add(ServerCmd.PUT, path, input);
+  }
+
+  /**
+   * Adds a request for putting (adding or replacing) a binary resource in the opened database.
+   * @param path target path
+   * @param input binary input
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  public ClientBatch putBinary(final String path, final InputStream input) throws IOException {
+    return add(ServerCmd.PUTBINARY, path, input);
+  }
+
+  /**
+   * Returns the number of requests.
+   * @return number of requests
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sends all requests to the server and resets the batch.
+   * The returned array contains a status for each request:
+   * {@code null} if the request was successful, an error message if it failed, and
+   * an empty string if it was not executed.
+   * @return statuses
+   * @throws IOException I/O exception
+   */
+  public String[] execute() throws IOException {
+    final String[] status = new String[size];
+    if(size == 0) return status;
+
+    cs.finish();
+    cs.sout.write(ServerCmd.BATCH.code);
+    cs.sout.write(singleJob ? 1 : 0);
+    cs.sout.write(requests.buffer(), 0, (int) requests.size());
+    cs.sout.write(0);
+    cs.sout.flush();
+    requests.reset();
+    size = 0;
+
+    final BufferInput bi = BufferInput.get(cs.sin);
+    final int sl = status.length;
+    for(int s = 0; s < sl; s++) {
+      final int b = bi.read();
+      if(b == -1) throw new EOFException();
+      status[s] = b == 0 ? null : b == 1 ? bi.readString() : "";
+    }
+    return status;
+  }
+
+  /**
+   * Adds a request with input.
+   * @param command server command
+   * @param arg argument
+   * @param input input stream
+   * @return self reference
+   * @throws IOException I/O exception
+   */
+  private ClientBatch add(final ServerCmd command, final String arg, final InputStream input)
+      throws IOException {
+    requests.write(command.code);
+    send(arg);
+    final ServerOutput so = new ServerOutput(requests);
+    for(int b; (b = input.read()) != -1;) so.write(b);
+    requests.write(0);
+    size++;
+    return this;
+  }
+
+  /**
+   * Adds a string.
+   * @param string string to be sent
+   * @throws IOException I/O exception
+   */
+  private void send(final String string) throws IOException {
+    requests.write(Token.token(string));
+    requests.write(0);
+  }
+}
@@ -22,10 +22,15 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public class ClientQuery extends Query {
+  /** Maximum number of items that will be requested per window. */
+  private static final int WINDOW = 1 << 10;
+
   /** Client session. */
   final ClientSession cs;
   /** Query id. */
   final String id;
+  /** Server input for pending results ({@code null} if all results have been received). */
+  private BufferInput pending;
 
   /**
    * Standard constructor.
@@ -58,6 +63,7 @@ public class ClientQuery extends Query {
 
   @Override
   public void bind(final String name, final Object value, final String type) throws IOException {
+    stop();
     cache = null;
 
     final Object vl = value instanceof BXNode ? ((BXNode) value).getNode() : value;
@@ -105,11 +111,13 @@ public class ClientQuery extends Query {
 
   @Override
   public void close() throws IOException {
+    stop();
     cs.exec(ServerCmd.CLOSE, id, null);
   }
 
   @Override
   public void cache(final boolean full) throws IOException {
+    cs.finish();
     cs.sout.write((full ? ServerCmd.FULL : ServerCmd.RESULTS).code);
     cs.send(id);
     cs.sout.flush();
@@ -118,4 +126,74 @@ public class ClientQuery extends Query {
     cache(bi, full);
     if(!ClientSession.ok(bi)) throw new BaseXException(bi.readString());
   }
+
+  @Override
+  void results() throws IOException {
+    if(!cs.windows()) {
+      cache(false);
+      return;
+    }
+    cs.finish();
+    cs.sout.write(ServerCmd.NEXT.code);
+    cs.send(id);
+    cs.send(Integer.toString(WINDOW));
+    cs.sout.flush();
+    cache = null;
+    receive(BufferInput.get(cs.sin), WINDOW);
+  }
+
+  @Override
+  boolean window() throws IOException {
+    if(pending == null) return false;
+    request(true);
+    cache = null;
+    receive(pending, WINDOW);
+    return !cache.isEmpty();
+  }
+
+  /**
+   * Receives and caches all pending results.
+   * Called if the session is used for other requests while results are pending.
+   * @throws IOException I/O exception
+   */
+  void finish() throws IOException {
+    while(pending != null) {
+      request(true);
+      receive(pending, WINDOW);
+    }
+  }
+
+  /**
+   * Stops the evaluation of a query whose results are pending.
+   * @throws IOException I/O exception
+   */
+  private void stop() throws IOException {
+    if(pending != null) {
+      request(false);
+      receive(pending, Integer.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Requests more results or stops the evaluation.
+   * @param more more results flag
+   * @throws IOException I/O exception
+   */
+  private void request(final boolean more) throws IOException {
+    cs.sout.write(more ? 1 : 0);
+    cs.sout.flush();
+  }
+
+  /**
+   * Receives and caches the results of a window.
+   * @param input server input
+   * @param max maximum number of items
+   * @throws IOException I/O exception
+   */
+  private void receive(final BufferInput input, final int max) throws IOException {
+    final boolean end = cache(input, false, max);
+    pending = end ? null : input;
+    cs.cursor = end ? null : this;
+    if(end && !ClientSession.ok(input)) throw new BaseXException(input.readString());
+  }
 }
@@ -36,6 +36,10 @@ public class ClientSession extends Session {
 
   /** Socket reference. */
   private final Socket socket;
+  /** Query whose results are still pending (can be {@code null}). */
+  ClientQuery cursor;
+  /** Indicates if the server returns results in windows ({@code null}: not checked yet). */
+  private Boolean windows;
 
   /**
    * Constructor, specifying login data.
@@ -148,6 +152,19 @@ public class ClientSession extends Session {
     return new ClientQuery(query, this, out);
   }
 
+  /**
+   * Returns a batch for sending multiple requests to the server in a single message.
+   * If {@code singleJob} is enabled, all requests will be executed as a single job, and
+   * execution stops after the first error. Please note that the job acquires the global lock,
+   * so no other requests will be processed while it is running, and that changes of the
+   * preceding requests will not be rolled back.
+   * @param singleJob execute all requests as a single job, and stop after the first error
+   * @return batch
+   */
+  public ClientBatch batch(final boolean singleJob) {
+    return new ClientBatch(this, singleJob);
+  }
+
   @Override
   public synchronized void close() throws IOException {
     socket.close();
@@ -155,6 +172,7 @@ public class ClientSession extends Session {
 
   @Override
   protected void execute(final String command, final OutputStream output) throws IOException {
+    finish();
     send(command);
     sout.flush();
     receive(output);
@@ -210,6 +228,7 @@ public class ClientSession extends Session {
   private void send(final ServerCmd command, final InputStream input, final String... args)
       throws IOException {
 
+    finish();
     sout.write(command.code);
     for(final String arg : args) send(arg);
     send(input);
@@ -226,6 +245,34 @@ public class ClientSession extends Session {
     for(int b; (b = si.read()) != -1;) output.write(b);
   }
 
+  /**
+   * Receives the pending results of a query before another request is sent to the server.
+   * The results are cached in main memory (see {@link Query#more()}).
+   * @throws IOException I/O exception
+   */
+  void finish() throws IOException {
+    if(cursor != null) cursor.finish();
+  }
+
+  /**
+   * Checks if the server returns query results in windows (see {@link ServerCmd#NEXT}).
+   * Servers of older versions reject the request, and all results will be retrieved at once.
+   * @return result of check
+   * @throws IOException I/O exception
+   */
+  boolean windows() throws IOException {
+    if(windows == null) {
+      try {
+        exec(ServerCmd.NEXT, "", null);
+        windows = true;
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+        windows = false;
+      }
+    }
+    return windows;
+  }
+
   /**
    * Sends a string to the server.
    * @param string string to be sent
@@ -247,6 +294,7 @@ public class ClientSession extends Session {
   String exec(final ServerCmd command, final String arg, final OutputStream output)
       throws IOException {
 
+    finish();
     final OutputStream o = output == null ? new ArrayOutput() : output;
     sout.write(command.code);
     send(arg);
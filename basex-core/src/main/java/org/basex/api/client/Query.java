@@ -68,12 +68,17 @@ public abstract class Query implements Closeable {
 
   /**
    * Returns {@code true} if more items are available.
+   * Client queries retrieve their results in windows if this is supported by the server
+   * (see {@link org.basex.server.ServerCmd#NEXT}). If another request is sent via the same
+   * session before all results have been retrieved, the remaining results will first be
+   * received and cached in main memory. Queries with large results should thus either be
+   * completely processed or closed before the session is used for other requests.
    * @return result of check
    * @throws IOException I/O exception
    */
   public boolean more() throws IOException {
-    if(cache == null) cache(false);
-    if(pos < cache.size()) return true;
+    if(cache == null) results();
+    if(pos < cache.size() || window()) return true;
     cache = null;
     types = null;
     return false;
@@ -86,6 +91,25 @@ public abstract class Query implements Closeable {
    */
   public abstract void cache(boolean full) throws IOException;
 
+  /**
+   * Requests the results of the query.
+   * Can be overwritten by implementations that retrieve results in windows.
+   * @throws IOException I/O exception
+   */
+  void results() throws IOException {
+    cache(false);
+  }
+
+  /**
+   * Requests the next window of results.
+   * Can be overwritten by implementations that retrieve results in windows.
+   * @return {@code true} if new results were cached
+   * @throws IOException I/O exception
+   */
+  boolean window() throws IOException {
+    return false;
+  }
+
   /**
    * Returns the next item of the query as string.
    * @return string or {@code null}
@@ -116,10 +140,29 @@ public abstract class Query implements Closeable {
    * @throws IOException I/O exception
    */
   void cache(final InputStream input, final boolean full) throws IOException {
-    cache = new TokenList();
-    types = new ByteList();
+    cache = null;
+    cache(input, full, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Caches the incoming input until the end marker is found or the maximum number of items
+   * has been read. Items are appended to the existing cache.
+   * @param input input stream
+   * @param full retrieve full type information
+   * @param max maximum number of items to read
+   * @return {@code true} if the end marker was found
+   * @throws IOException I/O exception
+   */
+  boolean cache(final InputStream input, final boolean full, final int max) throws IOException {
+    if(cache == null) {
+      cache = new TokenList();
+      types = new ByteList();
+      pos = 0;
+    }
     final ByteList bl = new ByteList();
-    for(int index; (index = input.read()) > 0;) {
+    for(int i = 0; i < max; i++) {
+      final int index = input.read();
+      if(index <= 0) return true;
       // skip type information
       if(full) {
         final ID id = Types.type(index).id();
@@ -133,7 +176,7 @@ public abstract class Query implements Closeable {
       cache.add(bl.next());
       types.add(index);
     }
-    pos = 0;
+    return false;
   }
 
   /**
@@ -102,7 +102,7 @@ public abstract class Builder extends Job {
    * @param value document name
    * @throws IOException I/O exception
    */
-  public final void openDoc(final byte[] value) throws IOException {
+  public void openDoc(final byte[] value) throws IOException {
     path.index(0, Data.DOC, level);
     parStack.set(level++, meta.size);
     addDoc(value);
@@ -113,7 +113,7 @@ public abstract class Builder extends Job {
    * Closes a document node.
    * @throws IOException I/O exception
    */
-  public final void closeDoc() throws IOException {
+  public void closeDoc() throws IOException {
     final int pre = parStack.get(--level);
     setSize(pre, meta.size - pre);
     ++meta.ndocs;
@@ -133,7 +133,7 @@ public abstract class Builder extends Job {
    * @param nsp namespaces
    * @throws IOException I/O exception
    */
-  public final void openElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
+  public void openElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
     addElem(name, att, nsp);
     ++level;
   }
@@ -145,7 +145,7 @@ public abstract class Builder extends Job {
    * @param nsp namespaces
    * @throws IOException I/O exception
    */
-  public final void emptyElem(final byte[] name, final Atts att, final Atts nsp)
+  public void emptyElem(final byte[] name, final Atts att, final Atts nsp)
       throws IOException {
     addElem(name, att, nsp);
     final int pre = parStack.get(level);
@@ -157,7 +157,7 @@ public abstract class Builder extends Job {
    * Closes an element.
    * @throws IOException I/O exception
    */
-  public final void closeElem() throws IOException {
+  public void closeElem() throws IOException {
     checkStop();
     --level;
     final int pre = parStack.get(level);
@@ -170,7 +170,7 @@ public abstract class Builder extends Job {
    * @param value text value
    * @throws IOException I/O exception
    */
-  public final void text(final byte[] value) throws IOException {
+  public void text(final byte[] value) throws IOException {
     if(value.length != 0) addText(value, Data.TEXT);
   }
 
@@ -179,7 +179,7 @@ public abstract class Builder extends Job {
    * @param value comment text
    * @throws IOException I/O exception
    */
-  public final void comment(final byte[] value) throws IOException {
+  public void comment(final byte[] value) throws IOException {
     addText(value, Data.COMM);
   }
 
@@ -188,7 +188,7 @@ public abstract class Builder extends Job {
    * @param pi processing instruction name and value
    * @throws IOException I/O exception
    */
-  public final void pi(final byte[] pi) throws IOException {
+  public void pi(final byte[] pi) throws IOException {
     addText(pi, Data.PI);
   }
 
@@ -198,7 +198,7 @@ public abstract class Builder extends Job {
    * @param data data to store
    * @throws IOException I/O exception
    */
-  public final void binary(final String target, final IO data) throws IOException {
+  public void binary(final String target, final IO data) throws IOException {
     BinaryPut.put(data.inputSource(), new IOFile(binariesDir, target));
   }
 
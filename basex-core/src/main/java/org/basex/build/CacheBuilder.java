@@ -0,0 +1,193 @@
+package org.basex.build;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class caches the events of a parser in a compact representation.
+ * The events can later be sent to another builder. It is used to parse resources in
+ * parallel and add them to a database in a single thread.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class CacheBuilder extends Builder {
+  /** Event: open document. */
+  private static final int OPEN_DOC = 0;
+  /** Event: close document. */
+  private static final int CLOSE_DOC = 1;
+  /** Event: open element. */
+  private static final int OPEN_ELEM = 2;
+  /** Event: empty element. */
+  private static final int EMPTY_ELEM = 3;
+  /** Event: close element. */
+  private static final int CLOSE_ELEM = 4;
+  /** Event: text. */
+  private static final int TEXT = 5;
+  /** Event: comment. */
+  private static final int COMMENT = 6;
+  /** Event: processing instruction. */
+  private static final int PI = 7;
+
+  /** Events. */
+  private final ByteList events = new ByteList();
+  /** Tokens (names and values). */
+  private final TokenList tokens = new TokenList();
+  /** Number of attributes and namespaces. */
+  private final IntList sizes = new IntList();
+
+  /**
+   * Constructor.
+   * @param parser parser
+   */
+  CacheBuilder(final Parser parser) {
+    super("", parser);
+  }
+
+  /**
+   * Returns the number of cached events.
+   * @return number of events
+   */
+  int size() {
+    return events.size();
+  }
+
+  /**
+   * Sends the cached events to the specified builder.
+   * @param builder builder
+   * @throws IOException I/O exception
+   */
+  void replay(final Builder builder) throws IOException {
+    final Atts atts = new Atts(), nsp = new Atts();
+    final int es = events.size();
+    for(int e = 0, t = 0, s = 0; e < es; e++) {
+      final int event = events.get(e);
+      switch(event) {
+        case OPEN_DOC:   builder.openDoc(tokens.get(t++)); break;
+        case CLOSE_DOC:  builder.closeDoc(); break;
+        case CLOSE_ELEM: builder.closeElem(); break;
+        case TEXT:       builder.text(tokens.get(t++)); break;
+        case COMMENT:    builder.comment(tokens.get(t++)); break;
+        case PI:         builder.pi(tokens.get(t++)); break;
+        default:
+          final byte[] name = tokens.get(t++);
+          atts.reset();
+          for(int a = sizes.get(s++); a > 0; a--) atts.add(tokens.get(t++), tokens.get(t++));
+          nsp.reset();
+          for(int n = sizes.get(s++); n > 0; n--) nsp.add(tokens.get(t++), tokens.get(t++));
+          if(event == OPEN_ELEM) builder.openElem(name, atts, nsp);
+          else builder.emptyElem(name, atts, nsp);
+      }
+    }
+  }
+
+  @Override
+  public void openDoc(final byte[] value) {
+    events.add(OPEN_DOC);
+    tokens.add(value);
+  }
+
+  @Override
+  public void closeDoc() {
+    events.add(CLOSE_DOC);
+  }
+
+  @Override
+  public void openElem(final byte[] name, final Atts att, final Atts nsp) {
+    addElem(OPEN_ELEM, name, att, nsp);
+  }
+
+  @Override
+  public void emptyElem(final byte[] name, final Atts att, final Atts nsp) {
+    addElem(EMPTY_ELEM, name, att, nsp);
+  }
+
+  @Override
+  public void closeElem() {
+    events.add(CLOSE_ELEM);
+  }
+
+  @Override
+  public void text(final byte[] value) {
+    if(value.length != 0) {
+      events.add(TEXT);
+      tokens.add(value);
+    }
+  }
+
+  @Override
+  public void comment(final byte[] value) {
+    events.add(COMMENT);
+    tokens.add(value);
+  }
+
+  @Override
+  public void pi(final byte[] pi) {
+    events.add(PI);
+    tokens.add(pi);
+  }
+
+  /**
+   * Caches an element.
+   * @param event event type
+   * @param name name of element
+   * @param att attributes
+   * @param nsp namespaces
+   */
+  private void addElem(final int event, final byte[] name, final Atts att, final Atts nsp) {
+    events.add(event);
+    tokens.add(name);
+    add(att);
+    add(nsp);
+  }
+
+  /**
+   * Caches attributes or namespaces.
+   * @param list attributes or namespaces
+   */
+  private void add(final Atts list) {
+    final int as = list.size();
+    sizes.add(as);
+    for(int a = 0; a < as; a++) tokens.add(list.name(a)).add(list.value(a));
+  }
+
+  @Override
+  public Data build() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addDoc(final byte[] value) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addElem(final int dist, final int nameId, final int asize, final int uriId,
+      final boolean ne) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addAttr(final int nameId, final byte[] value, final int dist, final int uriId) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addText(final byte[] value, final int dist, final byte kind) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void setSize(final int pre, final int size) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void binary(final String target, final IO data) {
+    throw Util.notExpected();
+  }
+}
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
@@ -24,6 +25,8 @@ import org.basex.util.list.*;
 public final class DirParser extends Parser {
   /** Number of skipped files to log. */
   private static final int SKIPLOG = 10;
+  /** Maximum size of files that are parsed in parallel. */
+  private static final long PARALLELSIZE = 1 << 20;
   /** Skipped files. */
   private final StringList skipped = new StringList();
   /** File pattern. */
@@ -45,6 +48,12 @@ public final class DirParser extends Parser {
   private final boolean binaryParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of parsing threads. */
+  private final int threads;
+  /** Files that are parsed in parallel, in the order in which they will be added. */
+  private final ArrayDeque<ParseTask> tasks = new ArrayDeque<>();
+  /** Thread pool for parsing files in parallel ({@code null} if files are parsed sequentially). */
+  private ExecutorService pool;
 
   /** Last source. */
   private IO lastSrc;
@@ -75,6 +84,8 @@ public final class DirParser extends Parser {
     addBinary = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     binaryParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    final int pt = options.get(MainOptions.PARSETHREADS);
+    threads = pt > 0 ? pt : Runtime.getRuntime().availableProcessors();
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -83,7 +94,17 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.inputsize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads > 1) pool = Executors.newFixedThreadPool(threads);
+    try {
+      parse(build, source);
+      add(build, 0);
+    } finally {
+      if(pool != null) {
+        pool.shutdownNow();
+        pool = null;
+        tasks.clear();
+      }
+    }
   }
 
   /**
@@ -181,31 +202,11 @@ public final class DirParser extends Parser {
       builder.binary(targ + name, source);
     } else if(include) {
       // store input as XML
-      boolean ok = true;
-      IO in = source;
-      if(skipCorrupt) {
-        // parse file twice to ensure that it is well-formed
-        try {
-          // cache file contents to facilitate or speed up a second run
-          if(!(source instanceof IOContent || dtd)) {
-            in = new IOContent(source.read());
-            in.name(name);
-          }
-          parser = Parser.singleParser(in, options, targ);
-          MemBuilder.build("", parser);
-        } catch(final IOException ex) {
-          Util.debug(ex);
-          skipped.add(source.path());
-          ok = false;
-        }
-      }
-
-      // parse file
-      if(ok) {
-        parser = Parser.singleParser(in, options, targ);
-        parser.parse(builder);
+      if(pool != null) {
+        parseParallel(builder, targ);
+      } else {
+        parseXml(builder, targ, false);
       }
-      parser = null;
     }
 
     // sum meta data file size
@@ -216,6 +217,128 @@ public final class DirParser extends Parser {
     if(Prop.debug && (++resources & 0x3FF) == 0) Util.err(";");
   }
 
+  /**
+   * Parses the current source as XML.
+   * @param builder builder instance
+   * @param targ target path
+   * @param pipe parse input in a separate thread
+   * @throws IOException I/O exception
+   */
+  private void parseXml(final Builder builder, final String targ, final boolean pipe)
+      throws IOException {
+    boolean ok = true;
+    IO in = source;
+    if(skipCorrupt) {
+      // parse file twice to ensure that it is well-formed
+      try {
+        // cache file contents to facilitate or speed up a second run
+        if(!(source instanceof IOContent || dtd)) {
+          in = new IOContent(source.read());
+          in.name(source.name());
+        }
+        parser = Parser.singleParser(in, options, targ);
+        MemBuilder.build("", parser);
+      } catch(final IOException ex) {
+        Util.debug(ex);
+        skipped.add(source.path());
+        ok = false;
+      }
+    }
+
+    // parse file
+    if(ok) {
+      parser = Parser.singleParser(in, options, targ);
+      if(pipe) PipeBuilder.parse(parser, builder);
+      else parser.parse(builder);
+    }
+    parser = null;
+  }
+
+  /**
+   * Parses the current source in a separate thread. Parser events are cached and added to
+   * the builder in the order in which the files were found. Large files are parsed one by one.
+   * @param builder builder instance
+   * @param targ target path
+   * @throws IOException I/O exception
+   */
+  private void parseParallel(final Builder builder, final String targ) throws IOException {
+    IO in = null;
+    if(source.length() <= PARALLELSIZE) {
+      if(source instanceof IOFile) {
+        in = source;
+      } else {
+        // entries of archives must be read before the next entry is requested
+        final InputStream is = source.inputStream();
+        final byte[] bytes = is.readNBytes((int) PARALLELSIZE + 1);
+        if(bytes.length <= PARALLELSIZE) {
+          in = new IOContent(bytes, source.path());
+        } else {
+          source = new IOStream(new SequenceInputStream(new ByteArrayInputStream(bytes), is),
+              source.path());
+        }
+      }
+    }
+    if(in == null) {
+      // parse large file in a separate thread, and add its events in the current thread
+      add(builder, 0);
+      parseXml(builder, targ, true);
+      return;
+    }
+
+    final IO input = in;
+    final Future<CacheBuilder> future = pool.submit(() -> {
+      final SingleParser sp = Parser.singleParser(input, options, targ);
+      final CacheBuilder cache = new CacheBuilder(sp);
+      sp.parse(cache);
+      // skip corrupt files: check if the document can be built
+      if(skipCorrupt) MemBuilder.build("", new Parser(input, options) {
+        @Override
+        public void parse(final Builder build) throws IOException {
+          cache.replay(build);
+        }
+      });
+      return cache;
+    });
+    tasks.add(new ParseTask(source, future));
+    add(builder, threads << 2);
+  }
+
+  /**
+   * Adds the documents of parallel parsed files to the builder until the number of
+   * remaining tasks does not exceed the specified limit.
+   * @param builder builder instance
+   * @param max maximum number of remaining tasks
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder, final int max) throws IOException {
+    while(tasks.size() > max) {
+      builder.checkStop();
+      final ParseTask task = tasks.poll();
+      final CacheBuilder cache;
+      try {
+        cache = task.future.get();
+      } catch(final InterruptedException ex) {
+        throw new BaseXException(ex);
+      } catch(final ExecutionException ex) {
+        final Throwable cause = ex.getCause();
+        if(cause instanceof IOException) {
+          if(!skipCorrupt) throw (IOException) cause;
+          Util.debug(cause);
+          skipped.add(task.source.path());
+          continue;
+        }
+        if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if(cause instanceof Error) throw (Error) cause;
+        throw new BaseXException((Exception) cause);
+      }
+      // assign source to report the current resource in error messages
+      final IO src = source;
+      source = task.source;
+      cache.replay(builder);
+      source = src;
+    }
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
@@ -249,4 +372,24 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * File that is parsed in parallel.
+   */
+  private static final class ParseTask {
+    /** Source. */
+    final IO source;
+    /** Cached parser events. */
+    final Future<CacheBuilder> future;
+
+    /**
+     * Constructor.
+     * @param source source
+     * @param future cached parser events
+     */
+    ParseTask(final IO source, final Future<CacheBuilder> future) {
+      this.source = source;
+      this.future = future;
+    }
+  }
 }
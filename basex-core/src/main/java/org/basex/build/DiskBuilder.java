@@ -34,6 +34,8 @@ public final class DiskBuilder extends Builder {
 
   /** Static options. */
   private final StaticOptions sopts;
+  /** Write heap files in separate threads. */
+  private final boolean async;
   /** Debug counter. */
   private int c;
 
@@ -49,6 +51,7 @@ public final class DiskBuilder extends Builder {
     super(name, parser);
     this.sopts = sopts;
     meta = new MetaData(dbName, opts, sopts);
+    async = opts.get(MainOptions.PARSETHREADS) != 1;
   }
 
   @Override
@@ -70,8 +73,8 @@ public final class DiskBuilder extends Builder {
     try {
       try {
         tout = new DataOutput(new TableOutput(meta, DATATBL));
-        xout = new DataOutput(meta.dbFile(DATATXT), bs);
-        vout = new DataOutput(meta.dbFile(DATAATV), bs);
+        xout = output(meta.dbFile(DATATXT), bs);
+        vout = output(meta.dbFile(DATAATV), bs);
         sout = new DataOutput(meta.dbFile(DATATMP), bs);
         parse();
       } finally {
@@ -92,6 +95,9 @@ public final class DiskBuilder extends Builder {
         }
       }
       tmpFile.delete();
+      // heap files only contain referenced entries
+      meta.textbytes = xout.size();
+      meta.valuebytes = vout.size();
 
       // return database instance. build will be finalized when this instance is closed
       meta.dirty = true;
@@ -153,6 +159,18 @@ public final class DiskBuilder extends Builder {
     ++ssize;
   }
 
+  /**
+   * Returns an output stream for a heap file.
+   * @param file file
+   * @param bs buffer size
+   * @return output stream
+   * @throws IOException I/O exception
+   */
+  private DataOutput output(final IOFile file, final int bs) throws IOException {
+    return async ? new DataOutput(new AsyncOutput(file.outputStream(), bs)) :
+      new DataOutput(file, bs);
+  }
+
   /**
    * Calculates the text offset and writes the text value.
    * @param value value to be inlined
@@ -135,7 +135,7 @@ public class Parser extends Job {
     final MainParser mp = options.get(MainOptions.PARSER);
     switch(mp) {
       case HTML: p = new HtmlParser(source, options, options.get(MainOptions.HTMLPARSER)); break;
-      case JSON: p = new JsonParser(source, options, options.get(MainOptions.JSONPARSER)); break;
+      case JSON: p = JsonParser.get(source, options, options.get(MainOptions.JSONPARSER)); break;
       case CSV:  p = new CsvParser(source, options, options.get(MainOptions.CSVPARSER)); break;
       default:   p = options.get(MainOptions.INTPARSE) ? new XMLParser(source, options) :
         new SAXWrapper(source, options); break;
@@ -0,0 +1,204 @@
+package org.basex.build;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class runs a parser in a separate thread. Parser events are passed on to the
+ * building thread in batches, using a bounded queue.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class PipeBuilder extends Builder {
+  /** Number of events per batch. */
+  private static final int BATCH = 1 << 13;
+  /** Number of batches that may be queued. */
+  private static final int CAPACITY = 16;
+  /** Marker for the last batch. */
+  private static final CacheBuilder END = new CacheBuilder(null);
+
+  /** Queued batches. */
+  private final ArrayBlockingQueue<CacheBuilder> queue = new ArrayBlockingQueue<>(CAPACITY);
+  /** Current batch. */
+  private CacheBuilder cache;
+  /** Error of the parsing thread. */
+  private volatile Throwable error;
+  /** Indicates if building was stopped. */
+  private volatile boolean stopped;
+
+  /**
+   * Constructor.
+   * @param parser parser
+   */
+  private PipeBuilder(final Parser parser) {
+    super("", parser);
+    cache = new CacheBuilder(parser);
+  }
+
+  /**
+   * Parses the input of the specified parser in a separate thread and sends the events
+   * to the specified builder.
+   * @param parser parser
+   * @param builder builder
+   * @throws IOException I/O exception
+   */
+  static void parse(final Parser parser, final Builder builder) throws IOException {
+    final PipeBuilder pipe = new PipeBuilder(parser);
+    final Thread thread = new Thread(() -> {
+      try {
+        parser.parse(pipe);
+        if(pipe.cache.size() != 0) pipe.put(pipe.cache);
+      } catch(final Throwable th) {
+        pipe.error = th;
+      } finally {
+        try {
+          pipe.put(END);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+    }, Util.className(PipeBuilder.class));
+    thread.setDaemon(true);
+    thread.start();
+
+    boolean ok = false;
+    try {
+      for(CacheBuilder batch; (batch = pipe.queue.take()) != END;) batch.replay(builder);
+      ok = true;
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    } finally {
+      if(!ok) {
+        pipe.stopped = true;
+        pipe.queue.clear();
+      }
+      try {
+        thread.join();
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+    }
+
+    final Throwable th = pipe.error;
+    if(th instanceof IOException) throw (IOException) th;
+    if(th instanceof RuntimeException) throw (RuntimeException) th;
+    if(th instanceof Error) throw (Error) th;
+    if(th != null) throw new BaseXException((Exception) th);
+  }
+
+  /**
+   * Passes on a batch to the building thread.
+   * @param batch batch
+   * @throws IOException I/O exception
+   */
+  private void put(final CacheBuilder batch) throws IOException {
+    try {
+      while(!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        if(stopped) throw new BaseXException(Text.INTERRUPTED);
+      }
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    }
+  }
+
+  /**
+   * Passes on the current batch if it is full.
+   * @throws IOException I/O exception
+   */
+  private void check() throws IOException {
+    if(cache.size() >= BATCH) {
+      put(cache);
+      cache = new CacheBuilder(parser);
+    }
+  }
+
+  @Override
+  public void openDoc(final byte[] value) throws IOException {
+    cache.openDoc(value);
+    check();
+  }
+
+  @Override
+  public void closeDoc() throws IOException {
+    cache.closeDoc();
+    check();
+  }
+
+  @Override
+  public void openElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
+    cache.openElem(name, att, nsp);
+    check();
+  }
+
+  @Override
+  public void emptyElem(final byte[] name, final Atts att, final Atts nsp) throws IOException {
+    cache.emptyElem(name, att, nsp);
+    check();
+  }
+
+  @Override
+  public void closeElem() throws IOException {
+    cache.closeElem();
+    check();
+  }
+
+  @Override
+  public void text(final byte[] value) throws IOException {
+    cache.text(value);
+    check();
+  }
+
+  @Override
+  public void comment(final byte[] value) throws IOException {
+    cache.comment(value);
+    check();
+  }
+
+  @Override
+  public void pi(final byte[] pi) throws IOException {
+    cache.pi(pi);
+    check();
+  }
+
+  @Override
+  public Data build() {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addDoc(final byte[] value) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addElem(final int dist, final int nameId, final int asize, final int uriId,
+      final boolean ne) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addAttr(final int nameId, final byte[] value, final int dist, final int uriId) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void addText(final byte[] value, final int dist, final byte kind) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  protected void setSize(final int pre, final int size) {
+    throw Util.notExpected();
+  }
+
+  @Override
+  public void binary(final String target, final IO data) {
+    throw Util.notExpected();
+  }
+}
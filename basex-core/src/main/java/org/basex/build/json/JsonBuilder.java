@@ -0,0 +1,183 @@
+package org.basex.build.json;
+
+import static org.basex.io.parse.json.JsonConstants.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+
+import org.basex.build.*;
+import org.basex.build.json.JsonOptions.*;
+import org.basex.build.json.JsonParserOptions.*;
+import org.basex.core.*;
+import org.basex.io.parse.json.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * This class converts JSON data to XML, using direct or attributes conversion.
+ * Parse events are directly passed on to the database builder.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class JsonBuilder extends JsonConverter {
+  /** Attributes. */
+  private final Atts atts = new Atts();
+  /** Namespaces. */
+  private final Atts nsp = new Atts();
+  /** Builder. */
+  private final Builder builder;
+  /** Attributes format. */
+  private final boolean attributes;
+  /** Lax QName conversion. */
+  private final boolean lax;
+  /** Include string type. */
+  private final boolean strings;
+  /** Strip whitespace. */
+  private final boolean stripWS;
+
+  /** Name of the next element. */
+  private byte[] name = JSON;
+  /** Number of nested pairs whose values will be skipped (duplicate keys). */
+  private int skip;
+
+  /**
+   * Constructor.
+   * @param jopts JSON options
+   * @param builder builder
+   * @param options main options
+   */
+  JsonBuilder(final JsonParserOptions jopts, final Builder builder, final MainOptions options) {
+    super(jopts);
+    this.builder = builder;
+    attributes = jopts.get(JsonOptions.FORMAT) == JsonFormat.ATTRIBUTES;
+    lax = jopts.get(JsonOptions.LAX);
+    strings = jopts.get(JsonOptions.STRINGS);
+    stripWS = options.get(MainOptions.STRIPWS);
+  }
+
+  /**
+   * Checks if the specified options can be processed by this builder.
+   * @param jopts JSON options
+   * @return result of check
+   */
+  static boolean supported(final JsonParserOptions jopts) {
+    final JsonFormat format = jopts.get(JsonOptions.FORMAT);
+    return (format == JsonFormat.DIRECT || format == JsonFormat.ATTRIBUTES) &&
+        !jopts.get(JsonOptions.MERGE) &&
+        jopts.get(JsonParserOptions.DUPLICATES) != JsonDuplicates.USE_LAST;
+  }
+
+  @Override
+  protected void init(final String uri) {
+  }
+
+  @Override
+  protected Item finish() throws IOException {
+    if(attributes) builder.closeElem();
+    return null;
+  }
+
+  @Override
+  protected void openObject() throws IOException {
+    open(OBJECT);
+  }
+
+  @Override
+  protected void closeObject() throws IOException {
+    close();
+  }
+
+  @Override
+  protected void openPair(final byte[] key, final boolean add) {
+    if(skip > 0 || !add) {
+      skip++;
+    } else if(attributes) {
+      name = PAIR;
+      atts.add(NAME, key);
+    } else {
+      name = XMLToken.encode(key, lax);
+    }
+  }
+
+  @Override
+  protected void closePair(final boolean add) throws IOException {
+    if(skip > 0) skip--;
+    else if(attributes) builder.closeElem();
+  }
+
+  @Override
+  protected void openArray() throws IOException {
+    open(ARRAY);
+  }
+
+  @Override
+  protected void closeArray() throws IOException {
+    close();
+  }
+
+  @Override
+  protected void openItem() {
+    if(skip == 0) name = attributes ? ITEM : VALUE;
+  }
+
+  @Override
+  protected void closeItem() throws IOException {
+    if(skip == 0 && attributes) builder.closeElem();
+  }
+
+  @Override
+  protected void numberLit(final Item value) throws QueryException, IOException {
+    value(NUMBER, value.string(null));
+  }
+
+  @Override
+  protected void stringLit(final byte[] value) throws IOException {
+    value(STRING, value);
+  }
+
+  @Override
+  protected void nullLit() throws IOException {
+    value(NULL, null);
+  }
+
+  @Override
+  protected void booleanLit(final byte[] value) throws IOException {
+    value(BOOLEAN, value);
+  }
+
+  /**
+   * Opens an element for a value.
+   * @param type JSON type
+   * @throws IOException I/O exception
+   */
+  private void open(final byte[] type) throws IOException {
+    if(skip > 0) return;
+    if(strings || type != STRING) atts.add(TYPE, type);
+    builder.openElem(name, atts, nsp);
+    atts.reset();
+  }
+
+  /**
+   * Closes the element of an object or array.
+   * In the attributes format, elements are closed by the enclosing pair or item.
+   * @throws IOException I/O exception
+   */
+  private void close() throws IOException {
+    if(skip == 0 && !attributes) builder.closeElem();
+  }
+
+  /**
+   * Adds an element for an atomic value.
+   * @param type JSON type
+   * @param value value (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  private void value(final byte[] type, final byte[] value) throws IOException {
+    if(skip > 0) return;
+    open(type);
+    if(value != null && !(stripWS && ws(value))) builder.text(value);
+    close();
+  }
+}
@@ -2,6 +2,7 @@ package org.basex.build.json;
 
 import java.io.*;
 
+import org.basex.build.*;
 import org.basex.build.xml.*;
 import org.basex.core.*;
 import org.basex.io.*;
@@ -18,17 +19,43 @@ import org.basex.query.*;
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
-public final class JsonParser extends XMLParser {
+public final class JsonParser extends SingleParser {
+  /** JSON Parser options. */
+  private final JsonParserOptions jopts;
+
   /**
    * Constructor.
    * @param source document source
    * @param options main options
    * @param jopts parser options
+   */
+  private JsonParser(final IO source, final MainOptions options, final JsonParserOptions jopts) {
+    super(source, options);
+    this.jopts = jopts;
+  }
+
+  /**
+   * Returns a parser for the specified input. If possible, the input will be streamed
+   * to the database builder. Otherwise, it will be converted to XML in main memory.
+   * @param source document source
+   * @param options main options
+   * @param jopts parser options
+   * @return parser
    * @throws IOException I/O exception
    */
-  public JsonParser(final IO source, final MainOptions options, final JsonParserOptions jopts)
-      throws IOException {
-    super(toXml(source, jopts), options);
+  public static SingleParser get(final IO source, final MainOptions options,
+      final JsonParserOptions jopts) throws IOException {
+    return JsonBuilder.supported(jopts) ? new JsonParser(source, options, jopts) :
+      new XMLParser(toXml(source, jopts), options);
+  }
+
+  @Override
+  protected void parse() throws IOException {
+    try {
+      new JsonBuilder(jopts, builder, options).convert(source);
+    } catch(final QueryException ex) {
+      throw new QueryIOException(ex);
+    }
   }
 
   /**
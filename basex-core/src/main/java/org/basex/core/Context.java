@@ -124,7 +124,7 @@ public final class Context {
   public Context(final StaticOptions soptions) {
     this.soptions = soptions;
     options = new MainOptions();
-    datas = new Datas();
+    datas = new Datas(soptions);
     sessions = new Sessions();
     blocker = new ClientBlocker();
     databases = new Databases(soptions);
@@ -9,12 +9,34 @@ import org.basex.io.*;
 /**
  * This class organizes currently opened databases.
  *
+ * Databases that are no longer pinned are kept open for a while, as they are likely to be
+ * requested again soon (e.g. by subsequent HTTP requests). The number of these idle instances
+ * is limited by {@link StaticOptions#DBPOOL}, and they are closed after
+ * {@link StaticOptions#DBPOOLTIMEOUT} seconds.
+ *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
 public final class Datas {
   /** Pinned databases (data instance, number of pins). */
   private final IdentityHashMap<Data, Integer> list = new IdentityHashMap<>();
+  /** Idle databases (data instance, time of last use), ordered by their last use. */
+  private final LinkedHashMap<Data, Long> idle = new LinkedHashMap<>();
+  /** Maximum number of idle databases. */
+  private final int max;
+  /** Timeout for idle databases (milliseconds). */
+  private final long timeout;
+  /** Timer for closing idle databases (can be {@code null}). */
+  private Timer timer;
+
+  /**
+   * Constructor.
+   * @param soptions static options
+   */
+  public Datas(final StaticOptions soptions) {
+    max = soptions.get(StaticOptions.DBPOOL);
+    timeout = Math.max(1, soptions.get(StaticOptions.DBPOOLTIMEOUT)) * 1000L;
+  }
 
   /**
    * Pins and returns a database with the specified name.
@@ -23,10 +45,17 @@ public final class Datas {
    */
   public synchronized Data pin(final String name) {
     final Entry<Data, Integer> entry = get(name);
-    if(entry == null) return null;
-
-    final Data data = entry.getKey();
-    list.put(data, entry.getValue() + 1);
+    if(entry != null) {
+      final Data data = entry.getKey();
+      list.put(data, entry.getValue() + 1);
+      return data;
+    }
+    // reuse idle database
+    final Data data = idle(name);
+    if(data != null) {
+      idle.remove(data);
+      list.put(data, 1);
+    }
     return data;
   }
 
@@ -35,11 +64,13 @@ public final class Datas {
    * @param data data reference
    */
   public synchronized void pin(final Data data) {
+    idle.remove(data);
     list.compute(data, (key, pins) -> pins == null ? 1 : pins + 1);
   }
 
   /**
-   * Unpins a data reference and closes the database if no references exist anymore.
+   * Unpins a data reference. If no references exist anymore, the database is either
+   * closed or kept open as idle instance.
    * @param data data reference
    */
   public synchronized void unpin(final Data data) {
@@ -49,8 +80,8 @@ public final class Datas {
 
     final int p = pins;
     if(p == 1) {
-      data.close();
       list.remove(data);
+      release(data);
     } else {
       list.put(data, p - 1);
     }
@@ -58,13 +89,28 @@ public final class Datas {
 
   /**
    * Checks if the database with the specified name is pinned.
+   * As the check precedes operations that replace or delete databases,
+   * an idle instance of the database will be closed.
    * @param name name of the database
    * @return result of check
    */
   synchronized boolean pinned(final String name) {
+    evict(name);
     return get(name) != null;
   }
 
+  /**
+   * Closes the idle instance of the database with the specified name.
+   * @param name name of the database
+   */
+  public synchronized void evict(final String name) {
+    final Data data = idle(name);
+    if(data != null) {
+      idle.remove(data);
+      data.close();
+    }
+  }
+
   /**
    * Returns the number of pins for the database with the specified name,
    * or {@code 0} if the database is not opened.
@@ -82,6 +128,12 @@ public final class Datas {
   synchronized void close() {
     for(final Data data : list.keySet()) data.close();
     list.clear();
+    for(final Data data : idle.keySet()) data.close();
+    idle.clear();
+    if(timer != null) {
+      timer.cancel();
+      timer = null;
+    }
   }
 
   /**
@@ -95,4 +147,65 @@ public final class Datas {
     }
     return null;
   }
+
+  /**
+   * Returns an idle database with the specified name.
+   * @param name name of the database
+   * @return data reference, or {@code null} if no idle instance exists
+   */
+  private Data idle(final String name) {
+    for(final Data data : idle.keySet()) {
+      if(IO.equals(data.meta.name, name)) return data;
+    }
+    return null;
+  }
+
+  /**
+   * Closes a database that is no longer pinned, or keeps it open as idle instance.
+   * @param data data reference
+   */
+  private void release(final Data data) {
+    if(max <= 0 || data.inMemory() || data.closed()) {
+      data.close();
+      return;
+    }
+
+    // write pending updates to disk, close least recently used instance if pool is full
+    data.flush(true);
+    idle.put(data, System.currentTimeMillis());
+    if(idle.size() > max) {
+      final Iterator<Data> iter = idle.keySet().iterator();
+      final Data eldest = iter.next();
+      iter.remove();
+      eldest.close();
+    }
+
+    if(timer == null) {
+      timer = new Timer(true);
+      final long delay = Math.max(100, timeout >> 1);
+      timer.scheduleAtFixedRate(new TimerTask() {
+        @Override
+        public void run() {
+          expire();
+        }
+      }, delay, delay);
+    }
+  }
+
+  /**
+   * Closes idle databases whose timeout has expired.
+   */
+  private synchronized void expire() {
+    final long time = System.currentTimeMillis() - timeout;
+    for(final Iterator<Entry<Data, Long>> iter = idle.entrySet().iterator(); iter.hasNext();) {
+      final Entry<Data, Long> entry = iter.next();
+      if(entry.getValue() > time) break;
+      iter.remove();
+      entry.getKey().close();
+    }
+    if(idle.isEmpty() && timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
 }
@@ -34,6 +34,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as binary files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing and storing input (0: number of processors). */
+  public static final NumberOption PARSETHREADS = new NumberOption("PARSETHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -123,6 +125,8 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 50);
   /** Limit for unrolling loops. */
   public static final NumberOption UNROLLLIMIT = new NumberOption("UNROLLLIMIT", 5);
+  /** Number of tuples that are sorted or grouped in main memory (0: no limit). */
+  public static final NumberOption SPILLLIMIT = new NumberOption("SPILLLIMIT", 1000000);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
   /** Look up documents in databases. */
@@ -184,7 +188,7 @@ public final class MainOptions extends Options {
       CATALOG };
   /** Extended parsing options. */
   public static final Option<?>[] EXTPARSING = { CREATEFILTER, ADDARCHIVES, ARCHIVENAME,
-      SKIPCORRUPT, ADDRAW, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
+      SKIPCORRUPT, ADDRAW, PARSETHREADS, ADDCACHE, CSVPARSER, JSONPARSER, HTMLPARSER, PARSER };
   /** All parsing options. */
   public static final Option<?>[] PARSING = Stream.concat(Stream.of(XMLPARSING),
       Stream.of(EXTPARSING)).toArray(Option<?>[]::new);
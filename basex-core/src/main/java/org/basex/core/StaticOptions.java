@@ -2,7 +2,9 @@ package org.basex.core;
 
 import java.util.*;
 
+import org.basex.index.*;
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 import org.basex.util.options.*;
@@ -32,6 +34,20 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Memory-map database tables (faster parallel read access). */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Size of the shared page cache in megabytes (0: disabled). */
+  public static final NumberOption PAGECACHE = new NumberOption("PAGECACHE", 0);
+  /** Number of threads for building index structures (0: number of processors). */
+  public static final NumberOption INDEXTHREADS = new NumberOption("INDEXTHREADS", 0);
+  /** Size of the buffer for building index structures in megabytes (0: half of the memory). */
+  public static final NumberOption INDEXBUFFER = new NumberOption("INDEXBUFFER", 0);
+  /** Maximum number of unused databases that are kept open. */
+  public static final NumberOption DBPOOL = new NumberOption("DBPOOL", 8);
+  /** Timeout (seconds) for closing unused databases. */
+  public static final NumberOption DBPOOLTIMEOUT = new NumberOption("DBPOOLTIMEOUT", 60);
+  /** Number of threads for evaluating parallel tasks (0: number of processors). */
+  public static final NumberOption FORKJOINTHREADS = new NumberOption("FORKJOINTHREADS", 0);
 
   /** Comment: written to the options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -48,6 +64,8 @@ public final class StaticOptions extends Options {
   public static final StringOption PASSWORD = new StringOption("PASSWORD", "");
   /** Server: host, used for binding the server. Empty string for wildcard. */
   public static final StringOption SERVERHOST = new StringOption("SERVERHOST", "");
+  /** Server: watch idle client connections with a selector instead of a thread per client. */
+  public static final BooleanOption SERVERNIO = new BooleanOption("SERVERNIO", false);
   /** Server: proxy host (default: ignored). */
   public static final StringOption PROXYHOST = new StringOption("PROXYHOST", "");
   /** Server: proxy port (default: ignored). */
@@ -138,6 +156,9 @@ public final class StaticOptions extends Options {
       Prop.setSystem("http.nonProxyHosts", nph);
     }
     if(get(IGNORECERT)) IOUrl.ignoreCertificates();
+    PageCache.get().size(get(PAGECACHE));
+    IndexBuilder.threads(get(INDEXTHREADS));
+    IndexBuilder.buffer(get(INDEXBUFFER));
   }
 
   /**
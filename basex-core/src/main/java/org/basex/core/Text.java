@@ -217,6 +217,8 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_SPILLS = LI + "Partial Structures: ";
 
   /** Index info. */
   String HASH = "Hash";
@@ -1364,6 +1366,8 @@ public interface Text {
 
   /** Info on used main memory. */
   String USED_MEM = lang("used_mem");
+  /** Page cache. */
+  String PAGE_CACHE = lang("page_cache");
   /** Memory information. */
   String TOTAL_MEM_C = lang("total_mem") + COLS;
   /** Memory information. */
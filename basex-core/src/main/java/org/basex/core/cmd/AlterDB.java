@@ -41,6 +41,8 @@ public final class AlterDB extends ACreate {
     if(!closed) closed = close(context, src);
     // check if source database is still opened
     if(context.pinned(src)) return error(DB_PINNED_X, src);
+    // check if target database is opened
+    if(context.pinned(trg)) return error(DB_PINNED_X, trg);
 
     // try to alter database
     return alter(src, trg, soptions) && (!closed || new Open(trg).run(context)) ?
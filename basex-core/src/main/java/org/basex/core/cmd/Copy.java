@@ -42,6 +42,8 @@ public final class Copy extends Command {
 
     // source database does not exist
     if(!soptions.dbExists(src)) return error(DB_NOT_FOUND_X, src);
+    // target database is still opened
+    if(context.pinned(trg)) return error(DB_PINNED_X, trg);
 
     // try to copy database
     try {
@@ -25,6 +25,8 @@ public class Execute extends Command {
   final List<Command> commands;
   /** Error message. */
   String error;
+  /** Number of successfully executed commands. */
+  private int executed;
 
   /**
    * Constructor for string input.
@@ -64,6 +66,7 @@ public class Execute extends Command {
     if(!init(context)) return error(error);
 
     final StringBuilder sb = new StringBuilder();
+    executed = 0;
     for(final Command cmd : commands) {
       if(cmd.openDB && context.data() == null) return error(NO_DB_OPENED);
       try {
@@ -73,6 +76,7 @@ public class Execute extends Command {
           exception = cmd.exception;
           return error(sb.toString());
         }
+        executed++;
       } finally {
         popJob();
       }
@@ -80,6 +84,14 @@ public class Execute extends Command {
     return info(sb.toString().replaceAll("\r?\n?$", ""));
   }
 
+  /**
+   * Returns the number of commands that have been successfully executed.
+   * @return number of commands
+   */
+  public final int executed() {
+    return executed;
+  }
+
   @Override
   public final boolean updating(final Context ctx) {
     if(!init(ctx)) return false;
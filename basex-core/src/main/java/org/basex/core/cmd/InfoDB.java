@@ -49,6 +49,7 @@ public final class InfoDB extends AInfo {
     tb.addExt(header, DB_PROPS);
     info(tb, MetaProp.NAME, meta);
     info(tb, MetaProp.SIZE.name(), Performance.format(meta.dbSize()));
+    info(tb, MetaProp.RECLAIMABLE.name(), Performance.format(meta.reclaimable()));
     info(tb, MetaProp.NODES, meta);
     info(tb, MetaProp.DOCUMENTS, meta);
     info(tb, MetaProp.BINARIES, meta);
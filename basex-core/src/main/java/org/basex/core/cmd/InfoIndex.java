@@ -106,8 +106,16 @@ public final class InfoIndex extends AInfo {
       final MainOptions options, final boolean avl) {
 
     final TokenBuilder tb = new TokenBuilder().add(desc).add(NL);
-    if(avl) tb.add(data.info(it, options));
-    else tb.add(LI).addExt(NOT_AVAILABLE, it).add(NL);
+    if(avl) {
+      tb.add(data.info(it, options));
+      final long[] spills = data.meta.spills(it);
+      if(spills[0] > 0) {
+        tb.add(LI_SPILLS).addLong(spills[0]).add(" (").add(Performance.format(spills[1]));
+        tb.add(')').add(NL);
+      }
+    } else {
+      tb.add(LI).addExt(NOT_AVAILABLE, it).add(NL);
+    }
     return tb.add(NL).finish();
   }
 
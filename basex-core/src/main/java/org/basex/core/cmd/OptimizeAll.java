@@ -122,6 +122,7 @@ public final class OptimizeAll extends ACreate {
       if(cmd != null) cmd.popJob();
     }
     Close.close(odata, context);
+    context.datas.evict(name);
 
     // adopt original meta data, create new index structures
     final MetaData nmeta = ndata.meta;
@@ -89,6 +89,14 @@ public abstract class Job {
     children.remove(children.size() - 1);
   }
 
+  /**
+   * Pops the specified job (required if child jobs are run in parallel).
+   * @param job child job
+   */
+  public final synchronized void popJob(final Job job) {
+    children.remove(job);
+  }
+
   /**
    * Stops a job or sub job.
    */
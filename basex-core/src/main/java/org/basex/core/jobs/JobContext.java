@@ -30,6 +30,9 @@ public final class JobContext {
   /** Time of creation. */
   public final long time = System.currentTimeMillis();
 
+  /** Number of parallel tasks that are currently evaluated. */
+  public final AtomicInteger tasks = new AtomicInteger();
+
   /** Performance measurements. */
   public Performance performance;
   /** Database context. */
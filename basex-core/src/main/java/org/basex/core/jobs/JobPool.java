@@ -34,6 +34,10 @@ public final class JobPool {
   final Timer timer = new Timer(true);
   /** Timeout (ms). */
   private final long timeout;
+  /** Number of threads for parallel tasks. */
+  private final int threads;
+  /** Shared pool for parallel tasks (lazily instantiated). */
+  private ForkJoinPool forkJoin;
 
   /**
    * Constructor.
@@ -41,6 +45,18 @@ public final class JobPool {
    */
   public JobPool(final StaticOptions sopts) {
     timeout = sopts.get(StaticOptions.CACHETIMEOUT) * 1000L;
+    final int t = sopts.get(StaticOptions.FORKJOINTHREADS);
+    threads = t < 1 ? Runtime.getRuntime().availableProcessors() : Math.min(0x7FFF, t);
+  }
+
+  /**
+   * Returns the shared pool for parallel tasks.
+   * Nested and concurrent tasks are balanced via work-stealing.
+   * @return pool
+   */
+  public synchronized ForkJoinPool forkJoin() {
+    if(forkJoin == null) forkJoin = new ForkJoinPool(threads);
+    return forkJoin;
   }
 
   /**
@@ -68,6 +84,7 @@ public final class JobPool {
     timer.cancel();
     for(final Job job : active.values()) job.stop();
     while(!active.isEmpty()) Performance.sleep(10);
+    if(forkJoin != null) forkJoin.shutdownNow();
   }
 
   /**
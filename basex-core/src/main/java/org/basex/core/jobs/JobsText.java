@@ -35,4 +35,6 @@ public interface JobsText {
   QNm Q_TIME = new QNm("time");
   /** QName. */
   QNm Q_TYPE = new QNm("type");
+  /** QName. */
+  QNm Q_TASKS = new QNm("tasks");
 }
@@ -9,6 +9,8 @@ import java.util.concurrent.locks.*;
  * @author Christian Gruen
  */
 final class LocalReadWriteLock extends ReentrantReadWriteLock {
+  /** Update lock: exclusive for writers, no impact on readers. */
+  private final ReentrantLock update;
   /** Pins. */
   private int pins;
 
@@ -18,6 +20,15 @@ final class LocalReadWriteLock extends ReentrantReadWriteLock {
    */
   LocalReadWriteLock(final boolean fair) {
     super(fair);
+    update = new ReentrantLock(fair);
+  }
+
+  /**
+   * Returns the update lock.
+   * @return update lock
+   */
+  ReentrantLock updateLock() {
+    return update;
   }
 
   /**
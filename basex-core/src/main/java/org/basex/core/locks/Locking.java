@@ -21,6 +21,23 @@ import org.basex.util.list.*;
  *
  * This class prevents locking deadlocks by sorting all strings.
  *
+ * Writers first acquire update locks, which are exclusive to other writers, but not to readers.
+ * If a job only updates databases at the end of its execution and has no other locks, exclusive
+ * locks on the databases are deferred (see {@link Locks#deferred}) until the updates are
+ * committed (see {@link #commit()}). Readers will thus only wait for commits. As update locks
+ * are assigned before all other locks, and as deferred jobs hold no other locks when committing,
+ * deadlocks are prevented as well.
+ *
+ * Readers may still be blocked by writers:
+ * <ul>
+ *   <li> When committing, a writer waits until all current readers of its databases have finished.
+ *        With fair locking, new readers are queued behind the waiting writer, and they will only
+ *        be resumed after the updates have been applied.</li>
+ *   <li> Locks are only deferred for updating queries. Commands (such as {@code ADD} or
+ *        {@code REPLACE}) and jobs with read or special locks acquire exclusive locks at the
+ *        beginning and block readers until they have finished.</li>
+ * </ul>
+ *
  * Locks can only be released by the same thread which acquired it.
  *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
@@ -103,6 +120,7 @@ public final class Locking {
     final Long id = Thread.currentThread().getId();
     if(locked.containsKey(id)) throw new IllegalMonitorStateException("Thread holds locks: " + id);
     locked.put(id, locks);
+    locks.committed = false;
 
     // queue job if the job limit has been reached
     final LockList reads = locks.reads, writes = locks.writes;
@@ -125,18 +143,35 @@ public final class Locking {
       }
     }
 
+    // assign update locks (exclusive to other writers)
+    for(final String string : writes) pin(string).updateLock().lock();
+
     // assign locks in sorted order (to ensure that write locks will be assigned first)
     int w = 0, r = 0;
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        final String string = writes.get(w++);
+        if(!locks.deferred) lock(string).writeLock().lock();
       } else {
         pin(reads.get(r++)).readLock().lock();
       }
     }
   }
 
+  /**
+   * Acquires the deferred write locks of the current job. Called before updates are committed.
+   * Waits until all readers of the affected databases have released their locks. With fair
+   * locking, readers arriving in the meantime will be blocked until the job has been finished.
+   */
+  public void commit() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null || !locks.deferred || locks.committed) return;
+
+    for(final String string : locks.writes) lock(string).writeLock().lock();
+    locks.committed = true;
+  }
+
   /**
    * Removes locks for the specified job, all in reverse order.
    */
@@ -148,7 +183,11 @@ public final class Locking {
 
     // release all local locks
     for(final String string : reads) unpin(string).readLock().unlock();
-    for(final String string : writes) unpin(string).writeLock().unlock();
+    for(final String string : writes) {
+      final LocalReadWriteLock lck = unpin(string);
+      if(!locks.deferred || locks.committed) lck.writeLock().unlock();
+      lck.updateLock().unlock();
+    }
 
     // allow next global reader to resume
     synchronized(globalLock) {
@@ -187,6 +226,17 @@ public final class Locking {
     }
   }
 
+  /**
+   * Returns the lock of a pinned lock string.
+   * @param string lock string
+   * @return lock
+   */
+  private LocalReadWriteLock lock(final String string) {
+    synchronized(localLocks) {
+      return localLocks.get(string);
+    }
+  }
+
   /**
    * Unpins a lock string. Removes a lock if pin count is zero.
    * @param string lock string
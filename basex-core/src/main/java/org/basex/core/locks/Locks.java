@@ -14,6 +14,13 @@ public final class Locks {
   public final LockList reads = new LockList();
   /** Write locks. */
   public final LockList writes = new LockList();
+  /**
+   * Indicates if write locks can be deferred until updates are committed
+   * (see {@link Locking#commit()}).
+   */
+  public boolean deferred;
+  /** Indicates if deferred locks have been acquired. */
+  boolean committed;
 
   /**
    * Finalizes locks. Replaces context references with current database, sorts entries,
@@ -33,6 +40,13 @@ public final class Locks {
 
     // remove read locks that are also defined as write locks
     reads.remove(writes);
+    // only defer locks of jobs that exclusively write databases
+    if(writes.global() || reads.locking()) deferred = false;
+    for(final String string : writes) {
+      if(string.startsWith(Locking.INTERNAL_PREFIX) || string.startsWith(Locking.BASEX_PREFIX)) {
+        deferred = false;
+      }
+    }
     return this;
   }
 
@@ -544,18 +544,23 @@ public abstract class Data {
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text and full-text index
+        final boolean txt = meta.updindex && meta.textindex, ft = ftUpdate();
+        if(txt || ft) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(txt) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(txt) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
       }
     }
   }
@@ -590,6 +595,7 @@ public abstract class Data {
     // update index structures
     final int tKind = kind(pre), tSize = size(pre, tKind), tPar = parent(pre, tKind);
     indexDelete(pre, id(pre), tSize);
+    release(pre, tSize);
 
     final Data sData = source.data;
     int sTopPre = source.start;
@@ -684,6 +690,7 @@ public abstract class Data {
 
     /// delete textual values
     if(kind != DOC && kind != ELEM) delete(pre, kind != ATTR);
+    else release(pre, size);
 
     // reduce size of ancestors
     int par = pre;
@@ -940,6 +947,14 @@ public abstract class Data {
    */
   protected abstract void delete(int pre, boolean text);
 
+  /**
+   * Releases the textual values of a document or element and its descendants.
+   * The values are not deleted: the space will be reclaimed when the database is compacted.
+   * @param pre pre value
+   * @param size size of the subtree
+   */
+  protected void release(final int pre, final int size) { }
+
   // INSERTS WITHOUT TABLE UPDATES ================================================================
 
   /** Buffer for caching new table entries. */
@@ -1083,6 +1098,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(ftUpdate()) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1101,9 +1117,18 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(ftUpdate()) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
+  /**
+   * Checks if the full-text index is updated incrementally.
+   * @return result of check
+   */
+  private boolean ftUpdate() {
+    return meta.updindex && meta.ftindex && meta.ftupdindex && ftIndex != null;
+  }
+
   // HELPER FUNCTIONS =============================================================================
 
   /**
@@ -32,6 +32,8 @@ public interface DataText {
   String DBNDOCS = "NDOCS";
   /** Automatic index update. */
   String DBUPDIDX = "UPDINDEX";
+  /** Incremental update of the full-text index. */
+  String DBFTUPD = "FTUPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
   /** Text index. */
@@ -80,6 +82,18 @@ public interface DataText {
   String DBCRTTOK = "CRTTOK";
   /** Recreate full-text index. */
   String DBCRTFTX = "CRTFTX";
+  /** Text index: partial index structures of the last build. */
+  String DBTXTSPL = "TXTSPILLS";
+  /** Attribute index: partial index structures of the last build. */
+  String DBATVSPL = "ATVSPILLS";
+  /** Token index: partial index structures of the last build. */
+  String DBTOKSPL = "TOKSPILLS";
+  /** Full-text index: partial index structures of the last build. */
+  String DBFTXSPL = "FTXSPILLS";
+  /** Texts: size of the entries in the heap file. */
+  String DBTXTUSED = "TXTUSED";
+  /** Attribute values: size of the entries in the heap file. */
+  String DBATVUSED = "ATVUSED";
 
   /** Tags. */
   String DBTAGS = "TAGS";
@@ -98,6 +112,8 @@ public interface DataText {
   String DATATBL = "tbl";
   /** Database - Temporary Size References. */
   String DATATMP = "tmp";
+  /** Database - Temporary heap references. */
+  String DATAREF = "ref";
   /** Database - Text index. */
   String DATATXT = "txt";
   /** Database - Attribute value index. */
@@ -123,6 +123,8 @@ public final class DiskData extends Data {
    */
   private void init() throws IOException {
     table = new TableDiskAccess(meta, false);
+    recover(true);
+    recover(false);
     texts = new DataAccess(meta.dbFile(DATATXT));
     values = new DataAccess(meta.dbFile(DATAATV));
   }
@@ -198,7 +200,7 @@ public final class DiskData extends Data {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
     } finally {
-      if(cmd != null) cmd.popJob();
+      if(cmd != null) cmd.popJob(ib);
     }
   }
 
@@ -207,6 +209,7 @@ public final class DiskData extends Data {
     close(type);
     final Index index = index(type);
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
+    meta.spills(type, 0, 0);
   }
 
   /**
@@ -262,6 +265,7 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
       }
     } catch(final IOException ex) {
       Util.stack(ex);
@@ -292,9 +296,11 @@ public final class DiskData extends Data {
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
-    // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    synchronized(da) {
+      final int l = da.readNum(value & Compress.COMPRESS - 1);
+      // if text is compressed, read number of compressed bytes
+      return Compress.compressed(value) ? da.readNum() : l;
+    }
   }
 
   /**
@@ -320,7 +326,25 @@ public final class DiskData extends Data {
     // old entry (offset or value)
     final long old = textRef(pre);
     // if old text was not inlined, fill unused space in text file with zero bytes
-    if(!Inline.inlined(old)) (text ? texts : values).free(old & Compress.COMPRESS - 1, 0);
+    if(!Inline.inlined(old)) {
+      final DataAccess store = text ? texts : values;
+      used(text, -entry(store, old));
+      store.free(old & Compress.COMPRESS - 1, 0);
+    }
+  }
+
+  @Override
+  protected void release(final int pre, final int size) {
+    if(meta.textbytes < 0 || meta.valuebytes < 0) return;
+    final int last = pre + size;
+    for(int p = pre; p < last; p++) {
+      final int kind = kind(p);
+      if(kind == ELEM) continue;
+      final long ref = textRef(p);
+      if(Inline.inlined(ref)) continue;
+      final boolean text = kind != ATTR;
+      used(text, -entry(text ? texts : values, ref));
+    }
   }
 
   @Override
@@ -329,9 +353,11 @@ public final class DiskData extends Data {
     indexDelete(pre, -1, 1);
 
     // reference to heap file
-    final DataAccess store = kind == ATTR ? values : texts;
+    final boolean text = kind != ATTR;
+    final DataAccess store = text ? texts : values;
     // old entry (offset or value)
     final long oldRef = textRef(pre);
+    if(!Inline.inlined(oldRef)) used(text, -entry(store, oldRef));
 
     // check if new entry can be inlined
     final long v = Inline.packInt(value);
@@ -356,6 +382,7 @@ public final class DiskData extends Data {
       }
 
       store.writeToken(off, val);
+      used(text, val.length + Num.length(val.length));
       textRef(pre, val == value ? off : off | Compress.COMPRESS);
     }
 
@@ -374,6 +401,171 @@ public final class DiskData extends Data {
     final DataAccess store = text ? texts : values;
     final long offset = store.length();
     store.writeToken(offset, packed);
+    used(text, packed.length + Num.length(packed.length));
     return packed == value ? offset : Compress.COMPRESS | offset;
   }
+
+  // COMPACTION ===================================================================================
+
+  /**
+   * Compacts the heap files of texts and attribute values: if at least a quarter of a file
+   * consists of unused space, the referenced entries are rewritten in document order, and
+   * the text references in the table are updated.
+   * The database must be locked for write operations.
+   * @return number of reclaimed bytes
+   * @throws IOException I/O exception
+   */
+  public long compact() throws IOException {
+    // sizes of the referenced entries are unknown: compute them once
+    if(meta.textbytes < 0 || meta.valuebytes < 0) {
+      meta.textbytes = used(true);
+      meta.valuebytes = used(false);
+      meta.dirty = true;
+    }
+    final long reclaimed = compact(true) + compact(false);
+    if(reclaimed > 0) meta.dirty = true;
+    return reclaimed;
+  }
+
+  /**
+   * Compacts the heap file of texts or attribute values.
+   * The referenced entries are written to a temporary heap file, and the new references are
+   * written to a separate file. The old heap file is deleted, and the new references are
+   * assigned to the table by {@link #recover(boolean)}, which will be repeated when the
+   * database is opened if compaction was interrupted.
+   * @param text texts or attribute values
+   * @return number of reclaimed bytes
+   * @throws IOException I/O exception
+   */
+  private long compact(final boolean text) throws IOException {
+    final DataAccess store = text ? texts : values;
+    final long length = store.length(), used = text ? meta.textbytes : meta.valuebytes;
+    if(length - used < Math.max(1, length >> 2)) return 0;
+
+    // write referenced entries to temporary heap file, new references to separate file
+    final String name = text ? DATATXT : DATAATV;
+    long size;
+    try(DataOutput out = new DataOutput(meta.dbFile(name + DATATMP));
+        DataOutput refs = new DataOutput(meta.dbFile(name + DATAREF))) {
+      final int sz = meta.size;
+      for(int pre = 0; pre < sz; pre++) {
+        final long ref = heapRef(pre, text);
+        if(ref == -1) continue;
+        refs.write5(ref & Compress.COMPRESS | out.size());
+        out.writeToken(store.readToken(ref & Compress.COMPRESS - 1));
+      }
+      size = out.size();
+    }
+
+    // replace heap file, update references in the table
+    store.close();
+    final IOFile file = meta.dbFile(name);
+    file.delete();
+    final boolean compacted = recover(text);
+    final DataAccess da = new DataAccess(file);
+    if(text) texts = da;
+    else values = da;
+    if(!compacted) throw new IOException(Util.info(FILE_NOT_SAVED_X, file));
+
+    if(text) meta.textbytes = size;
+    else meta.valuebytes = size;
+    return length - size;
+  }
+
+  /**
+   * Completes or discards an interrupted compaction of a heap file.
+   * If the old heap file still exists, the temporary files are discarded. Otherwise, the
+   * temporary heap file is renamed, and the new references are assigned to the table.
+   * As the references are overwritten, this step can be repeated if it is interrupted.
+   * @param text texts or attribute values
+   * @return {@code true} if new references were assigned
+   * @throws IOException I/O exception
+   */
+  private boolean recover(final boolean text) throws IOException {
+    final String name = text ? DATATXT : DATAATV;
+    final IOFile file = meta.dbFile(name), tmp = meta.dbFile(name + DATATMP);
+    final IOFile refs = meta.dbFile(name + DATAREF);
+    if(!refs.exists()) return false;
+
+    if(tmp.exists()) {
+      if(file.exists()) {
+        // old heap file is intact: discard new files
+        if(!tmp.delete() || !refs.delete()) {
+          throw new IOException(Util.info(FILE_NOT_SAVED_X, file));
+        }
+        return false;
+      }
+      if(!tmp.rename(file)) throw new IOException(Util.info(FILE_NOT_SAVED_X, file));
+    }
+
+    final DataAccess da = new DataAccess(refs);
+    try {
+      final int sz = meta.size;
+      for(int pre = 0; pre < sz; pre++) {
+        if(heapRef(pre, text) != -1) textRef(pre, da.read5());
+      }
+    } finally {
+      da.close();
+    }
+    table.flush(false);
+    if(!refs.delete()) throw new IOException(Util.info(FILE_NOT_SAVED_X, refs));
+    return true;
+  }
+
+  /**
+   * Returns the reference to an entry in the heap file of texts or attribute values.
+   * @param pre pre value
+   * @param text texts or attribute values
+   * @return reference, or {@code -1} if the entry is inlined or stored in the other file
+   */
+  private long heapRef(final int pre, final boolean text) {
+    final int kind = kind(pre);
+    if(kind == ELEM || kind == ATTR == text) return -1;
+    final long ref = textRef(pre);
+    return Inline.inlined(ref) ? -1 : ref;
+  }
+
+  /**
+   * Computes the size of the referenced entries in a heap file.
+   * @param text texts or attribute values
+   * @return size
+   */
+  private long used(final boolean text) {
+    final DataAccess store = text ? texts : values;
+    long used = 0;
+    final int sz = meta.size;
+    for(int pre = 0; pre < sz; pre++) {
+      final int kind = kind(pre);
+      if(kind == ELEM || kind == ATTR == text) continue;
+      final long ref = textRef(pre);
+      if(!Inline.inlined(ref)) used += entry(store, ref);
+    }
+    return used;
+  }
+
+  /**
+   * Returns the size of an entry in a heap file.
+   * @param store heap file
+   * @param ref text reference
+   * @return size of the entry
+   */
+  private static long entry(final DataAccess store, final long ref) {
+    synchronized(store) {
+      final int l = store.readNum(ref & Compress.COMPRESS - 1);
+      return Num.length(l) + l;
+    }
+  }
+
+  /**
+   * Updates the size of the referenced entries in a heap file.
+   * @param text texts or attribute values
+   * @param bytes number of added or removed bytes
+   */
+  private void used(final boolean text, final long bytes) {
+    if(text) {
+      if(meta.textbytes >= 0) meta.textbytes += bytes;
+    } else if(meta.valuebytes >= 0) {
+      meta.valuebytes += bytes;
+    }
+  }
 }
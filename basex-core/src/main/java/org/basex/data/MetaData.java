@@ -48,6 +48,8 @@ public final class MetaData {
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
+  /** Indicates if the full-text index references node ids and is updated incrementally. */
+  public boolean ftupdindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
 
@@ -83,6 +85,12 @@ public final class MetaData {
   public int maxlen;
   /** Split size for creating indexes. */
   public int splitsize;
+  /** Number and size of the partial index structures written by the last index builds. */
+  private final long[] spills = new long[8];
+  /** Size of the entries in the heap file of texts ({@code -1}: unknown). */
+  public long textbytes = -1;
+  /** Size of the entries in the heap file of attribute values ({@code -1}: unknown). */
+  public long valuebytes = -1;
 
   /** Language of full-text search index. */
   public Language language;
@@ -99,6 +107,9 @@ public final class MetaData {
   /** Last (highest) id assigned to a node. Can be {@code -1} if database is empty. */
   public int lastid = -1;
 
+  /** Indicates if the table file will be memory-mapped for reading (not stored in meta data). */
+  public boolean mmap;
+
   /** Database directory. Set to {@code null} if database is in main memory. */
   private final IOFile dir;
   /** Flag for out-of-date indexes. */
@@ -120,6 +131,7 @@ public final class MetaData {
    */
   public MetaData(final String name, final MainOptions options, final StaticOptions sopts) {
     this(name, sopts.dbPath(name), options);
+    mmap = sopts.get(StaticOptions.MMAP);
   }
 
   /**
@@ -249,6 +261,26 @@ public final class MetaData {
     return dir != null ? dbSize(dir) : 0;
   }
 
+  /**
+   * Returns the number of bytes in the heap files of texts and attribute values that are
+   * no longer referenced and can be reclaimed by compacting the files.
+   * @return number of bytes ({@code 0} if the size of the entries is unknown)
+   */
+  public long reclaimable() {
+    return reclaimable(true) + reclaimable(false);
+  }
+
+  /**
+   * Returns the number of bytes in a heap file that can be reclaimed.
+   * @param text texts or attribute values
+   * @return number of bytes ({@code 0} if the size of the entries is unknown)
+   */
+  public long reclaimable(final boolean text) {
+    final long used = text ? textbytes : valuebytes;
+    return dir == null || used < 0 ? 0 :
+      Math.max(0, dbFile(text ? DATATXT : DATAATV).length() - used);
+  }
+
   /**
    * Returns the disk timestamp of the database.
    * @return database size
@@ -378,6 +410,31 @@ public final class MetaData {
     }
   }
 
+  /**
+   * Returns the number and size of the partial index structures that have been written by the
+   * last build of the specified index.
+   * @param type index type
+   * @return number of partial index structures and written bytes
+   */
+  public long[] spills(final IndexType type) {
+    final int o = spillOffset(type);
+    return o == -1 ? new long[2] : new long[] { spills[o], spills[o + 1] };
+  }
+
+  /**
+   * Assigns the number and size of the partial index structures that have been written by an
+   * index build.
+   * @param type index type
+   * @param count number of partial index structures
+   * @param bytes written bytes
+   */
+  public void spills(final IndexType type, final long count, final long bytes) {
+    final int o = spillOffset(type);
+    if(o == -1) return;
+    spills[o] = count;
+    spills[o + 1] = bytes;
+  }
+
   // CLASS METHODS ================================================================================
 
   /**
@@ -406,6 +463,7 @@ public final class MetaData {
         case DBFSIZE:    inputsize = toLong(v); break;
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
+        case DBFTUPD:    ftupdindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
@@ -423,6 +481,12 @@ public final class MetaData {
         case DBFTST:     stemming = toBoolean(v); break;
         case DBFTCS:     casesens = toBoolean(v); break;
         case DBUPTODATE: uptodate = toBoolean(v); break;
+        case DBTXTSPL:   spills(IndexType.TEXT, v); break;
+        case DBATVSPL:   spills(IndexType.ATTRIBUTE, v); break;
+        case DBTOKSPL:   spills(IndexType.TOKEN, v); break;
+        case DBFTXSPL:   spills(IndexType.FULLTEXT, v); break;
+        case DBTXTUSED:  textbytes = toLong(v); break;
+        case DBATVUSED:  valuebytes = toLong(v); break;
       }
     }
 
@@ -449,6 +513,7 @@ public final class MetaData {
     writeInfo(out, DBNDOCS,    ndocs);
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
+    writeInfo(out, DBFTUPD,    ftupdindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
@@ -472,6 +537,12 @@ public final class MetaData {
     writeInfo(out, DBUPTODATE, uptodate);
     writeInfo(out, DBLASTID,   lastid);
     if(language != null) writeInfo(out, DBFTLN, language.toString());
+    writeSpills(out, DBTXTSPL, IndexType.TEXT);
+    writeSpills(out, DBATVSPL, IndexType.ATTRIBUTE);
+    writeSpills(out, DBTOKSPL, IndexType.TOKEN);
+    writeSpills(out, DBFTXSPL, IndexType.FULLTEXT);
+    if(textbytes >= 0) writeInfo(out, DBTXTUSED, textbytes);
+    if(valuebytes >= 0) writeInfo(out, DBATVUSED, valuebytes);
     out.write(0);
   }
 
@@ -488,7 +559,7 @@ public final class MetaData {
       attrindex = false;
       tokenindex = false;
     }
-    ftindex = false;
+    if(!ftupdindex) ftindex = false;
   }
 
   /**
@@ -528,6 +599,44 @@ public final class MetaData {
     writeInfo(out, name, Long.toString(value));
   }
 
+  /**
+   * Parses and assigns the statistics on partial index structures.
+   * @param type index type
+   * @param value value ({@code count/bytes})
+   */
+  private void spills(final IndexType type, final String value) {
+    final int i = value.indexOf('/');
+    if(i != -1) spills(type, toLong(value.substring(0, i)), toLong(value.substring(i + 1)));
+  }
+
+  /**
+   * Writes the statistics on partial index structures to the specified output.
+   * @param out output stream
+   * @param name key
+   * @param type index type
+   * @throws IOException I/O exception
+   */
+  private void writeSpills(final DataOutput out, final String name, final IndexType type)
+      throws IOException {
+    final int o = spillOffset(type);
+    if(spills[o] > 0) writeInfo(out, name, spills[o] + "/" + spills[o + 1]);
+  }
+
+  /**
+   * Returns the offset of the statistics on partial index structures.
+   * @param type index type
+   * @return offset ({@code -1}: index type is not built in partitions)
+   */
+  private static int spillOffset(final IndexType type) {
+    switch(type) {
+      case TEXT:      return 0;
+      case ATTRIBUTE: return 2;
+      case TOKEN:     return 4;
+      case FULLTEXT:  return 6;
+      default:        return -1;
+    }
+  }
+
   /**
    * Writes a string option to the specified output.
    * @param out output stream
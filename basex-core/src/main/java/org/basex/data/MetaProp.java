@@ -24,6 +24,11 @@ public enum MetaProp {
     public Long value(final MetaData meta) { return meta.dbSize(); }
   },
   /** Property. */
+  RECLAIMABLE(false) {
+    @Override
+    public Long value(final MetaData meta) { return meta.reclaimable(); }
+  },
+  /** Property. */
   NODES(false) {
     @Override
     public Integer value(final MetaData meta) { return meta.size; }
@@ -3,6 +3,9 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -14,10 +17,40 @@ import org.basex.util.*;
  * This interface defines the functions which are needed for building
  * new index structures.
  *
+ * Disk-based index structures are built by {@link Worker} instances. If the database is large
+ * enough, the pre range is partitioned, and the partitions are indexed in parallel.
+ * The partial index structures are written to disk and merged afterwards.
+ *
+ * The main memory consumed by the workers is estimated from the sizes of their index data.
+ * If the estimated size exceeds the index buffer, which is shared by all builders that are
+ * currently running, the workers write their data to disk.
+ *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Job {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 14;
+  /** Thread counter. */
+  private static final AtomicInteger THREADS = new AtomicInteger();
+  /** Number of builders that are currently indexing data. */
+  private static final AtomicInteger BUILDERS = new AtomicInteger();
+  /** Size of the index buffer (in bytes). */
+  private static volatile long buffer;
+  /** Shared thread pool for indexing partitions. */
+  private static final ThreadPoolExecutor POOL = new ThreadPoolExecutor(1, 1, 60,
+      TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        final Thread thread = new Thread(r, "index-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  static {
+    POOL.allowCoreThreadTimeOut(true);
+    threads(0);
+    buffer(0);
+  }
+
   /** Performance. */
   private final Performance perf = new Performance();
 
@@ -32,8 +65,6 @@ public abstract class IndexBuilder extends Job {
 
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
-  /** Maximum memory to consume. */
-  private final long maxMem = (long) (Runtime.getRuntime().maxMemory() * 0.8);
 
   /** Names and namespace uri of element or attributes to include. */
   private final IndexNames includeNames;
@@ -44,8 +75,23 @@ public abstract class IndexBuilder extends Job {
   protected long count;
   /** Number of partial index structures. */
   protected int splits;
-  /** Threshold for freeing memory when estimating main memory consumption. */
-  private int gcCount;
+  /** Size of the partial index structures written to disk (in bytes). */
+  private long spilled;
+
+  /** Workers. */
+  private Worker[] workers = {};
+  /** Number of workers that are still running. */
+  private int active;
+  /** Current split round (incremented whenever the workers are requested to write their data). */
+  private int round;
+  /** Number of workers that have not written their data in the current round yet. */
+  private int pending;
+  /** Number of index operations that have not been written to disk yet. */
+  private long unwritten;
+  /** Estimated size of the index data that has not been written to disk yet (in bytes). */
+  private long accounted;
+  /** Estimated size of the index data that was retained after the last split round (in bytes). */
+  private long retained;
 
   /**
    * Constructor.
@@ -59,9 +105,29 @@ public abstract class IndexBuilder extends Job {
     size = data.meta.size;
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
+  }
+
+  /**
+   * Assigns the maximum number of threads that are used for building index structures.
+   * @param threads number of threads ({@code 0}: number of available processors)
+   */
+  public static synchronized void threads(final int threads) {
+    final int max = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    if(max > POOL.getMaximumPoolSize()) {
+      POOL.setMaximumPoolSize(max);
+      POOL.setCorePoolSize(max);
+    } else {
+      POOL.setCorePoolSize(max);
+      POOL.setMaximumPoolSize(max);
+    }
+  }
 
-    // run garbage collection if memory maximum is already reached
-    if(Performance.memory() >= maxMem) clean();
+  /**
+   * Assigns the size of the index buffer.
+   * @param mb size in megabytes ({@code 0}: half of the maximum main memory)
+   */
+  public static void buffer(final int mb) {
+    buffer = mb > 0 ? (long) mb << 20 : Runtime.getRuntime().maxMemory() / 2;
   }
 
   /**
@@ -86,53 +152,197 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param p pre value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int p) {
+    return data.kind(p) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(p, text);
+  }
+
+  /**
+   * Partitions the database and indexes all partitions.
+   * If a single partition is indexed, and if no data was written to disk, the index data
+   * remains in main memory, and {@link #splits} will be {@code 0}.
+   * Otherwise, the partial index structures need to be merged.
+   * @return workers
+   * @throws IOException I/O Exception
+   */
+  protected final Worker[] index() throws IOException {
+    final int ws = Math.max(1, Math.min(POOL.getMaximumPoolSize(), size / PARTITION));
+    final Worker[] wrks = new Worker[ws];
+    for(int w = 0; w < ws; w++) {
+      wrks[w] = worker((int) ((long) size * w / ws), (int) ((long) size * (w + 1) / ws));
+    }
+    active = ws;
+    workers = wrks;
+
+    BUILDERS.incrementAndGet();
+    try {
+      run(wrks);
+    } finally {
+      BUILDERS.decrementAndGet();
+    }
+    for(final Worker worker : wrks) count += worker.count;
+    return wrks;
+  }
+
+  /**
+   * Runs the specified workers.
+   * @param wrks workers
+   * @throws IOException I/O Exception
+   */
+  private static void run(final Worker[] wrks) throws IOException {
+    if(wrks.length == 1) {
+      wrks[0].call();
+    } else {
+      run(Arrays.asList(wrks), () -> {
+        for(final Worker worker : wrks) worker.failed = true;
+      });
+    }
+  }
+
+  /**
+   * Runs the specified tasks in the shared thread pool and waits until all of them are finished.
+   * Tasks that have not been started yet are run by the calling thread. This way, tasks can
+   * wait for nested tasks without blocking the pool.
+   * If a task fails, or if the calling thread is interrupted, the remaining tasks are stopped.
+   * @param tasks tasks
+   * @param stop function for stopping the remaining tasks
+   * @throws IOException I/O Exception
+   */
+  public static void run(final List<? extends Callable<Void>> tasks, final Runnable stop)
+      throws IOException {
+
+    final ArrayList<Future<Void>> futures = new ArrayList<>(tasks.size());
+    for(final Callable<Void> task : tasks) futures.add(POOL.submit(task));
+    Throwable error = null;
+    boolean interrupted = false;
+    for(final Future<Void> future : futures) {
+      // no effect if the task has already been started
+      ((RunnableFuture<Void>) future).run();
+      while(true) {
+        try {
+          future.get();
+          break;
+        } catch(final ExecutionException ex) {
+          if(error == null) {
+            error = ex.getCause();
+            stop.run();
+          }
+          break;
+        } catch(final InterruptedException ex) {
+          // stop remaining tasks, wait until the running tasks are finished
+          if(error == null) {
+            error = new JobException(INTERRUPTED);
+            stop.run();
+          }
+          interrupted = true;
+        }
+      }
+    }
+    if(interrupted) Thread.currentThread().interrupt();
+    if(error instanceof IOException) throw (IOException) error;
+    if(error instanceof RuntimeException) throw (RuntimeException) error;
+    if(error instanceof Error) throw (Error) error;
+  }
+
+  /**
+   * Creates a worker for the specified pre range.
+   * Must be implemented by builders that call {@link #index()}.
+   * @param start first pre value
+   * @param end last pre value (exclusive)
+   * @return worker
+   */
+  protected Worker worker(final int start, final int end) {
+    throw Util.notExpected();
   }
 
   /**
    * Decides whether in-memory temporary index structures are so large
-   * that we must flush them to disk before continuing.
+   * that they must be flushed to disk before continuing.
+   * @param worker calling worker
+   * @param ops index operations that have been performed since the last call
+   * @param bytes change of the estimated memory consumption since the last call
    * @return true if structures shall be flushed to disk
    * @throws IOException I/O Exception
    */
-  protected final boolean splitRequired() throws IOException {
-    // checks if a fixed split size has been specified
+  private synchronized boolean splitRequired(final Worker worker, final long ops,
+      final long bytes) throws IOException {
+
+    unwritten += ops;
+    accounted += bytes;
+    // another worker has requested a split
+    if(worker.round != round) {
+      worker.round = round;
+      return true;
+    }
+    // wait until all workers have written their data
+    if(pending > 0) return false;
+
+    // checks if a fixed split size has been specified (shared by all running builders)
     final boolean split;
     if(splitSize > 0) {
-      split = count >= (splits + 1L) * splitSize;
+      split = unwritten >= Math.max(1, splitSize / Math.max(1, BUILDERS.get()));
     } else {
-      // if not, estimate how much main memory is left
-      split = Performance.memory() >= maxMem;
+      // if not, compare estimated memory consumption with the share of the index buffer
+      final long share = buffer / Math.max(1, BUILDERS.get());
+      split = accounted >= share;
       // stop operation if index splitting degenerates
-      int gc = gcCount;
-      if(split) {
-        if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
-        gc = 30;
-      } else {
-        gc = Math.max(-1, gc - 1);
-      }
-      gcCount = gc;
+      if(split && retained >= share) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
+    }
+    if(split) {
+      if(Prop.debug) Util.err("|");
+      worker.round = ++round;
+      pending = active;
     }
-    if(split && Prop.debug) Util.err("|");
     return split;
   }
 
   /**
-   * Performs memory cleanup after writing partial memory if necessary.
+   * Registers that a worker has written its data.
+   * @param worker worker
+   * @param ops number of written index operations
+   * @param bytes change of the estimated memory consumption
+   * @param written number of bytes written to disk
+   */
+  private synchronized void flushed(final Worker worker, final long ops, final long bytes,
+      final long written) {
+    unwritten -= ops;
+    accounted += bytes;
+    spilled += written;
+    if(worker.owes && --pending == 0) retained = accounted;
+    worker.owes = false;
+  }
+
+  /**
+   * Returns the number of the next partial index structure.
+   * @return split number
    */
-  protected final void clean() {
-    if(splitSize <= 0) Performance.gc(2);
+  private synchronized int split() {
+    return splits++;
   }
 
   /**
-   * Prints some final debugging information.
+   * Registers the partial index structures in the meta data and prints some final
+   * debugging information.
    */
   protected final void finishIndex() {
+    data.meta.spills(type, splits, spilled);
     if(!Prop.debug) return;
 
     final StringBuilder sb = new StringBuilder();
     sb.append(' ').append(count / 10000 / 100d).append(" M operations, ");
     sb.append(perf).append(" (").append(Performance.getMemory()).append(").");
+    if(workers.length > 1) sb.append(' ').append(workers.length).append(" partitions.");
+    if(splits > 0) {
+      sb.append(' ').append(splits).append(" partial structures (");
+      sb.append(Performance.format(spilled)).append(").");
+    }
     if(splits > 1 && splitSize <= 0) {
       sb.append(" Recommended ").append(MainOptions.SPLITSIZE.name()).append(": ");
       sb.append((int) Math.ceil((double) count / splits / splitFactor())).append('.');
@@ -160,7 +370,9 @@ public abstract class IndexBuilder extends Job {
 
   @Override
   public final double progressInfo() {
-    return pre / (size + (splits > 0 ? size / 50.0d : 0.0d));
+    int p = pre;
+    for(final Worker worker : workers) p += worker.pre - worker.start;
+    return p / (size + (splits > 0 ? size / 50.0d : 0.0d));
   }
 
   @Override
@@ -173,4 +385,123 @@ public abstract class IndexBuilder extends Job {
       default: throw Util.notExpected();
     }
   }
+
+  /**
+   * Indexes a range of pre values and writes partial index structures to disk.
+   */
+  protected abstract class Worker implements Callable<Void> {
+    /** First pre value. */
+    protected final int start;
+    /** Last pre value (exclusive). */
+    protected final int end;
+    /** Current pre value. */
+    protected int pre;
+    /** Number of index operations. */
+    protected long count;
+    /** Number of partial index structures written by this worker. */
+    protected int writes;
+
+    /** Number of index operations at the last split check. */
+    private long checked;
+    /** Number of index operations at the last write. */
+    private long written;
+    /** Estimated memory consumption that has been reported to the builder (in bytes). */
+    private long reported;
+    /** Split round. */
+    private int round;
+    /** Indicates if the worker needs to write its data in the current round. */
+    private boolean owes;
+    /** Indicates if another worker has failed. */
+    private volatile boolean failed;
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end last pre value (exclusive)
+     */
+    protected Worker(final int start, final int end) {
+      this.start = start;
+      this.end = end;
+      pre = start;
+    }
+
+    @Override
+    public final Void call() throws IOException {
+      for(pre = start; pre < end; ++pre) {
+        if((pre & 0x0FFF) == 0) check();
+        if(indexEntry(pre)) index(pre);
+      }
+      final boolean write;
+      synchronized(IndexBuilder.this) {
+        // the final write counts as write of the current round
+        owes = round != IndexBuilder.this.round;
+        round = IndexBuilder.this.round;
+        active--;
+        write = workers.length > 1 || splits > 0;
+      }
+      if(write && count > written) {
+        flush(split());
+      } else {
+        flushed(this, 0, 0, 0);
+      }
+      return null;
+    }
+
+    /**
+     * Checks if the command was interrupted, and writes the index data to disk if necessary.
+     * @throws IOException I/O Exception
+     */
+    protected final void check() throws IOException {
+      checkStop();
+      if(failed) throw new JobException(INTERRUPTED);
+      if(Prop.debug && (pre & 0x1FFFFF) == 0) Util.err(".");
+
+      final long ops = count - checked, bytes = bytes();
+      checked = count;
+      final boolean split;
+      synchronized(IndexBuilder.this) {
+        split = splitRequired(this, ops, bytes - reported);
+        reported = bytes;
+        if(split) owes = true;
+      }
+      if(split) flush(split());
+    }
+
+    /**
+     * Writes the current index data to disk.
+     * @param split number of the partial index structure
+     * @throws IOException I/O Exception
+     */
+    private void flush(final int split) throws IOException {
+      // operations that have not been reported yet are not subtracted
+      final long ops = checked - written;
+      written = count;
+      checked = count;
+      final long size = write(split), bytes = bytes();
+      writes++;
+      flushed(this, ops, bytes - reported, size);
+      reported = bytes;
+    }
+
+    /**
+     * Indexes the specified entry.
+     * @param p pre value
+     * @throws IOException I/O Exception
+     */
+    protected abstract void index(int p) throws IOException;
+
+    /**
+     * Returns the estimated memory consumption of the index data.
+     * @return number of bytes
+     */
+    protected abstract long bytes();
+
+    /**
+     * Writes the current index data as partial index structure to disk.
+     * @param split number of the partial index structure ({@code -1}: final structure)
+     * @return number of written bytes
+     * @throws IOException I/O Exception
+     */
+    protected abstract long write(int split) throws IOException;
+  }
 }
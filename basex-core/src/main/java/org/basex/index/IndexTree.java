@@ -15,6 +15,10 @@ import org.basex.util.list.*;
 public class IndexTree {
   /** Factor for resize. */
   protected static final double FACTOR = 1.2;
+  /** Estimated memory consumption of an array and its reference in a list (in bytes). */
+  protected static final int ARRAY = 24;
+  /** Estimated memory consumption of a tree node without key and ids (in bytes). */
+  private static final int NODE = ARRAY * 2 + 13;
 
   /** Keys saved in the tree. */
   public final TokenList keys = new TokenList(FACTOR);
@@ -25,6 +29,8 @@ public class IndexTree {
   protected TokenIntMap maps = new TokenIntMap();
   /** Current iterator node. */
   protected int cn;
+  /** Estimated memory consumption of the id lists and mappings (in bytes). */
+  protected long idBytes;
 
   /** Tree structure [left, right, parent]. */
   private final IntList tree = new IntList(FACTOR);
@@ -34,6 +40,8 @@ public class IndexTree {
   private final boolean tokenize;
   /** Tree root node. */
   private int root = -1;
+  /** Estimated memory consumption of the tree nodes and keys (in bytes). */
+  private long keyBytes;
 
   /**
    * Constructor.
@@ -80,6 +88,7 @@ public class IndexTree {
           final int i = maps.get(Num.num(n));
           if(i < 0) {
             maps.put(Num.num(n), ids.size());
+            idBytes += ARRAY;
             addNewIds(id, pos);
           } else {
             addIds(id, pos, i);
@@ -111,6 +120,15 @@ public class IndexTree {
     return ids.size();
   }
 
+  /**
+   * Returns the estimated memory consumption of the tree.
+   * The value is computed from the sizes of the stored arrays; no garbage collection is needed.
+   * @return number of bytes
+   */
+  public long bytes() {
+    return keyBytes + idBytes;
+  }
+
   /**
    * Initializes the index iterator.
    * will be removed to save memory.
@@ -160,6 +178,7 @@ public class IndexTree {
     byte[] vs = Num.newNum(id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.add(vs);
+    idBytes += ARRAY + vs.length;
   }
 
   /**
@@ -169,10 +188,11 @@ public class IndexTree {
    * @param n id list to append to
    */
   private void addIds(final int id, final int pos, final int n) {
-    byte[] vs = ids.get(n);
-    vs = Num.add(vs, id);
+    final byte[] old = ids.get(n);
+    byte[] vs = Num.add(old, id);
     if(tokenize) vs = Num.add(vs, pos);
     ids.set(n, vs);
+    idBytes += vs.length - old.length;
   }
 
   /**
@@ -192,8 +212,12 @@ public class IndexTree {
     tree.add(par); // parent node
     mod.add(false);
     keys.add(key);
+    keyBytes += NODE + key.length;
     addNewIds(id, pos);
-    if(!exist) maps.put(Num.num(keys.size() - 1), ids.size() - 1);
+    if(!exist) {
+      maps.put(Num.num(keys.size() - 1), ids.size() - 1);
+      idBytes += ARRAY;
+    }
     return mod.size() - 1;
   }
 
@@ -21,12 +21,8 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class FTBuilder extends IndexBuilder {
-  /** Value trees. */
-  private final FTIndexTrees tree;
-  /** Word parser. */
-  private final FTLexer lexer;
-  /** Number of indexed tokens. */
-  private long ntok;
+  /** Full-text options. */
+  private final FTOpt fto;
 
   /**
    * Constructor.
@@ -36,21 +32,28 @@ public final class FTBuilder extends IndexBuilder {
   public FTBuilder(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
     final MetaData meta = data.meta;
-    tree = new FTIndexTrees(data.meta.maxlen);
-
-    final FTOpt fto = new FTOpt();
-    fto.set(FTFlag.DC, meta.diacritics);
-    fto.set(FTFlag.ST, meta.stemming);
-    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
-    fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language;
 
+    fto = options(meta, new StopWords(data, meta.stopwords));
     if(!Tokenizer.supportFor(fto.ln))
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
       throw new BaseXException(NO_STEMMER_X, fto.ln);
+  }
 
-    lexer = new FTLexer(fto);
+  /**
+   * Returns the full-text options for tokenizing the texts of a database.
+   * @param meta meta data
+   * @param sw stop words
+   * @return options
+   */
+  static FTOpt options(final MetaData meta, final StopWords sw) {
+    final FTOpt fto = new FTOpt();
+    fto.set(FTFlag.DC, meta.diacritics);
+    fto.set(FTFlag.ST, meta.stemming);
+    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
+    fto.sw = sw;
+    fto.ln = meta.language;
+    return fto;
   }
 
   @Override
@@ -58,33 +61,18 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] token = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(token.length <= data.meta.maxlen && !sw.contains(token)) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
-            }
-            tree.index(token, pre, pos, splits);
-            count++;
-          }
-        }
+      // discard incremental updates of the previous index
+      data.meta.dbFile(DATAFTX + 'd').delete();
+      data.meta.ftupdindex = data.meta.updindex;
+
+      final Worker[] workers = index();
+      // finalize single or merge partial index structures
+      if(splits == 0) {
+        ((FTWorker) workers[0]).write(-1);
+      } else {
+        merge();
       }
 
-      // finalize partial or all index structures
-      write(splits > 0);
-
       finishIndex();
       return new FTIndex(data);
 
@@ -95,16 +83,16 @@ public final class FTBuilder extends IndexBuilder {
     }
   }
 
+  @Override
+  protected Worker worker(final int start, final int end) {
+    return new FTWorker(start, end);
+  }
+
   /**
-   * Writes the index data to disk.
-   * @param partial write partial index
+   * Merges temporary index files.
    * @throws IOException I/O exception
    */
-  private void write(final boolean partial) throws IOException {
-    writeIndex(partial);
-    if(!partial) return;
-
-    // merges temporary index files
+  private void merge() throws IOException {
     try(DataOutput outX = new DataOutput(data.meta.dbFile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(DATAFTX + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbFile(DATAFTX + 'z'))) {
@@ -172,12 +160,17 @@ public final class FTBuilder extends IndexBuilder {
   }
 
   /**
-   * Writes the current index to disk.
-   * @param partial partial flag
+   * Writes index trees to disk.
+   * @param tree index trees
+   * @param writes number of partial index structures that have already been written
+   * @param split number of the partial index structure ({@code -1}: final structure)
+   * @return number of written bytes
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
+  private long writeIndex(final FTIndexTrees tree, final int writes, final int split)
+      throws IOException {
+    final String name = DATAFTX + (split != -1 ? split : "");
+    final long size;
     try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
@@ -186,7 +179,7 @@ public final class FTBuilder extends IndexBuilder {
       tree.init();
       long dr = 0;
       int tr = 0, j = 0;
-      while(tree.more(splits)) {
+      while(tree.more(writes)) {
         final FTIndexTree t = tree.nextTree();
         t.next();
         final byte[] key = t.nextTok();
@@ -209,11 +202,10 @@ public final class FTBuilder extends IndexBuilder {
         tr = (int) outY.size();
       }
       writeInd(outX, ind, ++j, tr);
+      size = outX.size() + outY.size() + outZ.size();
     }
     tree.initFT();
-
-    // increase split counter
-    splits++;
+    return size;
   }
 
   /**
@@ -281,4 +273,56 @@ public final class FTBuilder extends IndexBuilder {
     }
     return false;
   }
+
+  /**
+   * Worker, indexing a range of pre values.
+   */
+  private final class FTWorker extends Worker {
+    /** Updatable index flag. */
+    private final boolean updindex = data.meta.updindex;
+    /** Value trees. */
+    private final FTIndexTrees tree = new FTIndexTrees(data.meta.maxlen);
+    /** Word parser. */
+    private final FTLexer lexer = new FTLexer(fto);
+    /** Number of indexed tokens. */
+    private long ntok;
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end last pre value (exclusive)
+     */
+    private FTWorker(final int start, final int end) {
+      super(start, end);
+    }
+
+    @Override
+    protected void index(final int p) throws IOException {
+      // current lexer position
+      final StopWords sw = lexer.ftOpt().sw;
+      lexer.init(data.text(p, true));
+      int pos = -1;
+      while(lexer.hasNext()) {
+        final byte[] token = lexer.nextToken();
+        ++pos;
+        // skip too long and stopword tokens
+        if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+          // check if main memory is exhausted
+          if((ntok++ & 0xFFFF) == 0) check();
+          tree.index(token, updindex ? data.id(p) : p, pos, writes);
+          count++;
+        }
+      }
+    }
+
+    @Override
+    protected long bytes() {
+      return tree.bytes();
+    }
+
+    @Override
+    protected long write(final int split) throws IOException {
+      return writeIndex(tree, writes, split);
+    }
+  }
 }
@@ -0,0 +1,184 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class stores incremental updates of the full-text index. The main index structures are
+ * not changed by updates: The ids of deleted and updated nodes are invalidated, and the tokens
+ * of new and updated nodes are added to the delta segment. The updates are stored in the file
+ * with suffix {@code d} and merged into the main structures when the index is rebuilt.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Ids whose entries in the main index structures are invalid. */
+  private BitArray stale = new BitArray();
+  /** Tokens and their id/pos pairs. */
+  private final TokenObjMap<IntList> entries = new TokenObjMap<>();
+  /** Database file. */
+  private final IOFile file;
+  /** Number of invalidated ids. */
+  private int stales;
+  /** Number of id/pos pairs. */
+  private int size;
+  /** Indicates if the updates have not been written to disk yet. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @throws IOException I/O exception
+   */
+  FTDelta(final Data data) throws IOException {
+    file = data.meta.dbFile(DATAFTX + 'd');
+    if(!file.exists()) return;
+
+    try(DataInput in = new DataInput(file)) {
+      stale = new BitArray(in.readLongs(in.readNum()), in.readNum());
+      stales = stale.cardinality();
+      for(int t = in.readNum(); --t >= 0;) {
+        final byte[] token = in.readToken();
+        final int s = in.readNum();
+        final IntList list = new IntList(s);
+        for(int i = 0; i < s; i++) list.add(in.readNum());
+        entries.put(token, list);
+        size += s >>> 1;
+      }
+    }
+  }
+
+  /**
+   * Indicates if the index has been updated.
+   * @return result of check
+   */
+  boolean updated() {
+    return stales != 0 || size != 0;
+  }
+
+  /**
+   * Indicates if the entries of the specified id in the main index structures are invalid.
+   * @param id id
+   * @return result of check
+   */
+  boolean stale(final int id) {
+    return stales != 0 && stale.get(id);
+  }
+
+  /**
+   * Invalidates the entries of the specified id.
+   * @param id id
+   */
+  void invalidate(final int id) {
+    if(!stale.get(id)) {
+      stale.set(id);
+      stales++;
+      dirty = true;
+    }
+  }
+
+  /**
+   * Adds an entry.
+   * @param token token
+   * @param id id
+   * @param pos position of the token
+   */
+  void add(final byte[] token, final int id, final int pos) {
+    entries.computeIfAbsent(token, IntList::new).add(id).add(pos);
+    size++;
+    dirty = true;
+  }
+
+  /**
+   * Removes all entries of the specified ids from the entries of a token.
+   * @param token token
+   * @param ids ids
+   */
+  void delete(final byte[] token, final IntSet ids) {
+    final IntList list = entries.get(token);
+    if(list == null) return;
+
+    final int ls = list.size();
+    int l = 0;
+    for(int i = 0; i < ls; i += 2) {
+      final int id = list.get(i);
+      if(ids.contains(id)) continue;
+      list.set(l++, id);
+      list.set(l++, list.get(i + 1));
+    }
+    size -= ls - l >>> 1;
+    list.size(l);
+    dirty = true;
+  }
+
+  /**
+   * Returns the number of id/pos pairs for the specified token.
+   * @param token token
+   * @return number of pairs
+   */
+  int size(final byte[] token) {
+    final IntList list = entries.get(token);
+    return list != null ? list.size() >>> 1 : 0;
+  }
+
+  /**
+   * Returns the id/pos pairs for the specified token.
+   * @param token token
+   * @return id/pos pairs or {@code null}
+   */
+  IntList entries(final byte[] token) {
+    final IntList list = entries.get(token);
+    return list != null && !list.isEmpty() ? list : null;
+  }
+
+  /**
+   * Returns all tokens with id/pos pairs.
+   * @return tokens
+   */
+  TokenList tokens() {
+    final TokenList tokens = new TokenList();
+    for(final byte[] token : entries) {
+      if(token != null && !entries.get(token).isEmpty()) tokens.add(token);
+    }
+    return tokens;
+  }
+
+  /**
+   * Writes the updates to disk.
+   * @throws IOException I/O exception
+   */
+  void write() throws IOException {
+    if(!dirty) return;
+
+    final TokenList tokens = tokens();
+    try(DataOutput out = new DataOutput(file)) {
+      final long[] array = stale.toArray();
+      out.writeLongs(array);
+      out.writeNum(array.length << 6);
+      out.writeNum(tokens.size());
+      for(final byte[] token : tokens) {
+        final IntList list = entries.get(token);
+        out.writeToken(token);
+        final int ls = list.size();
+        out.writeNum(ls);
+        for(int i = 0; i < ls; i++) out.writeNum(list.get(i));
+      }
+    }
+    dirty = false;
+  }
+
+  @Override
+  public String toString() {
+    return Util.className(this) + '[' + stales + " invalid ids, " + size + " entries]";
+  }
+}
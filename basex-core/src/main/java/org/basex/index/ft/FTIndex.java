@@ -48,6 +48,11 @@ import org.basex.util.similarity.*;
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
  * </ul>
  *
+ * <p>If the index is updatable, the files contain id values instead of pre values, and
+ * updates are stored in an additional {@link FTDelta} segment.</p>
+ *
+ * <p>Read operations use their own {@link DataReader} cursors and can be run in parallel.</p>
+ *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
@@ -57,8 +62,6 @@ public final class FTIndex extends ValueIndex {
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
-  /** Levenshtein reference. */
-  private final Levenshtein ls = new Levenshtein();
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
@@ -72,6 +75,12 @@ public final class FTIndex extends ValueIndex {
   private final IndexCache cache = new IndexCache();
   /** Token positions. */
   private final int[] positions;
+  /** Incremental updates. */
+  private final FTDelta delta;
+  /** Indicates if the index references id values. */
+  private final boolean ids;
+  /** Full-text options for tokenizing updated texts (lazily instantiated). */
+  private FTOpt fto;
 
   /**
    * Constructor, initializing the index structure.
@@ -92,21 +101,23 @@ public final class FTIndex extends ValueIndex {
       positions[p] = dataX.read4();
     }
     positions[pl - 1] = (int) dataY.length();
+    ids = data.meta.ftupdindex;
+    delta = new FTDelta(data);
   }
 
   @Override
-  public synchronized IndexCosts costs(final IndexSearch search) {
+  public IndexCosts costs(final IndexSearch search) {
     final byte[] token = search.token();
     if(token.length > data.meta.maxlen) return null;
 
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) search).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
-      entry(token).size);
+      entry(token).size + delta.size(token));
   }
 
   @Override
-  public synchronized IndexIterator iter(final IndexSearch search) {
+  public IndexIterator iter(final IndexSearch search) {
     // current search token
     final FTLexer lexer = (FTLexer) search;
     final FTOpt opt = lexer.ftOpt();
@@ -125,13 +136,11 @@ public final class FTIndex extends ValueIndex {
     }
 
     // return cached or new result
+    final IntList pr = new IntList(), ps = new IntList();
     final IndexEntry entry = entry(token);
-    if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
-    }
-
-    // no results
-    return FTIndexIterator.FTEMPTY;
+    if(entry.size > 0) read(entry.offset, entry.size, dataZ.reader(), pr, ps);
+    delta(token, pr, ps);
+    return pr.isEmpty() ? FTIndexIterator.FTEMPTY : iter(new FTCache(pr, ps), token);
   }
 
   /**
@@ -143,50 +152,106 @@ public final class FTIndex extends ValueIndex {
     final IndexEntry entry = cache.get(value);
     if(entry != null) return entry;
 
-    final long pt = token(value);
+    final DataReader ry = dataY.reader();
+    final long pt = token(value, ry);
     return pt == -1 ? new IndexEntry(value, 0, 0) :
-      cache.add(value, size(pt, value.length), pointer(pt, value.length));
+      cache.add(value, size(pt, value.length, ry), pointer(pt, value.length, ry));
   }
 
   @Override
   public EntryIterator entries(final IndexEntries entries) {
     final byte[] token = entries.token();
+    if(delta.updated()) return updated(token);
 
     return new EntryIterator() {
+      final DataReader ry = dataY.reader();
       int p = token.length - 1, start, end, nr;
       boolean inner;
 
       @Override
       public byte[] next() {
-        synchronized(FTIndex.this) {
-          if(inner && start < end) {
-            // loop through all entries with the same character length
-            final byte[] entry = dataY.readBytes(start, p);
-            if(startsWith(entry, token)) {
-              final long poi = dataY.read5();
-              nr = dataY.read4();
-              if(token.length != 0) cache.add(entry, nr, poi);
-              start += p + ENTRY;
-              return entry;
-            }
+        if(inner && start < end) {
+          // loop through all entries with the same character length
+          final byte[] entry = ry.readBytes(start, p);
+          if(startsWith(entry, token)) {
+            final long poi = ry.read5(start + p);
+            nr = ry.read4(start + p + 5);
+            if(token.length != 0) cache.add(entry, nr, poi);
+            start += p + ENTRY;
+            return entry;
           }
-          // find next available entry group
-          final int pl = positions.length;
-          while(++p < pl - 1) {
-            start = positions[p];
-            if(start == -1) continue;
-            int c = p + 1;
-            do end = positions[c++]; while(end == -1);
-            nr = 0;
-            inner = true;
-            start = find(token, start, end, p);
-            // jump to inner loop
-            final byte[] n = next();
-            if(n != null) return n;
-          }
-          // all entries processed: return null
-          return null;
         }
+        // find next available entry group
+        final int pl = positions.length;
+        while(++p < pl - 1) {
+          start = positions[p];
+          if(start == -1) continue;
+          int c = p + 1;
+          do end = positions[c++]; while(end == -1);
+          nr = 0;
+          inner = true;
+          start = find(token, start, end, p, ry);
+          // jump to inner loop
+          final byte[] n = next();
+          if(n != null) return n;
+        }
+        // all entries processed: return null
+        return null;
+      }
+
+      @Override
+      public int count() {
+        return nr;
+      }
+    };
+  }
+
+  /**
+   * Returns all index entries starting with the specified token, including incremental updates.
+   * Entries are sorted by their length and value.
+   * @param token token
+   * @return iterator
+   */
+  private EntryIterator updated(final byte[] token) {
+    final TokenIntMap counts = new TokenIntMap();
+    final DataReader ry = dataY.reader(), rz = dataZ.reader();
+    final int pl = positions.length;
+    final IntList pr = new IntList(), ps = new IntList();
+    for(int p = token.length; p < pl - 1; p++) {
+      int start = positions[p];
+      if(start == -1) continue;
+      int c = p + 1, end = -1;
+      while(c < pl && end == -1) end = positions[c++];
+      start = find(token, start, end, p, ry);
+
+      for(; start < end; start += p + ENTRY) {
+        final byte[] t = ry.readBytes(start, p);
+        if(!startsWith(t, token)) break;
+        read(pointer(start, p, ry), size(start, p, ry), rz, pr, ps);
+        if(!pr.isEmpty()) counts.put(t, pr.size());
+        pr.reset();
+        ps.reset();
+      }
+    }
+    for(final byte[] t : delta.tokens()) {
+      if(startsWith(t, token)) counts.put(t, Math.max(0, counts.get(t)) + delta.size(t));
+    }
+
+    final TokenList tokens = new TokenList(counts.size());
+    for(final byte[] t : counts) tokens.add(t);
+    final byte[][] array = tokens.finish();
+    Arrays.sort(array, (t1, t2) -> t1.length != t2.length ? t1.length - t2.length :
+      compare(t1, t2));
+
+    return new EntryIterator() {
+      int i, nr;
+
+      @Override
+      public byte[] next() {
+        if(i == array.length) return null;
+        final byte[] t = array[i++];
+        nr = counts.get(t);
+        return t;
       }
 
       @Override
@@ -202,13 +267,15 @@ public final class FTIndex extends ValueIndex {
    * @param start start position
    * @param end end position
    * @param ti entry length
+   * @param ry reader for the tokens
    * @return position where the key was found, or would have been found
    */
-  private int find(final byte[] token, final int start, final int end, final int ti) {
+  private int find(final byte[] token, final int start, final int end, final int ti,
+      final DataReader ry) {
     final int tl = ti + ENTRY;
     int s = 0, e = (end - start) / tl;
     while(s <= e) {
-      final int m = s + e >>> 1, pos = start + m * tl, d = compare(cache(pos, ti), token);
+      final int m = s + e >>> 1, pos = start + m * tl, d = compare(cache(pos, ti, ry), token);
       if(d == 0) return start + m * tl;
       if(d < 0) s = m + 1;
       else e = m - 1;
@@ -220,19 +287,28 @@ public final class FTIndex extends ValueIndex {
    * Caches the text at the specified position and with the specified length.
    * @param pos position
    * @param ti text length
+   * @param ry reader for the tokens
    * @return text
    */
-  private byte[] cache(final int pos, final int ti) {
+  private byte[] cache(final int pos, final int ti, final DataReader ry) {
     // do not cache texts if the fulltext index contains unusually long tokens
-    if(ti >= 128) return dataY.readBytes(pos, ti);
+    if(ti >= 128) return ry.readBytes(pos, ti);
 
     // try to find cached text (requested length may vary in full-text requests)
     final int key = (ti << 24) + pos;
-    return ctext.computeIfAbsent(key, () -> dataY.readBytes(pos, ti));
+    synchronized(ctext) {
+      final byte[] text = ctext.get(key);
+      if(text != null) return text;
+    }
+    final byte[] text = ry.readBytes(pos, ti);
+    synchronized(ctext) {
+      ctext.put(key, text);
+    }
+    return text;
   }
 
   @Override
-  public synchronized byte[] info(final MainOptions options) {
+  public byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
     final long l = dataX.length() + dataY.length() + dataZ.length();
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
@@ -251,6 +327,7 @@ public final class FTIndex extends ValueIndex {
 
   @Override
   public synchronized void close() {
+    flush();
     dataX.close();
     dataY.close();
     dataZ.close();
@@ -272,9 +349,10 @@ public final class FTIndex extends ValueIndex {
   /**
    * Determines the pointer on a token.
    * @param token token looking for
+   * @param ry reader for the tokens
    * @return int pointer or {@code -1} if token was not found
    */
-  private int token(final byte[] token) {
+  private int token(final byte[] token, final DataReader ry) {
     final int tl = token.length;
     // left limit
     int s = positions[tl];
@@ -288,13 +366,13 @@ public final class FTIndex extends ValueIndex {
     // binary search
     final int o = tl + ENTRY;
     while(s < e) {
-      final int m = s + (e - s >> 1) / o * o, d = compare(dataY.readBytes(m, tl), token);
+      final int m = s + (e - s >> 1) / o * o, d = compare(ry.readBytes(m, tl), token);
       if(d == 0) return m;
       if(d < 0) s = m + o;
       else e = m - o;
     }
     // accept entry if pointer is inside relevant tokens
-    return e != x && s == e && eq(dataY.readBytes(s, tl), token) ? s : -1;
+    return e != x && s == e && eq(ry.readBytes(s, tl), token) ? s : -1;
   }
 
   /**
@@ -302,6 +380,7 @@ public final class FTIndex extends ValueIndex {
    * @param stats statistics
    */
   private void addOccs(final IndexStats stats) {
+    final DataReader ry = dataY.reader();
     int i = 0;
     final int pl = positions.length;
     while(i < pl && positions[i] == -1) ++i;
@@ -310,8 +389,8 @@ public final class FTIndex extends ValueIndex {
 
     final int max = positions[pl - 1];
     while(p < max) {
-      final int oc = size(p, i);
-      if(stats.adding(oc)) stats.add(dataY.readBytes(p, i), oc);
+      final int oc = size(p, i, ry);
+      if(stats.adding(oc)) stats.add(ry.readBytes(p, i), oc);
       p += i + ENTRY;
       if(p == positions[j]) {
         i = j;
@@ -324,20 +403,22 @@ public final class FTIndex extends ValueIndex {
    * Gets the pointer on ftdata for a token.
    * @param pt pointer on token
    * @param lt length of the token
+   * @param ry reader for the tokens
    * @return int pointer on ftdata
    */
-  private long pointer(final long pt, final int lt) {
-    return dataY.read5(pt + lt);
+  private static long pointer(final long pt, final int lt, final DataReader ry) {
+    return ry.read5(pt + lt);
   }
 
   /**
    * Reads the size of ftdata from disk.
    * @param pt pointer on token
    * @param lt length of the token
+   * @param ry reader for the tokens
    * @return size of the ftdata
    */
-  private int size(final long pt, final int lt) {
-    return dataY.read4(pt + lt + 5);
+  private static int size(final long pt, final int lt, final DataReader ry) {
+    return ry.read4(pt + lt + 5);
   }
 
   /**
@@ -350,18 +431,29 @@ public final class FTIndex extends ValueIndex {
     final int tokl = token.length, pl = positions.length, e = Math.min(pl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
     final ArrayList<FTIndexIterator> iters = new ArrayList<>();
+    final DataReader ry = dataY.reader(), rz = dataZ.reader();
+    final Levenshtein ls = new Levenshtein();
     while(++s <= e) {
       int p = positions[s];
       if(p == -1) continue;
       int t = s + 1, r = -1;
       while(t < pl && r == -1) r = positions[t++];
       while(p < r) {
-        if(ls.similar(dataY.readBytes(p, s), token, k)) {
-          iters.add(iter(pointer(p, s), size(p, s), dataZ, token));
+        if(ls.similar(ry.readBytes(p, s), token, k)) {
+          final IntList pr = new IntList(), ps = new IntList();
+          read(pointer(p, s, ry), size(p, s, ry), rz, pr, ps);
+          iters.add(iter(new FTCache(pr, ps), token));
         }
         p += s + ENTRY;
       }
     }
+    for(final byte[] t : delta.tokens()) {
+      if(Math.abs(t.length - tokl) <= k && ls.similar(t, token, k)) {
+        final IntList pr = new IntList(), ps = new IntList();
+        delta(t, pr, ps);
+        iters.add(iter(new FTCache(pr, ps), token));
+      }
+    }
     return iters.isEmpty() ? FTIndexIterator.FTEMPTY :
       FTIndexIterator.union(iters.toArray(FTIndexIterator[]::new));
   }
@@ -377,47 +469,65 @@ public final class FTIndex extends ValueIndex {
     final IntList pr = new IntList(), ps = new IntList();
     final byte[] prefix = wc.prefix();
     final int pl = positions.length, l = Math.min(pl - 1, wc.max(full));
+    final DataReader ry = dataY.reader(), rz = dataZ.reader();
     for(int p = prefix.length; p <= l; p++) {
       int start = positions[p];
       if(start == -1) continue;
       int c = p + 1, end = -1;
       while(c < pl && end == -1) end = positions[c++];
-      start = find(prefix, start, end, p);
+      start = find(prefix, start, end, p, ry);
 
       while(start < end) {
-        final byte[] t = dataY.readBytes(start, p);
+        final byte[] t = ry.readBytes(start, p);
         if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(pointer(start, p, ry), size(start, p, ry), rz, pr, ps);
         start += p + ENTRY;
       }
     }
+    for(final byte[] t : delta.tokens()) {
+      if(startsWith(t, prefix) && wc.match(t)) delta(t, pr, ps);
+    }
     return iter(new FTCache(pr, ps), token);
   }
 
   /**
-   * Returns an iterator for an index entry.
+   * Reads the pre and pos values of an index entry.
+   * Entries of invalidated ids are skipped.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
-   * @param token index token
-   * @return iterator
+   * @param rz reader for the id/pos references
+   * @param pr pre values
+   * @param ps positions
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
-    final IntList pr = new IntList(size), ps = new IntList(size);
+  private void read(final long off, final int size, final DataReader rz, final IntList pr,
+      final IntList ps) {
+    rz.cursor(off);
     for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
+      final int id = rz.readNum(), pos = rz.readNum();
+      if(ids) {
+        if(delta.stale(id)) continue;
+        pr.add(data.pre(id));
+      } else {
+        pr.add(id);
+      }
+      ps.add(pos);
+    }
+  }
+
+  /**
+   * Adds the pre and pos values of the incremental updates of a token.
+   * @param token token
+   * @param pr pre values
+   * @param ps positions
+   */
+  private void delta(final byte[] token, final IntList pr, final IntList ps) {
+    final IntList list = delta.entries(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int l = 0; l < ls; l += 2) {
+      pr.add(data.pre(list.get(l)));
+      ps.add(list.get(l + 1));
     }
-    return iter(new FTCache(pr, ps), token);
   }
 
   /**
@@ -501,16 +611,59 @@ public final class FTIndex extends ValueIndex {
     }
   }
 
+  /**
+   * Indicates if the index has been updated incrementally.
+   * @return result of check
+   */
+  public boolean updated() {
+    return delta.updated();
+  }
+
+  /**
+   * Returns a lexer for tokenizing updated texts.
+   * @return lexer
+   */
+  public synchronized FTLexer lexer() {
+    if(fto == null) {
+      final StopWords sw = new StopWords();
+      sw.compile(data);
+      fto = FTBuilder.options(data.meta, sw);
+    }
+    return new FTLexer(fto);
+  }
+
   @Override
-  public void add(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void add(final ValueCache values) {
+    if(!ids) throw Util.notExpected();
+    for(final byte[] key : values) {
+      final IntList il = values.ids(key), pl = values.pos(key);
+      final int is = il.size();
+      for(int i = 0; i < is; i++) delta.add(key, il.get(i), pl.get(i));
+    }
   }
 
   @Override
-  public void delete(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void delete(final ValueCache values) {
+    if(!ids) throw Util.notExpected();
+    final IntSet set = new IntSet();
+    for(final byte[] key : values) {
+      final IntList il = values.ids(key);
+      final int is = il.size();
+      for(int i = 0; i < is; i++) {
+        final int id = il.get(i);
+        set.add(id);
+        delta.invalidate(id);
+      }
+      delta.delete(key, set);
+    }
   }
 
   @Override
-  public void flush() { }
+  public synchronized void flush() {
+    try {
+      delta.write();
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
 }
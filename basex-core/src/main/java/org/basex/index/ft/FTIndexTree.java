@@ -22,6 +22,8 @@ final class FTIndexTree extends IndexTree {
   private int lcn;
   /** Current pointer on ft data in the index. */
   private int pft;
+  /** Estimated memory consumption of the pos values (in bytes). */
+  private long posBytes;
 
   /**
    * Constructor.
@@ -44,13 +46,22 @@ final class FTIndexTree extends IndexTree {
     if(os == keys.size()) {
       final int i = index > 0 ? maps.get(Num.num(n)) : n;
       if(poss.size() > i && poss.get(i) != null) {
-        poss.set(i, Num.add(poss.get(i), pos));
+        final byte[] old = poss.get(i), vs = Num.add(old, pos);
+        poss.set(i, vs);
         numpre.set(i, numpre.get(i) + 1);
+        posBytes += vs.length - old.length;
         return;
       }
     }
-    poss.add(Num.newNum(pos));
+    final byte[] vs = Num.newNum(pos);
+    poss.add(vs);
     numpre.add(1);
+    posBytes += ARRAY + 4 + vs.length;
+  }
+
+  @Override
+  public long bytes() {
+    return super.bytes() + posBytes;
   }
 
   /**
@@ -61,6 +72,8 @@ final class FTIndexTree extends IndexTree {
     ids = new TokenList(FACTOR);
     numpre = new IntList(FACTOR);
     maps = new TokenIntMap();
+    idBytes = 0;
+    posBytes = 0;
   }
 
   /**
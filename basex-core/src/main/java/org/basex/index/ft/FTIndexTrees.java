@@ -25,14 +25,26 @@ final class FTIndexTrees {
   /**
    * Indexes a token with full-text data.
    * @param token token to be indexed
-   * @param pre pre value for the token
+   * @param id id or pre value of the token
    * @param pos pos value of the token
    * @param index current file id
    */
-  void index(final byte[] token, final int pre, final int pos, final int index) {
+  void index(final byte[] token, final int id, final int pos, final int index) {
     final int tl = token.length;
     if(trees[tl] == null) trees[tl] = new FTIndexTree();
-    trees[tl].add(token, pre, pos, index);
+    trees[tl].add(token, id, pos, index);
+  }
+
+  /**
+   * Returns the estimated memory consumption of all trees.
+   * @return number of bytes
+   */
+  long bytes() {
+    long bytes = 0;
+    for(final FTIndexTree tree : trees) {
+      if(tree != null) bytes += tree.bytes();
+    }
+    return bytes;
   }
 
   /**
@@ -16,9 +16,10 @@ import org.basex.util.list.*;
  * <p>This data structure contains references to all document nodes in a database.
  * The document nodes are incrementally updated.</p>
  *
- * <p>If updates are performed, the path order is discarded, as the update would be more expensive
- * in some cases (e.g. when bulk insertions of new documents are performed). A tree structure could
- * be introduced to offer better general performance.</p>
+ * <p>The document paths are additionally kept in lexicographical order. The order is stored
+ * on disk together with the paths, and it is updated incrementally, such that lookups of
+ * single paths and path prefixes (directories) take logarithmic time plus the size of the
+ * result.</p>
  *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
@@ -33,9 +34,9 @@ final class Docs {
   /** Document paths (can be {@code null}).
    * This variable should always be requested via {@link #paths()}. */
   private TokenList pathList;
-  /** Mapping for path order (can be {@code null}).
+  /** Offsets to the sorted document paths (can be {@code null}).
    * This variable should always be requested via {@link #order()}. */
-  private int[] pathOrder;
+  private IntList pathOrder;
   /** Dirty flag. */
   private boolean dirty;
   /** Indicates if a path index is available. */
@@ -67,12 +68,15 @@ final class Docs {
   void write(final DataOutput out) throws IOException {
     out.writeDiffs(docs());
     if(dirty && pathIndex) {
-      // retrieve paths (must be called before file is opened for writing!)
+      // retrieve paths and order (must be called before file is opened for writing!)
       final TokenList paths = paths();
-      // write paths
+      final IntList order = order();
+      // write paths, followed by path order
       try(DataOutput doc = new DataOutput(data.meta.dbFile(DATAPTH))) {
         doc.writeNum(paths.size());
         for(final byte[] path : paths) doc.writeToken(path);
+        doc.writeBool(true);
+        doc.writeNums(order.toArray());
       }
       dirty = false;
     }
@@ -106,6 +110,8 @@ final class Docs {
       // try to read paths from disk
       try(DataInput in = new DataInput(data.meta.dbFile(DATAPTH))) {
         pathList = new TokenList(in.readTokens());
+        // path order is missing in files of older versions
+        if(in.readBool()) pathOrder = new IntList(in.readNums());
       } catch(final IOException ex) {
         Util.debug(ex);
       }
@@ -128,14 +134,96 @@ final class Docs {
   }
 
   /**
-   * Returns an array with offsets to the sorted document paths.
+   * Returns offsets to the sorted document paths.
    * @return path order
    */
-  private synchronized int[] order() {
-    if(pathOrder == null) pathOrder = Array.createOrder(paths().toArray(), false, true);
+  private synchronized IntList order() {
+    final TokenList paths = paths();
+    if(pathOrder == null) pathOrder = new IntList(Array.createOrder(paths.toArray(), false, true));
     return pathOrder;
   }
 
+  /**
+   * Returns the position of the first sorted path that is equal to or greater than the
+   * specified path.
+   * @param path path
+   * @return position in the path order
+   */
+  private int first(final byte[] path) {
+    final TokenList paths = paths();
+    final IntList order = order();
+    int l = 0, h = order.size();
+    while(l < h) {
+      final int m = l + h >>> 1;
+      if(compare(paths.get(order.get(m)), path) < 0) l = m + 1;
+      else h = m;
+    }
+    return l;
+  }
+
+  /**
+   * Returns the offsets of all paths that start with the specified prefix.
+   * @param prefix prefix
+   * @param offsets list to which the offsets will be added
+   */
+  private void prefixed(final byte[] prefix, final IntList offsets) {
+    final TokenList paths = paths();
+    final IntList order = order();
+    final int os = order.size();
+    for(int o = first(prefix); o < os; o++) {
+      final int p = order.get(o);
+      if(!startsWith(paths.get(p), prefix)) break;
+      offsets.add(p);
+    }
+  }
+
+  /**
+   * Inserts new paths into the path order.
+   * @param index offset of the first new path
+   * @param count number of new paths
+   */
+  private void insertOrder(final int index, final int count) {
+    // shift offsets of subsequent paths
+    final IntList order = pathOrder;
+    final int os = order.size();
+    for(int o = 0; o < os; o++) {
+      final int p = order.get(o);
+      if(p >= index) order.set(o, p + count);
+    }
+
+    // sort new paths and merge them with the existing order
+    final TokenList paths = pathList;
+    final byte[][] added = new byte[count][];
+    for(int c = 0; c < count; c++) added[c] = paths.get(index + c);
+    final int[] sorted = Array.createOrder(added, false, true);
+    final int[] merged = new int[os + count];
+    int o = 0, c = 0, m = 0;
+    while(o < os && c < count) {
+      final int p = order.get(o), n = index + sorted[c];
+      if(compare(paths.get(p), paths.get(n)) <= 0) {
+        merged[m++] = p;
+        o++;
+      } else {
+        merged[m++] = n;
+        c++;
+      }
+    }
+    while(o < os) merged[m++] = order.get(o++);
+    while(c < count) merged[m++] = index + sorted[c++];
+    pathOrder = new IntList(merged);
+  }
+
+  /**
+   * Removes a path from the path order. Must be called before the path itself is removed.
+   * @param index offset of the path
+   */
+  private void deleteOrder(final int index) {
+    final IntList order = pathOrder;
+    int o = first(pathList.get(index));
+    while(order.get(o) != index) o++;
+    order.remove(o);
+  }
+
   /**
    * Adds entries to the index and updates subsequent nodes.
    * @param pre insertion position
@@ -164,6 +252,7 @@ final class Docs {
       final byte[][] tmp = new byte[ps][];
       for(int t = 0; t < ps; t++) tmp[t] = normalize(clip.data.text(pres[t] - pre, true));
       paths.insert(i, tmp);
+      if(pathOrder != null) insertOrder(i, ps);
     }
 
     // insert pre values
@@ -186,7 +275,19 @@ final class Docs {
 
     // pre value points to a document node...
     if(doc >= 0) {
-      if(pathIndex) paths().remove(doc);
+      if(pathIndex) {
+        final TokenList paths = paths();
+        if(pathOrder != null) {
+          deleteOrder(doc);
+          // adjust offsets of subsequent paths
+          final int os = pathOrder.size();
+          for(int o = 0; o < os; o++) {
+            final int p = pathOrder.get(o);
+            if(p > doc) pathOrder.set(o, p - 1);
+          }
+        }
+        paths.remove(doc);
+      }
       docs.remove(doc);
     }
 
@@ -201,7 +302,14 @@ final class Docs {
    * @param value new name
    */
   void rename(final int pre, final byte[] value) {
-    if(pathIndex) paths().set(docs().sortedIndexOf(pre), normalize(value));
+    if(pathIndex) {
+      final TokenList paths = paths();
+      final int doc = docs().sortedIndexOf(pre);
+      final byte[] path = normalize(value);
+      if(pathOrder != null) deleteOrder(doc);
+      paths.set(doc, path);
+      if(pathOrder != null) pathOrder.insert(first(path), doc);
+    }
     update();
   }
 
@@ -209,7 +317,6 @@ final class Docs {
    * Notifies the meta structures of an update and invalidates the indexes.
    */
   private synchronized void update() {
-    pathOrder = null;
     data.meta.dirty = true;
     dirty = true;
   }
@@ -236,24 +343,31 @@ final class Docs {
       prefix = concat(exact, SLASH);
     }
 
-    // relevant paths: exact hits and prefixes
-    final TokenSet set = new TokenSet();
-    final IntList il = new IntList();
+    // relevant paths: exact hits and prefixes, in document order
+    final IntList offsets = new IntList();
     final TokenList paths = paths();
-    final int ps = paths.size();
-    for(int p = 0; p < ps; p++) {
+    if(exact.length != 0) {
+      final IntList order = order();
+      final int os = order.size();
+      for(int o = first(exact); o < os && eq(paths.get(order.get(o)), exact); o++) {
+        offsets.add(order.get(o));
+      }
+    }
+    prefixed(prefix, offsets);
+    offsets.sort();
+
+    final TokenSet set = new TokenSet();
+    final IntList il = new IntList(offsets.size());
+    for(final int p : offsets.finish()) {
       final byte[] pt = paths.get(p);
-      boolean add = eq(pt, exact);
-      if(!add) {
-        add = startsWith(pt, prefix);
-        if(add && dir) {
-          final int i = indexOf(pt, SLASH, prefix.length + 1);
-          if(i != -1) add = set.add(substring(pt, prefix.length, i));
-        }
+      boolean add = true;
+      if(dir && !eq(pt, exact)) {
+        final int i = indexOf(pt, SLASH, prefix.length + 1);
+        if(i != -1) add = set.add(substring(pt, prefix.length, i));
       }
       if(add) il.add(docs.get(p));
     }
-    return il.sort();
+    return il;
   }
 
   /**
@@ -265,15 +379,9 @@ final class Docs {
     final String pth = MetaData.normPath(path);
     if(pth != null && !pth.isEmpty()) {
       final byte[] npth = normalize(token(pth));
-      final TokenList paths = paths();
-      final int[] order = order();
-      int l = 0, h = order.length - 1;
-      while(l <= h) {
-        final int m = l + h >>> 1, o = order[m], c = compare(paths.get(o), npth);
-        if(c == 0) return docs().get(o);
-        if(c < 0) l = m + 1;
-        else h = m - 1;
-      }
+      final IntList order = order();
+      final int o = first(npth);
+      if(o < order.size() && eq(paths().get(order.get(o)), npth)) return docs().get(order.get(o));
     }
     return -1;
   }
@@ -285,10 +393,9 @@ final class Docs {
    */
   synchronized boolean isDir(final String path) {
     final byte[] prefix = concat(path, SLASH);
-    for(final byte[] pth : paths()) {
-      if(startsWith(pth, prefix)) return true;
-    }
-    return false;
+    final IntList order = order();
+    final int o = first(prefix);
+    return o < order.size() && startsWith(paths().get(order.get(o)), prefix);
   }
 
   /**
@@ -307,9 +414,11 @@ final class Docs {
     byte[] root = token(pth);
     if(root.length != 0) root = concat(root, SLASH);
 
+    // candidates: normalized paths with the normalized root as prefix, in document order
+    final IntList offsets = new IntList();
+    prefixed(normalize(root), offsets);
     final IntList docs = docs();
-    final int ds = docs.size();
-    for(int d = 0; d < ds; d++) {
+    for(final int d : offsets.sort().finish()) {
       byte[] np = data.text(docs.get(d), true);
       if(startsWith(np, root)) {
         np = substring(np, root.length, np.length);
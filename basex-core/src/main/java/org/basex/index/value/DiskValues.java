@@ -21,6 +21,7 @@ import org.basex.util.list.*;
 /**
  * This class provides access to attribute values and text contents stored on disk.
  * The data structure is described in the {@link DiskValuesBuilder} class.
+ * Read operations use their own {@link DataReader} cursors and can be run in parallel.
  *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
@@ -32,13 +33,11 @@ public class DiskValues extends ValueIndex {
   final DataAccess idxl;
   /** Cached index entries: mapping between keys and index entries. */
   final IndexCache cache = new IndexCache();
-  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
-  final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
 
-  /** Synchronization object. */
-  private final Object monitor = new Object();
+  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
+  private final IntObjMap<byte[]> ctext = new IntObjMap<>();
 
   /**
    * Constructor, initializing the index structure.
@@ -71,15 +70,14 @@ public class DiskValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    synchronized(monitor) {
-      final long l = idxl.length() + idxr.length();
-      tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
-      final int entries = size();
-      for(int index = 0; index < entries; index++) {
-        final long pos = idxr.read5(index * 5L);
-        final int count = idxl.readNum(pos);
-        if(stats.adding(count)) stats.add(key(idxl.readNum()), count);
-      }
+    final long l = idxl.length() + idxr.length();
+    tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+    final DataReader rl = idxl.reader(), rr = idxr.reader();
+    final int entries = size();
+    for(int index = 0; index < entries; index++) {
+      final long pos = rr.read5(index * 5L);
+      final int count = rl.readNum(pos);
+      if(stats.adding(count)) stats.add(key(rl.readNum(), rl), count);
     }
     stats.print(tb);
     return tb.finish();
@@ -138,10 +136,8 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void close() {
-    synchronized(monitor) {
-      idxl.close();
-      idxr.close();
-    }
+    idxl.close();
+    idxr.close();
   }
 
   @Override
@@ -199,20 +195,44 @@ public class DiskValues extends ValueIndex {
    * @return index of the key, or (-(insertion point) - 1)
    */
   protected final int get(final byte[] key, final int first, final int last) {
+    final DataReader rl = idxl.reader(), rr = idxr.reader();
     int l = first, h = last - 1;
-    synchronized(monitor) {
-      while(l <= h) {
-        final int m = l + h >>> 1;
-        final byte[] txt = indexEntry(m).key;
-        final int d = compare(txt, key);
-        if(d == 0) return m;
-        if(d < 0) l = m + 1;
-        else h = m - 1;
-      }
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final byte[] txt = indexEntry(m, rl, rr).key;
+      final int d = compare(txt, key);
+      if(d == 0) return m;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
     }
     return -(l + 1);
   }
 
+  /**
+   * Returns a cached text.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param index key position
+   * @return text or {@code null}
+   */
+  final byte[] text(final int index) {
+    synchronized(ctext) {
+      return ctext.get(index);
+    }
+  }
+
+  /**
+   * Caches a text.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param index key position
+   * @param text text (can be {@code null})
+   * @return previously cached text or {@code null}
+   */
+  final byte[] text(final int index, final byte[] text) {
+    synchronized(ctext) {
+      return ctext.put(index, text);
+    }
+  }
+
   // PRIVATE METHODS ==============================================================================
 
   /**
@@ -228,17 +248,10 @@ public class DiskValues extends ValueIndex {
     final long index = get(value);
     if(index < 0) return new IndexEntry(value, 0, 0);
 
-    final int count;
-    final long offset;
-
-    synchronized(monitor) {
-      // get position in heap file
-      final long pos = idxr.read5(index * 5L);
-      count = idxl.readNum(pos);
-      offset = idxl.cursor();
-    }
-
-    return cache.add(value, count, offset);
+    // get position in heap file
+    final DataReader rl = idxl.reader();
+    final int count = rl.readNum(idxr.reader().read5(index * 5L));
+    return cache.add(value, count, rl.cursor());
   }
 
   /**
@@ -250,16 +263,15 @@ public class DiskValues extends ValueIndex {
     final int first = get(prefix), sz = size();
 
     return new EntryIterator() {
+      final DataReader rl = idxl.reader(), rr = idxr.reader();
       int c = first < 0 ? -first - 1 : first;
       IndexEntry entry;
 
       @Override
       public byte[] next() {
         if(c < sz) {
-          synchronized(monitor) {
-            entry = indexEntry(c++);
-            if(startsWith(entry.key, prefix)) return entry.key;
-          }
+          entry = indexEntry(c++, rl, rr);
+          if(startsWith(entry.key, prefix)) return entry.key;
         }
         return null;
       }
@@ -281,6 +293,7 @@ public class DiskValues extends ValueIndex {
   private EntryIterator keys(final int first, final int last, final boolean reverse) {
     final int sz = last - first;
     return new EntryIterator() {
+      final DataReader rl = idxl.reader(), rr = idxr.reader();
       int c;
       IndexEntry entry;
 
@@ -296,10 +309,8 @@ public class DiskValues extends ValueIndex {
 
       @Override
       public byte[] get(final int i) {
-        synchronized(monitor) {
-          entry = indexEntry(reverse ? last - i - 1 : first + i);
-          return entry.key;
-        }
+        entry = indexEntry(reverse ? last - i - 1 : first + i, rl, rr);
+        return entry.key;
       }
 
       @Override
@@ -311,24 +322,26 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Read a key at the given position.
-   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
+   * <p><em>Important:</em> This method is thread-safe if the readers are not shared.</p>
    * @param index key position
+   * @param rl reader for the id lists
+   * @param rr reader for the id references
    * @return index entry
    */
-  private IndexEntry indexEntry(final int index) {
+  private IndexEntry indexEntry(final int index, final DataReader rl, final DataReader rr) {
     // try the cache first
-    byte[] key = ctext.get(index);
+    byte[] key = text(index);
     if(key != null) {
       final IndexEntry entry = cache.get(key);
       if(entry != null) return entry;
     }
 
     // read text and cache result
-    final long pos = idxr.read5(index * 5L);
-    final int count = idxl.readNum(pos);
+    final long pos = rr.read5(index * 5L);
+    final int count = rl.readNum(pos);
     if(key == null) {
-      key = key(idxl.readNum());
-      ctext.put(index, key);
+      key = key(rl.readNum(), rl);
+      text(index, key);
     }
     return cache.add(key, count, pos + Num.length(count));
   }
@@ -342,14 +355,13 @@ public class DiskValues extends ValueIndex {
    */
   protected IntList pres(final int sz, final long offset) {
     final IntList pres = new IntList(sz);
-    synchronized(monitor) {
-      idxl.cursor(offset);
-      for(int i = 0, id = 0; i < sz; i++) {
-        id += idxl.readNum();
-        // token index: skip position
-        if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
-      }
+    final DataReader rl = idxl.reader();
+    rl.cursor(offset);
+    for(int i = 0, id = 0; i < sz; i++) {
+      id += rl.readNum();
+      // token index: skip position
+      if(type == IndexType.TOKEN) rl.readNum();
+      pres.add(pre(id));
     }
     return pres;
   }
@@ -363,20 +375,19 @@ public class DiskValues extends ValueIndex {
   private IntList idRange(final StringRange tok) {
     // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = compare(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
-          id += idxl.readNum();
-        }
+    final DataReader rl = idxl.reader(), rr = idxr.reader();
+    final int i = get(tok.min);
+    final int entries = size();
+    for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
+      final int count = rl.readNum(rr.read5(index * 5L));
+      int id = rl.readNum();
+      // skip traversal if value is too large
+      final int diff = compare(key(id, rl), tok.max);
+      if(diff > 0 || !tok.mxi && diff == 0) break;
+      // add pre values
+      for(int c = 0; c < count; c++) {
+        pres.add(pre(id));
+        id += rl.readNum();
       }
     }
     return pres.sort();
@@ -395,27 +406,26 @@ public class DiskValues extends ValueIndex {
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
+    final DataReader rl = idxl.reader(), rr = idxr.reader();
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    for(int index = 0; index < entries; ++index) {
+      final int count = rl.readNum(rr.read5(index * 5L));
+      int id = rl.readNum();
+      final int pre = pre(id);
+
+      final double v = data.textDbl(pre, text);
+      if(v >= min && v <= max) {
+        // value is in range
+        for(int c = 0; c < count; c++) {
+          pres.add(pre(id));
+          id += rl.readNum();
         }
+      } else if(simple && v > max && data.textLen(pre, text) == len) {
+        // if limits are integers, if min, max and current value have the same
+        // string length, and if current value is larger than max, test can be
+        // skipped, as all remaining values will be bigger
+        break;
       }
     }
     return pres.sort();
@@ -424,11 +434,12 @@ public class DiskValues extends ValueIndex {
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
+   * @param rl reader for the id lists, pointing to the token position
    * @return key token
    */
-  private byte[] key(final int id) {
+  private byte[] key(final int id, final DataReader rl) {
     final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+    return type == IndexType.TOKEN ? distinctTokens(text)[rl.readNum()] : text;
   }
 
   /**
@@ -440,20 +451,21 @@ public class DiskValues extends ValueIndex {
   public final String toString(final boolean all) {
     final TokenBuilder tb = new TokenBuilder();
     tb.add(type).add(" INDEX, '").add(data.meta.name).add("':\n");
+    final DataReader rl = idxl.reader(), rr = idxr.reader();
     final int entries = size();
     for(int index = 0; index < entries; index++) {
-      final long pos = idxr.read5(index * 5L);
-      final int count = idxl.readNum(pos);
-      int id = idxl.readNum();
+      final long pos = rr.read5(index * 5L);
+      final int count = rl.readNum(pos);
+      int id = rl.readNum();
       tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
       if(all) {
-        tb.add(", key: \"").add(key(id)).add('"');
+        tb.add(", key: \"").add(key(id, rl)).add('"');
         tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
       } else {
         tb.add(", ids").add(": ").addInt(id);
       }
       for(int c = 1; c < count; c++) {
-        id += idxl.readNum();
+        id += rl.readNum();
         tb.add(",").addInt(id);
         if(all) tb.add('/').addInt(pre(id));
       }
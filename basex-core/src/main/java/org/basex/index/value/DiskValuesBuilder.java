@@ -32,9 +32,6 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class DiskValuesBuilder extends ValuesBuilder {
-  /** Temporary value tree. */
-  private IndexTree index;
-
   /**
    * Constructor.
    * @param data data reference
@@ -42,7 +39,6 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    */
   public DiskValuesBuilder(final Data data, final IndexType type) {
     super(data, type);
-    index = new IndexTree(type);
   }
 
   @Override
@@ -50,33 +46,16 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
-        }
-      }
-
-      writeIndex(splits > 0);
-      if(splits > 1) {
-        index = null;
-        clean();
+      final Worker[] workers = index();
+      // finalize single or merge partial index structures
+      if(splits == 0) {
+        ((ValuesWorker) workers[0]).write(-1);
+      } else {
         merge();
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return data.meta.updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
 
     } catch(final Throwable th) {
       // drop index files
@@ -86,14 +65,8 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   }
 
   @Override
-  protected void check() throws IOException {
-    super.check();
-    // check if main memory is exhausted
-    if(splitRequired()) {
-      writeIndex(true);
-      index = new IndexTree(type);
-      clean();
-    }
+  protected Worker worker(final int start, final int end) {
+    return new ValuesWorker(start, end);
   }
 
   /**
@@ -163,13 +136,17 @@ public final class DiskValuesBuilder extends ValuesBuilder {
   }
 
   /**
-   * Writes the current index tree to disk.
-   * @param partial partial flag
+   * Writes an index tree to disk.
+   * @param index index tree
+   * @param split number of the partial index structure ({@code -1}: final structure)
+   * @return number of written bytes
    * @throws IOException I/O exception
    */
-  private void writeIndex(final boolean partial) throws IOException {
+  private long writeIndex(final IndexTree index, final int split) throws IOException {
     // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final boolean partial = split != -1;
+    final String name = DiskValues.fileSuffix(type) + (partial ? split : "");
+    long size;
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
       outL.write4(index.size());
@@ -197,6 +174,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
           write(outL, outR, id, pos);
         }
       }
+      size = outL.size() + outR.size();
     }
 
     // temporarily write texts
@@ -204,10 +182,10 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       try(DataOutput outT = new DataOutput(data.meta.dbFile(name + 't'))) {
         index.init();
         while(index.more()) outT.writeToken(index.keys.get(index.next()));
+        size += outT.size();
       }
     }
-    // increase split counter
-    splits++;
+    return size;
   }
 
   /**
@@ -243,4 +221,50 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     id.reset();
     if(pos != null) pos.reset();
   }
+
+  /**
+   * Worker, indexing a range of pre values.
+   */
+  private final class ValuesWorker extends Worker {
+    /** Updatable index flag. */
+    private final boolean updindex = data.meta.updindex;
+    /** Temporary value tree. */
+    private IndexTree index = new IndexTree(type);
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end last pre value (exclusive)
+     */
+    private ValuesWorker(final int start, final int end) {
+      super(start, end);
+    }
+
+    @Override
+    protected void index(final int p) {
+      final int id = updindex ? data.id(p) : p;
+      if(tokenize) {
+        int pos = 0;
+        for(final byte[] token : distinctTokens(data.text(p, text))) {
+          index.add(token, id, pos++);
+          count++;
+        }
+      } else if(data.textLen(p, text) <= data.meta.maxlen) {
+        index.add(data.text(p, text), id, 0);
+        count++;
+      }
+    }
+
+    @Override
+    protected long bytes() {
+      return index.bytes();
+    }
+
+    @Override
+    protected long write(final int split) throws IOException {
+      final long size = writeIndex(index, split);
+      index = new IndexTree(type);
+      return size;
+    }
+  }
 }
@@ -79,7 +79,7 @@ public final class UpdatableDiskValues extends DiskValues {
       // create space for new entry
       while(oldIndex >= idx) {
         final long off = idxr.read5(oldIndex * 5L);
-        writeIndex(newIndex--, off, ctext.put(oldIndex--, null));
+        writeIndex(newIndex--, off, text(oldIndex--, null));
       }
       // add the new key and its ids
       writeIds(key, values.ids(key), values.pos(key), newIndex--);
@@ -180,7 +180,7 @@ public final class UpdatableDiskValues extends DiskValues {
    */
   private void copy(final byte[] tmp, final int oldIndex, final int newIndex) {
     Array.copy(tmp, oldIndex * 5, 5, tmp, newIndex * 5);
-    ctext.put(newIndex, ctext.put(oldIndex, null));
+    text(newIndex, text(oldIndex, null));
   }
 
   /**
@@ -218,7 +218,7 @@ public final class UpdatableDiskValues extends DiskValues {
    */
   private void writeIndex(final int index, final long offset, final byte[] key) {
     idxr.write5(index * 5L, offset);
-    ctext.put(index, key);
+    text(index, key);
   }
 
   /**
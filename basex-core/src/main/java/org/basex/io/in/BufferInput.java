@@ -136,6 +136,14 @@ public class BufferInput extends InputStream {
     return buf[bpos++] & 0xFF;
   }
 
+  /**
+   * Returns the number of bytes that have been buffered, but not been read yet.
+   * @return number of bytes
+   */
+  public final int buffered() {
+    return bsize - bpos;
+  }
+
   /**
    * Reads a string from the input stream, suffixed by a {@code 0} byte.
    * @return string
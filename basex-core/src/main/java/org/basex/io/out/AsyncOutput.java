@@ -0,0 +1,114 @@
+package org.basex.io.out;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * This output stream collects bytes in buffers and writes them to the wrapped stream
+ * in a separate thread. Errors of the writing thread are raised by subsequent calls.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class AsyncOutput extends OutputStream {
+  /** Number of buffers that may be queued. */
+  private static final int CAPACITY = 4;
+  /** Marker for the last buffer. */
+  private static final byte[] END = {};
+
+  /** Queued buffers. */
+  private final ArrayBlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(CAPACITY);
+  /** Writing thread. */
+  private final Thread writer;
+  /** Buffer size. */
+  private final int bufsize;
+  /** Current buffer. */
+  private byte[] buffer;
+  /** Current buffer position. */
+  private int pos;
+  /** Error of the writing thread. */
+  private volatile IOException error;
+
+  /**
+   * Constructor.
+   * @param out the stream to write to (will be closed by this stream)
+   * @param bufsize buffer size
+   */
+  public AsyncOutput(final OutputStream out, final int bufsize) {
+    this.bufsize = bufsize;
+    buffer = new byte[bufsize];
+    writer = new Thread(() -> {
+      try {
+        for(byte[] b; (b = queue.take()) != END;) {
+          // after an error, remaining buffers will be discarded
+          if(error == null) {
+            try {
+              out.write(b);
+            } catch(final IOException ex) {
+              error = ex;
+            }
+          }
+        }
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+      try {
+        out.close();
+      } catch(final IOException ex) {
+        if(error == null) error = ex;
+      }
+    }, Util.className(this));
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    if(pos == bufsize) send();
+    buffer[pos++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    for(int o = off, l = len; l > 0;) {
+      if(pos == bufsize) send();
+      final int n = Math.min(l, bufsize - pos);
+      System.arraycopy(b, o, buffer, pos, n);
+      pos += n;
+      o += n;
+      l -= n;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if(pos > 0) queue.put(Arrays.copyOf(buffer, pos));
+      pos = 0;
+      queue.put(END);
+      writer.join();
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    }
+    if(error != null) throw error;
+  }
+
+  /**
+   * Passes on the current buffer to the writing thread.
+   * @throws IOException I/O exception
+   */
+  private void send() throws IOException {
+    if(error != null) throw error;
+    try {
+      queue.put(buffer);
+    } catch(final InterruptedException ex) {
+      throw new BaseXException(ex);
+    }
+    buffer = new byte[bufsize];
+    pos = 0;
+  }
+}
@@ -28,41 +28,41 @@ public final class JsonBasicConverter extends JsonXmlConverter {
   }
 
   @Override
-  void openObject() {
+  protected void openObject() {
     openOuter(MAP);
   }
 
   @Override
-  void closeObject() {
+  protected void closeObject() {
     closeOuter();
   }
 
   @Override
-  void openPair(final byte[] key, final boolean add) {
+  protected void openPair(final byte[] key, final boolean add) {
     addValues.add(add);
     if(add) name = shared.token(key);
   }
 
   @Override
-  void closePair(final boolean add) {
+  protected void closePair(final boolean add) {
     addValues.pop();
   }
 
   @Override
-  void openArray() {
+  protected void openArray() {
     openOuter(ARRAY);
   }
 
   @Override
-  void closeArray() {
+  protected void closeArray() {
     closeOuter();
   }
 
   @Override
-  void openItem() { }
+  protected void openItem() { }
 
   @Override
-  void closeItem() { }
+  protected void closeItem() { }
 
   @Override
   void addValue(final byte[] type, final byte[] value) {
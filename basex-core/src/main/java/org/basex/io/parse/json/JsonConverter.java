@@ -8,6 +8,7 @@ import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
+import org.basex.util.*;
 
 /**
  * Interface for converters from JSON to XQuery values.
@@ -30,7 +31,7 @@ public abstract class JsonConverter {
    * Constructor.
    * @param jopts json options
    */
-  JsonConverter(final JsonParserOptions jopts) {
+  protected JsonConverter(final JsonParserOptions jopts) {
     this.jopts = jopts;
   }
 
@@ -62,10 +63,11 @@ public abstract class JsonConverter {
    * @return result
    */
   public final Item convert(final IO input) throws QueryException, IOException {
-    final String encoding = jopts.get(JsonParserOptions.ENCODING);
+    init(input.url());
     try(NewlineInput ni = new NewlineInput(input)) {
-      return convert(ni.encoding(encoding).cache().toString(), input.url());
+      new JsonParser(ni.encoding(jopts.get(JsonParserOptions.ENCODING)), jopts, this).parse();
     }
+    return finish();
   }
 
   /**
@@ -77,9 +79,12 @@ public abstract class JsonConverter {
    */
   public final Item convert(final String input, final String path) throws QueryException {
     init(path.isEmpty() ? "" : IO.get(path).url());
-    final JsonParser parser = new JsonParser(input, jopts, this);
-    parser.parse();
-    return finish();
+    try {
+      new JsonParser(input, jopts, this).parse();
+      return finish();
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
   }
 
   /**
@@ -102,86 +107,99 @@ public abstract class JsonConverter {
    * Initializes the conversion.
    * @param uri base URI
    */
-  abstract void init(String uri);
+  protected abstract void init(String uri);
 
   /**
    * Returns the resulting XQuery value.
    * @return result
+   * @throws IOException I/O exception
    */
-  abstract Item finish();
+  protected abstract Item finish() throws IOException;
 
   /**
    * Called when a JSON object is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openObject() throws QueryException;
+  protected abstract void openObject() throws QueryException, IOException;
 
   /**
    * Called when a JSON object is closed.
+   * @throws IOException I/O exception
    */
-  abstract void closeObject();
+  protected abstract void closeObject() throws IOException;
 
   /**
    * Called when a pair of a JSON object is opened.
    * @param key the key of the entry
    * @param add add pair
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openPair(byte[] key, boolean add) throws QueryException;
+  protected abstract void openPair(byte[] key, boolean add) throws QueryException, IOException;
 
   /**
    * Called when a pair of a JSON object is closed.
    * @param add add pair
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void closePair(boolean add) throws QueryException;
+  protected abstract void closePair(boolean add) throws QueryException, IOException;
 
   /**
    * Called when a JSON array is opened.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void openArray() throws QueryException;
+  protected abstract void openArray() throws QueryException, IOException;
 
   /**
    * Called when a JSON array is closed.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void closeArray() throws QueryException;
+  protected abstract void closeArray() throws QueryException, IOException;
 
   /**
    * Called when an item of a JSON array is opened.
+   * @throws IOException I/O exception
    */
-  abstract void openItem();
+  protected abstract void openItem() throws IOException;
 
   /**
    * Called when an item of a JSON array is closed.
+   * @throws IOException I/O exception
    */
-  abstract void closeItem();
+  protected abstract void closeItem() throws IOException;
 
   /**
    * Called when a number literal is encountered.
    * @param value string representation of the number literal
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void numberLit(Item value) throws QueryException;
+  protected abstract void numberLit(Item value) throws QueryException, IOException;
 
   /**
    * Called when a string literal is encountered.
    * @param bs the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void stringLit(byte[] bs) throws QueryException;
+  protected abstract void stringLit(byte[] bs) throws QueryException, IOException;
 
   /**
    * Called when a {@code null} literal is encountered.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void nullLit() throws QueryException;
+  protected abstract void nullLit() throws QueryException, IOException;
 
   /**
    * Called when a boolean literal is encountered.
    * @param b the boolean
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  abstract void booleanLit(byte[] b) throws QueryException;
+  protected abstract void booleanLit(byte[] b) throws QueryException, IOException;
 }
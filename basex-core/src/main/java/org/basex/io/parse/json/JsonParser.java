@@ -3,9 +3,13 @@ package org.basex.io.parse.json;
 import static org.basex.query.QueryError.*;
 import static org.basex.util.Token.*;
 
+import java.io.*;
+
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
 import org.basex.build.json.JsonParserOptions.JsonDuplicates;
+import org.basex.core.*;
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
 import org.basex.util.*;
@@ -13,11 +17,12 @@ import org.basex.util.hash.*;
 
 /**
  * A JSON parser generating parse events similar to a SAX XML parser.
+ * The input is read and processed in a single pass.
  *
  * @author BaseX Team 2005-24, BSD License
  * @author Leo Woerteler
  */
-public final class JsonParser extends InputParser {
+public final class JsonParser {
   /** Names of control characters not allowed in string literals. */
   private static final String[] CTRL = {
     // U+0000 -- U+001F
@@ -27,6 +32,10 @@ public final class JsonParser extends InputParser {
     "CAN", "EM",  "SUB", "ESC", "FS",  "GS",  "RS",  "US",
   };
 
+  /** Input stream (can be {@code null}). */
+  private final TextInput input;
+  /** Input string (can be {@code null}). */
+  private final String string;
   /** Converter. */
   private final JsonConverter conv;
   /** Spec. */
@@ -37,15 +46,51 @@ public final class JsonParser extends InputParser {
   private final JsonDuplicates duplicates;
   /** Token builder for string literals. */
   private final TokenBuilder tb = new TokenBuilder();
+  /** Token builder for the original representation of the current characters. */
+  private final TokenBuilder raw = new TokenBuilder();
+
+  /** Current codepoint ({@code -1}: end of input). */
+  private int curr;
+  /** Current position in the input string. */
+  private int pos;
+  /** Line of the current codepoint. */
+  private int line = 1;
+  /** Column of the current codepoint. */
+  private int col = 1;
+
+  /**
+   * Constructor taking the input and the spec according to which it is parsed.
+   * @param input input
+   * @param opts options
+   * @param conv converter
+   */
+  public JsonParser(final TextInput input, final JsonParserOptions opts,
+      final JsonConverter conv) {
+    this(input, null, opts, conv);
+  }
 
   /**
    * Constructor taking the input string and the spec according to which it is parsed.
-   * @param input input string
+   * @param string input string
+   * @param opts options
+   * @param conv converter
+   */
+  public JsonParser(final String string, final JsonParserOptions opts,
+      final JsonConverter conv) {
+    this(null, string, opts, conv);
+  }
+
+  /**
+   * Constructor.
+   * @param input input stream (can be {@code null})
+   * @param string input string (can be {@code null})
    * @param opts options
    * @param conv converter
    */
-  public JsonParser(final String input, final JsonParserOptions opts, final JsonConverter conv) {
-    super(input);
+  private JsonParser(final TextInput input, final String string, final JsonParserOptions opts,
+      final JsonConverter conv) {
+    this.input = input;
+    this.string = string;
     liberal = opts.get(JsonParserOptions.LIBERAL);
     escape = opts.get(JsonParserOptions.ESCAPE);
     final JsonDuplicates dupl = opts.get(JsonParserOptions.DUPLICATES);
@@ -57,8 +102,10 @@ public final class JsonParser extends InputParser {
   /**
    * Parses a JSON expression.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  public void parse() throws QueryException {
+  public void parse() throws QueryException, IOException {
+    curr = read();
     consume('\uFEFF');
     skipWs();
     try {
@@ -67,17 +114,18 @@ public final class JsonParser extends InputParser {
       Util.debug(er);
       throw error("Input is too deeply nested");
     }
-    if(more()) throw error("Unexpected trailing content: %", remaining());
+    if(curr != -1) throw error("Unexpected trailing content: %", remaining());
   }
 
   /**
    * Parses a JSON value.
    * @throws QueryException query exception
-   * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void value() throws QueryException {
-    if(pos >= length) throw eof(", expected JSON value");
-    switch(curr()) {
+  private void value() throws QueryException, IOException {
+    switch(curr) {
+      case -1:
+        throw eof(", expected JSON value");
       case '[':
         array();
         break;
@@ -116,14 +164,15 @@ public final class JsonParser extends InputParser {
   /**
    * Parses a JSON object.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void object() throws QueryException {
+  private void object() throws QueryException, IOException {
     consumeWs('{', true);
     conv.openObject();
     if(!consumeWs('}', false)) {
       final TokenSet set = new TokenSet();
       do {
-        final byte[] key = !liberal || curr() == '"' ? string() : unquoted();
+        final byte[] key = !liberal || curr == '"' ? string() : unquoted();
         final boolean dupl = set.contains(key);
         if(dupl && duplicates == JsonDuplicates.REJECT)
           throw error(JSON_DUPL_X_X_X, "Key \"%\" occurs more than once", key);
@@ -134,7 +183,7 @@ public final class JsonParser extends InputParser {
         value();
         conv.closePair(add);
         set.put(key);
-      } while(consumeWs(',', false) && !(liberal && curr() == '}'));
+      } while(consumeWs(',', false) && !(liberal && curr == '}'));
       consumeWs('}', true);
     }
     conv.closeObject();
@@ -143,8 +192,9 @@ public final class JsonParser extends InputParser {
   /**
    * Parses a JSON array.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void array() throws QueryException {
+  private void array() throws QueryException, IOException {
     consumeWs('[', true);
     conv.openArray();
     if(!consumeWs(']', false)) {
@@ -152,7 +202,7 @@ public final class JsonParser extends InputParser {
         conv.openItem();
         value();
         conv.closeItem();
-      } while(consumeWs(',', false) && !(liberal && curr() == ']'));
+      } while(consumeWs(',', false) && !(liberal && curr == ']'));
       consumeWs(']', true);
     }
     conv.closeArray();
@@ -162,16 +212,15 @@ public final class JsonParser extends InputParser {
    * Reads an unquoted string literal.
    * @return the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] unquoted() throws QueryException {
-    int cp = more() ? input.codePointAt(pos) : -1;
-    if(cp < 0 || !Character.isJavaIdentifierStart(cp))
+  private byte[] unquoted() throws QueryException, IOException {
+    if(curr == -1 || !Character.isJavaIdentifierStart(curr))
       throw error("Expected unquoted string, found %", remaining());
     tb.reset();
     do {
-      tb.add(cp);
-      cp = input.codePointAt(pos += cp < 0x10000 ? 1 : 2);
-    } while(Character.isJavaIdentifierPart(cp));
+      tb.add(consume());
+    } while(curr != -1 && Character.isJavaIdentifierPart(curr));
     skipWs();
     return tb.toArray();
   }
@@ -180,8 +229,9 @@ public final class JsonParser extends InputParser {
    * Parses a number literal.
    * @return string representation
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] number() throws QueryException {
+  private byte[] number() throws QueryException, IOException {
     tb.reset();
 
     // integral part
@@ -194,7 +244,7 @@ public final class JsonParser extends InputParser {
     }
 
     final boolean zero = ch == '0';
-    ch = curr();
+    ch = curr;
     if(zero && ch >= '0' && ch <= '9') throw error("No digit allowed after '0'");
 
     LOOP:
@@ -210,9 +260,8 @@ public final class JsonParser extends InputParser {
         case '7':
         case '8':
         case '9':
-          tb.add(ch);
-          pos++;
-          ch = curr();
+          tb.add(consume());
+          ch = curr;
           break;
         case '.':
         case 'e':
@@ -226,12 +275,11 @@ public final class JsonParser extends InputParser {
 
     if(consume('.')) {
       tb.add('.');
-      ch = curr();
+      ch = curr;
       if(ch < '0' || ch > '9') throw error("Number expected after '.'");
       do {
-        tb.add(ch);
-        pos++;
-        ch = curr();
+        tb.add(consume());
+        ch = curr;
       } while(ch >= '0' && ch <= '9');
       if(ch != 'e' && ch != 'E') {
         skipWs();
@@ -241,15 +289,15 @@ public final class JsonParser extends InputParser {
 
     // 'e' or 'E'
     tb.add(consume());
-    ch = curr();
+    ch = curr;
     if(ch == '-' || ch == '+') {
       tb.add(consume());
-      ch = curr();
+      ch = curr;
     }
 
     if(ch < '0' || ch > '9') throw error("Exponent expected");
     do tb.add(consume());
-    while((ch = curr()) >= '0' && ch <= '9');
+    while((ch = curr) >= '0' && ch <= '9');
     skipWs();
     return tb.toArray();
   }
@@ -258,19 +306,24 @@ public final class JsonParser extends InputParser {
    * Parses a string literal.
    * @return the string
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] string() throws QueryException {
-    if(!consume('"')) throw error("Expected string, found '%'", curr());
+  private byte[] string() throws QueryException, IOException {
+    if(!consume('"')) throw error("Expected string, found '%'", found());
     tb.reset();
-    char high = 0; // cached high surrogate
-    while(pos < length) {
-      final int p = pos;
+    // cached high surrogate, and the start of its original representation
+    int high = 0, hs = 0;
+    while(curr != -1) {
+      // keep original representation of cached high surrogate
+      if(high == 0) raw.reset();
+      int s = raw.size();
       int ch = consume();
+      raw.add(ch);
 
       // string is closed..
       if(ch == '"') {
         // unpaired surrogate?
-        if(high != 0) add(high, pos - 7, p);
+        if(high != 0) add(high, hs, s);
         skipWs();
         return tb.toArray();
       }
@@ -278,6 +331,7 @@ public final class JsonParser extends InputParser {
       // escape sequence
       if(ch == '\\') {
         ch = consume();
+        raw.add(ch);
         switch(ch) {
           case '\\':
           case '/':
@@ -299,19 +353,21 @@ public final class JsonParser extends InputParser {
             ch = '\t';
             break;
           case 'u':
-            if(pos + 4 >= length) throw eof(", expected four-digit hex value");
             ch = 0;
             for(int i = 0; i < 4; i++) {
-              final char x = consume();
+              if(curr == -1) throw eof(", expected four-digit hex value");
+              final int x = consume();
+              raw.add(x);
               if(x >= '0' && x <= '9')      ch = 16 * ch + x      - '0';
               else if(x >= 'a' && x <= 'f') ch = 16 * ch + x + 10 - 'a';
               else if(x >= 'A' && x <= 'F') ch = 16 * ch + x + 10 - 'A';
-              else throw error("Illegal hexadecimal digit: '%'", x);
+              else throw error("Illegal hexadecimal digit: '%'", found(x));
             }
             break;
-
+          case -1:
+            throw eof(" in string literal");
           default:
-            throw error("Unknown character escape: '\\%'", ch);
+            throw error("Unknown character escape: '\\%'", found(ch));
         }
       } else if(!liberal && ch <= 0x1F) {
         throw error("Non-escaped control character: '\\%'", CTRL[ch]);
@@ -321,18 +377,20 @@ public final class JsonParser extends InputParser {
         if(ch >= 0xDC00 && ch <= 0xDFFF) {
           // compute resulting codepoint
           ch = (high - 0xD800 << 10) + ch - 0xDC00 + 0x10000;
+          s = hs;
         } else {
           // add invalid high surrogate, treat expected low surrogate as new character
-          add(high, p, pos);
+          add(high, hs, s);
         }
         high = 0;
       }
 
       if(ch >= 0xD800 && ch <= 0xDBFF) {
         // remember high surrogate
-        high = (char) ch;
+        high = ch;
+        hs = s;
       } else {
-        add(ch, p, pos);
+        add(ch, s, raw.size());
       }
     }
     throw eof(" in string literal");
@@ -341,7 +399,7 @@ public final class JsonParser extends InputParser {
   /**
    * Adds the specified character.
    * @param ch character
-   * @param s start position of invalid unicode sequence
+   * @param s start position of the original representation of the character
    * @param e end position
    * @throws QueryException query exception
    */
@@ -370,20 +428,23 @@ public final class JsonParser extends InputParser {
     } else if(conv.fallback == null) {
       tb.add(REPLACEMENT);
     } else {
-      tb.add(conv.fallback.apply(token(input.substring(s, e))));
+      tb.add(conv.fallback.apply(substring(raw.toArray(), s, e)));
     }
   }
 
-  /** Consumes all whitespace characters from the remaining query. */
-  private void skipWs() {
-    while(pos < length) {
-      switch(input.charAt(pos)) {
+  /**
+   * Consumes all whitespace characters from the remaining query.
+   * @throws IOException I/O exception
+   */
+  private void skipWs() throws IOException {
+    while(true) {
+      switch(curr) {
         case ' ':
         case '\t':
         case '\r':
         case '\n':
         case '\u00A0': // non-breaking space
-          pos++;
+          consume();
           break;
         default:
           return;
@@ -391,6 +452,66 @@ public final class JsonParser extends InputParser {
     }
   }
 
+  /**
+   * Consumes the current codepoint.
+   * @return consumed codepoint ({@code -1}: end of input)
+   * @throws IOException I/O exception
+   */
+  private int consume() throws IOException {
+    final int cp = curr;
+    if(cp != -1) {
+      if(cp == '\n') {
+        line++;
+        col = 1;
+      } else {
+        col++;
+      }
+      curr = read();
+    }
+    return cp;
+  }
+
+  /**
+   * Reads the next codepoint from the input.
+   * @return codepoint ({@code -1}: end of input)
+   * @throws IOException I/O exception
+   */
+  private int read() throws IOException {
+    if(input != null) return input.read();
+    if(pos == string.length()) return -1;
+    final int cp = string.codePointAt(pos);
+    pos += Character.charCount(cp);
+    return cp;
+  }
+
+  /**
+   * Tries to consume the given character.
+   * @param ch character to be consumed
+   * @return if the character was consumed
+   * @throws IOException I/O exception
+   */
+  private boolean consume(final int ch) throws IOException {
+    if(curr != ch) return false;
+    consume();
+    return true;
+  }
+
+  /**
+   * Tries to consume the given string. If the first character matches,
+   * all remaining characters must match as well.
+   * @param string string to be consumed
+   * @return if the string was consumed
+   * @throws IOException I/O exception
+   */
+  private boolean consume(final String string) throws IOException {
+    if(curr != string.charAt(0)) return false;
+    final int sl = string.length();
+    for(int s = 0; s < sl; s++) {
+      if(!consume(string.charAt(s))) return false;
+    }
+    return true;
+  }
+
   /**
    * Tries to consume the given character. If successful, following whitespace is skipped.
    * Otherwise, if the error flag is set, a parse error is thrown.
@@ -398,16 +519,48 @@ public final class JsonParser extends InputParser {
    * @param err error flag
    * @return if the character was consumed
    * @throws QueryException query error
+   * @throws IOException I/O exception
    */
-  private boolean consumeWs(final char ch, final boolean err) throws QueryException {
+  private boolean consumeWs(final char ch, final boolean err) throws QueryException, IOException {
     if(consume(ch)) {
       skipWs();
       return true;
     }
-    if(err) throw error("Expected '%', found '%'", ch, curr());
+    if(err) throw error("Expected '%', found '%'", ch, found());
     return false;
   }
 
+  /**
+   * Returns the current character as string.
+   * @return string
+   */
+  private String found() {
+    return found(curr);
+  }
+
+  /**
+   * Returns a string representation of the specified codepoint.
+   * @param cp codepoint ({@code -1}: end of input)
+   * @return string
+   */
+  private static String found(final int cp) {
+    return cp == -1 ? "" : new TokenBuilder(4).add(cp).toString();
+  }
+
+  /**
+   * Returns the next characters of the input. Only called if an error is raised.
+   * @return string
+   * @throws IOException I/O exception
+   */
+  private String remaining() throws IOException {
+    final TokenBuilder rest = new TokenBuilder();
+    for(int c = 0; c < 15 && curr != -1 && curr != '\n'; c++) {
+      rest.add(curr);
+      curr = read();
+    }
+    return rest + (curr == -1 ? "" : Text.DOTS);
+  }
+
   /**
    * Throws an end-of-input error.
    * @param desc description
@@ -436,7 +589,7 @@ public final class JsonParser extends InputParser {
    * @return query exception
    */
   private QueryException error(final QueryError err, final String msg, final Object... ext) {
-    final InputInfo ii = new InputInfo(this);
-    return err.get(ii, ii.line(), ii.column(), Util.inf(msg, ext));
+    final InputInfo ii = new InputInfo(null, line, col);
+    return err.get(ii, line, col, Util.inf(msg, ext));
   }
 }
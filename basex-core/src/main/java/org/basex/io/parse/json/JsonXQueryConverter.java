@@ -56,7 +56,7 @@ public final class JsonXQueryConverter extends JsonConverter {
   }
 
   @Override
-  void init(final String uri) {
+  protected void init(final String uri) {
   }
 
   @Override
@@ -66,43 +66,43 @@ public final class JsonXQueryConverter extends JsonConverter {
   }
 
   @Override
-  void openObject() {
+  protected void openObject() {
     maps.push(XQMap.empty());
   }
 
   @Override
-  void openPair(final byte[] key, final boolean add) {
+  protected void openPair(final byte[] key, final boolean add) {
     stack.push(Str.get(shared.token(key)));
   }
 
   @Override
-  void closePair(final boolean add) throws QueryException {
+  protected void closePair(final boolean add) throws QueryException {
     final Value value = stack.pop();
     final Item key = (Item) stack.pop();
     if(add) maps.push(maps.pop().put(key, value, null));
   }
 
   @Override
-  void closeObject() {
+  protected void closeObject() {
     stack.push(maps.pop());
   }
 
   @Override
-  void openArray() {
+  protected void openArray() {
     arrays.push(new ValueList());
   }
 
   @Override
-  void openItem() {
+  protected void openItem() {
   }
 
   @Override
-  void closeItem() {
+  protected void closeItem() {
     arrays.peek().add(stack.pop());
   }
 
   @Override
-  void closeArray() {
+  protected void closeArray() {
     final ArrayBuilder ab = new ArrayBuilder();
     for(final Value value : arrays.pop()) ab.append(value);
     stack.push(ab.array());
@@ -46,6 +46,18 @@ final class Buffers {
     return buffer[offset];
   }
 
+  /**
+   * Returns the buffer for the specified position without changing the offset.
+   * @param pos buffer position
+   * @return buffer or {@code null}
+   */
+  Buffer find(final long pos) {
+    for(final Buffer b : buffer) {
+      if(b.pos == pos) return b;
+    }
+    return null;
+  }
+
   /**
    * Chooses a buffer and sets the offset.
    * @param pos buffer position
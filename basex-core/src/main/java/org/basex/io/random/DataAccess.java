@@ -14,6 +14,10 @@ import org.basex.util.*;
 public final class DataAccess implements Closeable {
   /** Buffer manager. */
   private final Buffers buffers = new Buffers();
+  /** Shared page cache. */
+  private final PageCache cache = PageCache.get();
+  /** File id in the page cache. */
+  private final int id = PageCache.id();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
   /** File size. */
@@ -61,6 +65,7 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    cache.remove(id);
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -208,6 +213,41 @@ public final class DataAccess implements Closeable {
     return data;
   }
 
+  /**
+   * Returns a new read cursor.
+   * @return reader
+   */
+  public DataReader reader() {
+    return new DataReader(this);
+  }
+
+  /**
+   * Returns a page. The cursor of this instance is not changed.
+   * Pages from the shared cache are returned without copying them; otherwise, the page is
+   * copied to the specified array.
+   * @param pos position of the page
+   * @param data target array
+   * @return array with the page contents (must not be modified)
+   */
+  synchronized byte[] page(final long pos, final byte[] data) {
+    final Buffer buffer = buffers.find(pos);
+    if(buffer != null) {
+      Array.copy(buffer.data, IO.BLOCKSIZE, data);
+    } else {
+      try {
+        if(pos >= raf.length()) return data;
+        final byte[] page = cache.page(id, pos);
+        if(page != null) return page;
+        raf.seek(pos);
+        raf.readFully(data, 0, (int) Math.min(length - pos, IO.BLOCKSIZE));
+        cache.add(id, pos, data);
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+    return data;
+  }
+
   /**
    * Sets the disk cursor.
    * @param pos read position
@@ -221,9 +261,11 @@ public final class DataAccess implements Closeable {
     try {
       if(buffer.dirty) writeBlock(buffer);
       buffer.pos = b;
-      raf.seek(buffer.pos);
-      if(buffer.pos < raf.length())
-        raf.readFully(buffer.data, 0, (int) Math.min(length - buffer.pos, IO.BLOCKSIZE));
+      if(b < raf.length() && !cache.read(id, b, buffer.data)) {
+        raf.seek(b);
+        raf.readFully(buffer.data, 0, (int) Math.min(length - b, IO.BLOCKSIZE));
+        cache.add(id, b, buffer.data);
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -418,6 +460,7 @@ public final class DataAccess implements Closeable {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
     raf.seek(pos);
     raf.write(buffer.data, 0, (int) len);
+    cache.update(id, pos, buffer.data);
     buffer.dirty = false;
   }
 
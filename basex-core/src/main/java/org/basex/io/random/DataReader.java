@@ -0,0 +1,142 @@
+package org.basex.io.random;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Read cursor on a {@link DataAccess} instance.
+ * The cursor has its own position and page buffer. The underlying file is only locked while
+ * a page is fetched, which allows multiple readers to traverse a file in parallel.
+ * Pages from the shared {@link PageCache} are read without copying them.
+ * Fetched pages are not updated by subsequent writes. Cursors are therefore meant to be
+ * used for single read operations, and they must not be shared by multiple threads.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class DataReader {
+  /** Data access. */
+  private final DataAccess da;
+  /** Page buffer. */
+  private final byte[] buffer = new byte[IO.BLOCKSIZE];
+  /** Current page (page buffer or cached page). */
+  private byte[] data = buffer;
+  /** File position of the current page ({@code -1}: no page has been fetched yet). */
+  private long page = -1;
+  /** Offset in the current page. */
+  private int off;
+
+  /**
+   * Constructor.
+   * @param da data access
+   */
+  DataReader(final DataAccess da) {
+    this.da = da;
+  }
+
+  /**
+   * Returns the current file position.
+   * @return position in the file
+   */
+  public long cursor() {
+    return page + off;
+  }
+
+  /**
+   * Sets the cursor.
+   * @param pos file position
+   */
+  public void cursor(final long pos) {
+    off = (int) (pos & IO.BLOCKSIZE - 1);
+    final long p = pos - off;
+    if(p != page) fetch(p);
+  }
+
+  /**
+   * Reads an integer value from the specified position.
+   * @param pos position
+   * @return integer value
+   */
+  public int read4(final long pos) {
+    cursor(pos);
+    return (read() << 24) + (read() << 16) + (read() << 8) + read();
+  }
+
+  /**
+   * Reads a 5-byte value from the specified position.
+   * @param pos position
+   * @return long value
+   */
+  public long read5(final long pos) {
+    cursor(pos);
+    return ((long) read() << 32) + ((long) read() << 24) + (read() << 16) + (read() << 8) + read();
+  }
+
+  /**
+   * Reads a {@link Num} value from the specified position.
+   * @param pos position
+   * @return read num
+   */
+  public int readNum(final long pos) {
+    cursor(pos);
+    return readNum();
+  }
+
+  /**
+   * Reads the next compressed number and returns it as integer.
+   * @return next integer
+   */
+  public int readNum() {
+    final int value = read();
+    switch(value & 0xC0) {
+    case 0:
+      return value;
+    case 0x40:
+      return (value - 0x40 << 8) + read();
+    case 0x80:
+      return (value - 0x80 << 24) + (read() << 16) + (read() << 8) + read();
+    default:
+      return (read() << 24) + (read() << 16) + (read() << 8) + read();
+    }
+  }
+
+  /**
+   * Reads a number of bytes from the specified position.
+   * @param pos position
+   * @param len length
+   * @return byte array
+   */
+  public byte[] readBytes(final long pos, final int len) {
+    cursor(pos);
+    final byte[] bytes = new byte[len];
+    for(int b = 0; b < len;) {
+      if(off == IO.BLOCKSIZE) fetch(page + IO.BLOCKSIZE);
+      final int l = Math.min(len - b, IO.BLOCKSIZE - off);
+      Array.copy(data, off, l, bytes, b);
+      off += l;
+      b += l;
+    }
+    return bytes;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Reads the next byte.
+   * @return next byte
+   */
+  private int read() {
+    if(off == IO.BLOCKSIZE) fetch(page + IO.BLOCKSIZE);
+    return data[off++] & 0xFF;
+  }
+
+  /**
+   * Fetches the specified page and resets the offset if the cursor is moved to the next page.
+   * @param p file position of the page
+   */
+  private void fetch(final long p) {
+    if(p != page && off == IO.BLOCKSIZE) off = 0;
+    data = da.page(p, buffer);
+    page = p;
+  }
+}
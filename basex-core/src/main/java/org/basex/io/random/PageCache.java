@@ -0,0 +1,326 @@
+package org.basex.io.random;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Process-wide cache for disk pages, which is shared by all open database files.
+ * Pages that are evicted from the buffers of a {@link DataAccess} or {@link TableDiskAccess}
+ * instance are served from this cache before they are read from disk again.
+ *
+ * The cache is divided into lock-striped segments. Each segment uses 2Q eviction:
+ * pages that are requested only once (e.g. by sequential scans) pass through a FIFO queue
+ * and do not displace pages that are frequently accessed.
+ *
+ * Cached page arrays are never modified: updated pages are replaced with new arrays.
+ * Pages returned by {@link #page(int, long)} can thus be read without copying them.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCache {
+  /** Number of segments (must be 1 << n). */
+  private static final int SEGMENTS = 1 << 4;
+  /** Singleton instance. */
+  private static final PageCache INSTANCE = new PageCache();
+  /** File ids. */
+  private static final AtomicInteger IDS = new AtomicInteger();
+
+  /** Segments ({@code null} if the cache is disabled). */
+  private volatile Segment[] segments;
+  /** Number of cache hits. */
+  private final AtomicLong hits = new AtomicLong();
+  /** Number of cache misses. */
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Private constructor.
+   */
+  private PageCache() { }
+
+  /**
+   * Returns the singleton instance.
+   * @return instance
+   */
+  public static PageCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Assigns the maximum size of the cache. If the size changes, cached pages are discarded.
+   * @param mb size in megabytes ({@code 0}: disable cache)
+   */
+  public synchronized void size(final int mb) {
+    final int pages = (int) (((long) Math.max(0, mb) << 20) / IO.BLOCKSIZE / SEGMENTS);
+    if(pages == 0) {
+      segments = null;
+    } else if(segments == null || segments[0].capacity != pages) {
+      final Segment[] segs = new Segment[SEGMENTS];
+      for(int s = 0; s < SEGMENTS; s++) segs[s] = new Segment(pages);
+      segments = segs;
+      hits.set(0);
+      misses.set(0);
+    }
+  }
+
+  /**
+   * Returns a new file id.
+   * @return id
+   */
+  static int id() {
+    return IDS.incrementAndGet();
+  }
+
+  /**
+   * Copies a cached page to the specified array.
+   * @param id file id
+   * @param pos position of the page in the file
+   * @param data target array
+   * @return {@code true} if the page was found in the cache
+   */
+  boolean read(final int id, final long pos, final byte[] data) {
+    final Segment[] segs = segments;
+    if(segs == null) return false;
+
+    final long key = key(id, pos);
+    final boolean found = segment(segs, key).read(key, data);
+    (found ? hits : misses).incrementAndGet();
+    return found;
+  }
+
+  /**
+   * Returns a cached page. The returned array must not be modified.
+   * @param id file id
+   * @param pos position of the page in the file
+   * @return page or {@code null}
+   */
+  byte[] page(final int id, final long pos) {
+    final Segment[] segs = segments;
+    if(segs == null) return null;
+
+    final long key = key(id, pos);
+    final byte[] page = segment(segs, key).page(key);
+    (page != null ? hits : misses).incrementAndGet();
+    return page;
+  }
+
+  /**
+   * Adds a page that has been read from disk.
+   * @param id file id
+   * @param pos position of the page in the file
+   * @param data page contents
+   */
+  void add(final int id, final long pos, final byte[] data) {
+    final Segment[] segs = segments;
+    if(segs == null) return;
+
+    final long key = key(id, pos);
+    segment(segs, key).add(key, data);
+  }
+
+  /**
+   * Updates a page that has been written to disk if it is found in the cache.
+   * @param id file id
+   * @param pos position of the page in the file
+   * @param data page contents
+   */
+  void update(final int id, final long pos, final byte[] data) {
+    final Segment[] segs = segments;
+    if(segs == null) return;
+
+    final long key = key(id, pos);
+    segment(segs, key).update(key, data);
+  }
+
+  /**
+   * Removes all pages of the specified file.
+   * @param id file id
+   */
+  void remove(final int id) {
+    final Segment[] segs = segments;
+    if(segs == null) return;
+
+    for(final Segment seg : segs) seg.remove(id);
+  }
+
+  /**
+   * Returns the number of cache hits.
+   * @return hits
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of cache misses.
+   * @return misses
+   */
+  public long misses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of cached pages.
+   * @return number of pages
+   */
+  public int pages() {
+    final Segment[] segs = segments;
+    int pages = 0;
+    if(segs != null) {
+      for(final Segment seg : segs) pages += seg.size();
+    }
+    return pages;
+  }
+
+  @Override
+  public String toString() {
+    final Segment[] segs = segments;
+    return segs == null ? "-" : Util.info("% of % pages, % hits, % misses",
+        pages(), (long) segs[0].capacity * SEGMENTS, hits(), misses());
+  }
+
+  /**
+   * Returns the key for a page.
+   * @param id file id
+   * @param pos position of the page in the file
+   * @return key
+   */
+  private static long key(final int id, final long pos) {
+    return (long) id << 32 | pos >>> IO.BLOCKPOWER;
+  }
+
+  /**
+   * Returns the segment for the specified key.
+   * @param segs segments
+   * @param key key
+   * @return segment
+   */
+  private static Segment segment(final Segment[] segs, final long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return segs[(int) (h >>> 32) & SEGMENTS - 1];
+  }
+
+  /**
+   * Cache segment with 2Q eviction.
+   */
+  private static final class Segment {
+    /** Pages that have been accessed once (FIFO). */
+    private final LinkedHashMap<Long, byte[]> in = new LinkedHashMap<>();
+    /** Pages that have been accessed repeatedly (LRU). */
+    private final LinkedHashMap<Long, byte[]> main = new LinkedHashMap<>(16, 0.75f, true);
+    /** Keys of pages that have recently been evicted from the FIFO queue. */
+    private final LinkedHashSet<Long> out = new LinkedHashSet<>();
+    /** Maximum number of pages. */
+    private final int capacity;
+    /** Maximum number of pages in the FIFO queue. */
+    private final int maxIn;
+    /** Maximum number of remembered keys. */
+    private final int maxOut;
+
+    /**
+     * Constructor.
+     * @param capacity maximum number of pages
+     */
+    Segment(final int capacity) {
+      this.capacity = capacity;
+      maxIn = Math.max(1, capacity >>> 2);
+      maxOut = Math.max(1, capacity >>> 1);
+    }
+
+    /**
+     * Copies a cached page to the specified array.
+     * @param key key
+     * @param data target array
+     * @return {@code true} if the page was found
+     */
+    synchronized boolean read(final long key, final byte[] data) {
+      final byte[] page = page(key);
+      if(page == null) return false;
+      Array.copy(page, IO.BLOCKSIZE, data);
+      return true;
+    }
+
+    /**
+     * Returns a cached page.
+     * @param key key
+     * @return page or {@code null}
+     */
+    synchronized byte[] page(final long key) {
+      final byte[] page = main.get(key);
+      return page != null ? page : in.get(key);
+    }
+
+    /**
+     * Adds a page.
+     * @param key key
+     * @param data page contents
+     */
+    synchronized void add(final long key, final byte[] data) {
+      if(update(key, data)) return;
+
+      evict();
+      final byte[] page = Arrays.copyOf(data, IO.BLOCKSIZE);
+      // pages that have recently been evicted from the FIFO queue are considered hot
+      if(out.remove(key)) main.put(key, page);
+      else in.put(key, page);
+    }
+
+    /**
+     * Replaces a page if it exists.
+     * @param key key
+     * @param data page contents
+     * @return {@code true} if the page was found
+     */
+    synchronized boolean update(final long key, final byte[] data) {
+      final LinkedHashMap<Long, byte[]> pages = main.containsKey(key) ? main :
+        in.containsKey(key) ? in : null;
+      if(pages == null) return false;
+      pages.put(key, Arrays.copyOf(data, IO.BLOCKSIZE));
+      return true;
+    }
+
+    /**
+     * Removes all pages of a file.
+     * @param id file id
+     */
+    synchronized void remove(final int id) {
+      in.keySet().removeIf(k -> (int) (k >>> 32) == id);
+      main.keySet().removeIf(k -> (int) (k >>> 32) == id);
+      out.removeIf(k -> (int) (k >>> 32) == id);
+    }
+
+    /**
+     * Returns the number of cached pages.
+     * @return number of pages
+     */
+    synchronized int size() {
+      return in.size() + main.size();
+    }
+
+    /**
+     * Evicts a page if the segment is full. Evicted arrays are not reused, as they may
+     * still be referenced by readers.
+     */
+    private void evict() {
+      if(in.size() + main.size() < capacity) return;
+
+      if(in.size() > maxIn || main.isEmpty()) {
+        final Iterator<Long> iter = in.keySet().iterator();
+        out.add(iter.next());
+        iter.remove();
+        if(out.size() > maxOut) {
+          final Iterator<Long> oi = out.iterator();
+          oi.next();
+          oi.remove();
+        }
+      } else {
+        final Iterator<Long> iter = main.keySet().iterator();
+        iter.next();
+        iter.remove();
+      }
+    }
+  }
+}
@@ -15,6 +15,11 @@ import org.basex.util.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
+ * If {@link MetaData#mmap} is enabled, the table file is additionally memory-mapped, and
+ * read operations bypass the page buffers and the monitor of this class. The mapping is
+ * discarded with the first write operation and recreated when the table is flushed.
+ * Discarded mappings are released by the garbage collector, the current mapping is released
+ * when the table is closed.
  *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
@@ -23,12 +28,20 @@ import org.basex.util.*;
 public final class TableDiskAccess extends TableAccess {
   /** Buffer manager. */
   private final Buffers buffers = new Buffers();
+  /** Shared page cache. */
+  private final PageCache cache = PageCache.get();
+  /** File id in the page cache. */
+  private final int id = PageCache.id();
   /** File storing all pages. */
   private final RandomAccessFile file;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Indicates if the table is to be memory-mapped. */
+  private final boolean mmap;
+  /** Memory-mapped table ({@code null} if disabled or if updates are pending). */
+  private volatile TableMapping mapping;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -77,6 +90,8 @@ public final class TableDiskAccess extends TableAccess {
     // initialize data file
     file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
+    mmap = meta.mmap && !write;
+    map();
   }
 
   /**
@@ -99,44 +114,19 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer buffer : buffers.all()) {
-      write(buffer);
-    }
-    if(!dirty || !all) return;
-
-    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
-      final int p = pages;
-      boolean regular = true;
-
-      // check if page mapping is regular (are all pages used and in ascending order?)
-      if(fPreIndex != null) {
-        regular = p == used;
-        for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
-        for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
-        if(regular) removeMapping();
-      }
-
-      if(regular) {
-        // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
-        out.writeNum(p);
-        out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
-      } else {
-        out.writeNum(p);
-        out.writeNum(used);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
-        out.writeNum(p);
-        for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
-        out.writeLongs(usedPages.toArray());
-      }
-    }
-    dirty = false;
+    write(all);
+    map();
   }
 
   @Override
   public synchronized void close() throws IOException {
-    flush(true);
+    // release mapped buffers: databases are only closed if they are not accessed by any job
+    final TableMapping tm = mapping;
+    mapping = null;
+    if(tm != null) tm.close();
+    write(true);
     file.close();
+    cache.remove(id);
   }
 
   @Override
@@ -154,37 +144,54 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return data[o] & 0xFF;
+  public int read1(final int pre, final int offset) {
+    final TableMapping tm = mapping;
+    if(tm != null) return tm.read1(pre, offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return data[o] & 0xFF;
+    }
   }
 
   @Override
-  public synchronized int read2(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+  public int read2(final int pre, final int offset) {
+    final TableMapping tm = mapping;
+    if(tm != null) return tm.read2(pre, offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized int read4(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
-      ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+  public int read4(final int pre, final int offset) {
+    final TableMapping tm = mapping;
+    if(tm != null) return tm.read4(pre, offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
+        ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+    }
   }
 
   @Override
-  public synchronized long read5(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
-      ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+  public long read5(final int pre, final int offset) {
+    final TableMapping tm = mapping;
+    if(tm != null) return tm.read5(pre, offset);
+    synchronized(this) {
+      final int o = offset + cursor(pre);
+      final byte[] data = buffers.current().data;
+      return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
+        ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+    }
   }
 
   @Override
   public void write1(final int pre, final int offset, final int value) {
+    mapping = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     buffer.data[o] = (byte) value;
@@ -193,6 +200,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int offset, final int value) {
+    mapping = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -203,6 +211,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int offset, final int value) {
+    mapping = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -215,6 +224,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int offset, final long value) {
+    mapping = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -440,10 +450,61 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Writes all buffers to disk and, optionally, the page index.
+   * @param all write page index
+   * @throws IOException I/O exception
+   */
+  private void write(final boolean all) throws IOException {
+    for(final Buffer buffer : buffers.all()) {
+      write(buffer);
+    }
+    if(!dirty || !all) return;
+
+    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
+      final int p = pages;
+      boolean regular = true;
+
+      // check if page mapping is regular (are all pages used and in ascending order?)
+      if(fPreIndex != null) {
+        regular = p == used;
+        for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
+        for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
+        if(regular) removeMapping();
+      }
+
+      if(regular) {
+        // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
+        out.writeNum(p);
+        out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
+      } else {
+        out.writeNum(p);
+        out.writeNum(used);
+        out.writeNum(p);
+        for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
+        out.writeNum(p);
+        for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
+        out.writeLongs(usedPages.toArray());
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Memory-maps the table file if this is enabled and if no mapping exists yet.
+   * @throws IOException I/O exception
+   */
+  private void map() throws IOException {
+    if(mmap && mapping == null && used != 0) {
+      mapping = new TableMapping(file.getChannel(), fPreIndex, pageIndex, used, meta.size);
+    }
+  }
+
   /**
    * Marks the data structures as dirty.
    */
   private void dirty() {
+    mapping = null;
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -527,9 +588,10 @@ public final class TableDiskAccess extends TableAccess {
       buffer.pos = pre;
       if(pre >= pages) {
         pages = pre + 1;
-      } else {
+      } else if(!cache.read(id, buffer.pos << IO.BLOCKPOWER, buffer.data)) {
         file.seek(buffer.pos << IO.BLOCKPOWER);
         file.readFully(buffer.data);
+        cache.add(id, buffer.pos << IO.BLOCKPOWER, buffer.data);
       }
     } catch(final IOException ex) {
       throw new RuntimeException(Util.info(ex));
@@ -546,6 +608,7 @@ public final class TableDiskAccess extends TableAccess {
 
     file.seek(buffer.pos << IO.BLOCKPOWER);
     file.write(buffer.data);
+    cache.update(id, buffer.pos << IO.BLOCKPOWER, buffer.data);
     buffer.dirty = false;
   }
 
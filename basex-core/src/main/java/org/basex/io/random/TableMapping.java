@@ -0,0 +1,176 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Read-only, memory-mapped snapshot of a database table.
+ * The file is mapped in chunks, which allows tables larger than 2 GB to be mapped.
+ * As positional access does not change the state of the mapped buffers, an instance
+ * can be accessed by concurrent readers without synchronization.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class TableMapping {
+  /** Number of blocks per chunk (must be 1 << n). */
+  private static final int CHUNKPOWER = 30 - IO.BLOCKPOWER;
+  /** Unsafe instance for releasing mapped buffers ({@code null} if not available). */
+  private static final Object UNSAFE;
+  /** Method for releasing mapped buffers ({@code null} if not available). */
+  private static final Method CLEANER;
+
+  static {
+    // mapped buffers are otherwise only released by the garbage collector
+    final Class<?> clazz = Reflect.find("sun.misc.Unsafe");
+    Object unsafe = null;
+    if(clazz != null) {
+      try {
+        final Field field = clazz.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        unsafe = field.get(null);
+      } catch(final Throwable ex) {
+        Util.debug(ex);
+      }
+    }
+    UNSAFE = unsafe;
+    CLEANER = unsafe != null ? Reflect.method(clazz, "invokeCleaner", ByteBuffer.class) : null;
+  }
+
+  /** Mapped chunks. */
+  private final MappedByteBuffer[] chunks;
+  /** First pre values of the pages ({@code null} if pages are stored in ascending order). */
+  private final int[] fPreIndex;
+  /** Page index ({@code null} if pages are stored in ascending order). */
+  private final int[] pageIndex;
+  /** Number of used pages. */
+  private final int used;
+  /** Table size. */
+  private final int size;
+
+  /**
+   * Constructor.
+   * @param channel file channel
+   * @param fPreIndex first pre values (can be {@code null})
+   * @param pageIndex page index (can be {@code null})
+   * @param used number of used pages
+   * @param size table size
+   * @throws IOException I/O exception
+   */
+  TableMapping(final FileChannel channel, final int[] fPreIndex, final int[] pageIndex,
+      final int used, final int size) throws IOException {
+
+    this.fPreIndex = fPreIndex != null ? Arrays.copyOf(fPreIndex, used) : null;
+    this.pageIndex = pageIndex != null ? Arrays.copyOf(pageIndex, used) : null;
+    this.used = used;
+    this.size = size;
+
+    final long length = channel.size();
+    final long chunk = 1L << CHUNKPOWER + IO.BLOCKPOWER;
+    final int cl = (int) ((length + chunk - 1) / chunk);
+    chunks = new MappedByteBuffer[cl];
+    for(int c = 0; c < cl; c++) {
+      final long pos = c * chunk;
+      chunks[c] = channel.map(MapMode.READ_ONLY, pos, Math.min(chunk, length - pos));
+    }
+  }
+
+  /**
+   * Releases the mapped chunks. Afterwards, the mapping must not be accessed anymore.
+   */
+  void close() {
+    if(CLEANER == null) return;
+    for(final MappedByteBuffer chunk : chunks) Reflect.invoke(CLEANER, UNSAFE, chunk);
+  }
+
+  /**
+   * Reads a byte value and returns it as an integer value.
+   * @param pre pre value
+   * @param offset offset
+   * @return integer value
+   */
+  int read1(final int pre, final int offset) {
+    final long pos = position(pre) + offset;
+    return chunk(pos).get(offset(pos)) & 0xFF;
+  }
+
+  /**
+   * Reads a short value and returns it as an integer value.
+   * @param pre pre value
+   * @param offset offset
+   * @return integer value
+   */
+  int read2(final int pre, final int offset) {
+    final long pos = position(pre) + offset;
+    return chunk(pos).getShort(offset(pos)) & 0xFFFF;
+  }
+
+  /**
+   * Reads an integer value.
+   * @param pre pre value
+   * @param offset offset
+   * @return integer value
+   */
+  int read4(final int pre, final int offset) {
+    final long pos = position(pre) + offset;
+    return chunk(pos).getInt(offset(pos));
+  }
+
+  /**
+   * Reads a 5-byte value and returns it as a long value.
+   * @param pre pre value
+   * @param offset offset
+   * @return integer value
+   */
+  long read5(final int pre, final int offset) {
+    final long pos = position(pre) + offset;
+    final ByteBuffer bb = chunk(pos);
+    final int o = offset(pos);
+    return ((long) (bb.get(o) & 0xFF) << 32) + (bb.getInt(o + 1) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the file position of the entry with the specified pre value.
+   * Entries never cross page boundaries, and chunks are aligned with pages.
+   * @param pre pre value
+   * @return file position
+   */
+  private long position(final int pre) {
+    if(pre < 0 || pre >= size) throw Util.notExpected("Data Access out of bounds: %", pre);
+    if(fPreIndex == null) return (long) pre << IO.NODEPOWER;
+
+    // binary search on first pre values
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = l + h + 1 >>> 1;
+      if(fPreIndex[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return ((long) pageIndex[l] << IO.BLOCKPOWER) + (pre - fPreIndex[l] << IO.NODEPOWER);
+  }
+
+  /**
+   * Returns the chunk for the specified file position.
+   * @param pos file position
+   * @return chunk
+   */
+  private ByteBuffer chunk(final long pos) {
+    return chunks[(int) (pos >>> CHUNKPOWER + IO.BLOCKPOWER)];
+  }
+
+  /**
+   * Returns the offset of the specified file position in its chunk.
+   * @param pos file position
+   * @return offset
+   */
+  private static int offset(final long pos) {
+    return (int) (pos & (1L << CHUNKPOWER + IO.BLOCKPOWER) - 1);
+  }
+}
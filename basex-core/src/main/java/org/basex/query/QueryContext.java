@@ -397,6 +397,8 @@ public final class QueryContext extends Job implements Closeable {
     // choose read or write locks
     final Locks l = jc().locks;
     final LockList list = updating ? l.writes : l.reads;
+    // databases will only be modified when updates are committed
+    if(updating) l.deferred = true;
 
     // locks in main module (can be null if parsing failed)
     boolean local = main == null || main.databases(new LockVisitor(list, contextValue == null));
@@ -507,12 +509,12 @@ public final class QueryContext extends Job implements Closeable {
     if(parent == null) {
       // topmost query: close resources (opened by compile step)
       resources.close();
-      threads.close();
     } else {
       // otherwise, adopt update reference (may have been initialized by sub query)
       parent.updates = updates;
-      parent.popJob();
+      parent.popJob(this);
     }
+    threads.close();
     options.close();
 
     final Performance perf = jc().performance;
@@ -663,7 +665,8 @@ public final class QueryContext extends Job implements Closeable {
       materialize.accept(value);
       materialize.accept(updates.output(true));
 
-      // invalidate current node set in context, apply updates
+      // wait for readers of the updated databases, invalidate current node set, apply updates
+      context.locking.commit();
       if(context.data() != null) context.invalidate();
       updates.apply(this);
 
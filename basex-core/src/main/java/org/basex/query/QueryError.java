@@ -73,6 +73,8 @@ public enum QueryError {
   /** Error code. */
   ADMIN_DELETE_X(ADMIN, "delete", "Log file cannot be deleted: %."),
   /** Error code. */
+  ADMIN_TIME_X(ADMIN, "time", "Invalid time: '%'."),
+  /** Error code. */
   ADMIN_TODAY(ADMIN, "today", "Today's log file cannot be deleted."),
   /** Error code. */
   ADMIN_TYPE_X(ADMIN, "type", "Type string contains whitespace: '%'."),
@@ -192,6 +192,7 @@ public interface QueryText {
 
   /** Parser token. */ String LOCK = "lock";
   /** Parser token. */ String NONDETERMNISTIC = "nondeterministic";
+  /** Parser token. */ String PARALLEL = "parallel";
 
   /** Parsed by the syntax highlighter (don’t remove): remaining constants will be ignored. */
   String IGNORE = null;
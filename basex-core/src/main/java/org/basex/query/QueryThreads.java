@@ -4,6 +4,7 @@ import java.util.*;
 
 import org.basex.query.expr.*;
 import org.basex.query.expr.ft.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.expr.path.*;
 import org.basex.util.*;
 
@@ -20,6 +21,9 @@ public final class QueryThreads {
   /** Comparison caches. */
   private final IdentityHashMap<CmpHashG, ThreadLocal<CmpCache>> cmpCache =
       new IdentityHashMap<>();
+  /** Join caches. */
+  private final IdentityHashMap<HashJoin, ThreadLocal<JoinCache>> joinCache =
+      new IdentityHashMap<>();
   /** Full-text tokenizers. */
   private final IdentityHashMap<FTWords, ThreadLocal<FTTokenizer>> ftCache =
       new IdentityHashMap<>();
@@ -43,6 +47,16 @@ public final class QueryThreads {
     return cmpCache.computeIfAbsent(expr, p -> ThreadLocal.withInitial(() -> new CmpCache(info)));
   }
 
+  /**
+   * Returns local thread for the given expression.
+   * @param expr expression
+   * @param info input info (can be {@code null})
+   * @return cache
+   */
+  public ThreadLocal<JoinCache> get(final HashJoin expr, final InputInfo info) {
+    return joinCache.computeIfAbsent(expr, p -> ThreadLocal.withInitial(() -> new JoinCache(info)));
+  }
+
   /**
    * Returns local thread for the given expression.
    * @param expr expression
@@ -58,6 +72,7 @@ public final class QueryThreads {
   void close() {
     for(final ThreadLocal<PathCache> cache : pathCache.values()) cache.remove();
     for(final ThreadLocal<CmpCache> cache : cmpCache.values()) cache.remove();
+    for(final ThreadLocal<JoinCache> cache : joinCache.values()) cache.remove();
     for(final ThreadLocal<FTTokenizer> cache : ftCache.values()) cache.remove();
   }
 }
@@ -18,6 +18,8 @@ import org.basex.util.*;
 public final class BaseXPragma extends Pragma {
   /** Nondeterministic flag. */
   private final boolean ndt;
+  /** Parallel flag. */
+  final boolean parallel;
 
   /**
    * Constructor.
@@ -27,6 +29,15 @@ public final class BaseXPragma extends Pragma {
   public BaseXPragma(final QNm name, final byte[] value) {
     super(name, value);
     ndt = Token.eq(name.local(), Token.token(QueryText.NONDETERMNISTIC));
+    parallel = Token.eq(name.local(), Token.token(QueryText.PARALLEL));
+  }
+
+  /**
+   * Indicates if the results of a parallel evaluation will be returned in order.
+   * @return result of check
+   */
+  boolean ordered() {
+    return !Token.eq(value, Token.token(QueryText.UNORDERED));
   }
 
   @Override
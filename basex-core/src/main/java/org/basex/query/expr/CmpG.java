@@ -234,8 +234,7 @@ public class CmpG extends Cmp {
         if(!(this instanceof CmpSimpleG)) {
           expr = new CmpSimpleG(expr1, expr2, op, coll, sc, info, check);
         }
-      } else if(op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
-          type1.isStringOrUntyped() && type2.isStringOrUntyped()) && !st2.zeroOrOne()) {
+      } else if(hashable() && !st2.zeroOrOne()) {
         // hash-based comparisons
         hash = this instanceof CmpHashG ? (CmpHashG) this :
           new CmpHashG(expr1, expr2, op, sc, info);
@@ -405,6 +404,16 @@ public class CmpG extends Cmp {
       type1.instanceOf(AtomType.BINARY) && type2.instanceOf(AtomType.BINARY);
   }
 
+  /**
+   * Checks if the operands can be compared via hashed items.
+   * @return result of check
+   */
+  public final boolean hashable() {
+    final Type type1 = exprs[0].seqType().type, type2 = exprs[1].seqType().type;
+    return op == OpG.EQ && coll == null && (type1.isNumber() && type2.isNumber() ||
+        type1.isStringOrUntyped() && type2.isStringOrUntyped());
+  }
+
   @Override
   public final CmpG invert() {
     final Expr expr1 = exprs[0], expr2 = exprs[1];
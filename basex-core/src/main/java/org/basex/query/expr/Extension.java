@@ -1,6 +1,7 @@
 package org.basex.query.expr;
 
 import org.basex.query.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.util.*;
 import org.basex.query.util.index.*;
 import org.basex.query.value.*;
@@ -37,6 +38,11 @@ public final class Extension extends Single {
 
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
+    // parallel pragma: enable parallel evaluation of enclosed FLWOR expression
+    if(pragma instanceof BaseXPragma && expr instanceof GFLWOR) {
+      final BaseXPragma bp = (BaseXPragma) pragma;
+      if(bp.parallel) ((GFLWOR) expr).parallel(bp.ordered());
+    }
     final Object state = pragma.init(cc.qc, info);
     try {
       expr = expr.compile(cc);
@@ -1,15 +1,20 @@
 package org.basex.query.expr.gflwor;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 
+import org.basex.core.jobs.*;
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.Function;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
+import org.basex.query.util.index.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -30,6 +35,10 @@ public final class GFLWOR extends ParseExpr {
   private final LinkedList<Clause> clauses;
   /** Return expression. */
   private Expr rtrn;
+  /** Parallel evaluation of the first 'for' clause. */
+  private boolean parallel;
+  /** Indicates if results of a parallel evaluation are returned in order. */
+  private boolean ordered;
 
   /**
    * Constructor.
@@ -64,8 +73,19 @@ public final class GFLWOR extends ParseExpr {
     return eval;
   }
 
+  /**
+   * Enables the parallel evaluation of the tuples of the first 'for' clause.
+   * @param ord return results in order
+   */
+  public void parallel(final boolean ord) {
+    parallel = true;
+    ordered = ord;
+  }
+
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallelFor() != -1) return value(qc).iter();
+
     return new Iter() {
       private final Eval eval = newEval();
       private Iter iter = Empty.ITER;
@@ -87,12 +107,79 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    final int p = parallelFor();
+    if(p != -1) return parallel(p, qc);
+
     final Eval eval = newEval();
     final ValueBuilder vb = new ValueBuilder(qc);
     while(eval.next(qc)) vb.add(rtrn.value(qc));
     return vb.value(this);
   }
 
+  /**
+   * Evaluates the tuples of the specified 'for' clause in parallel.
+   * The tuples are generated sequentially, and the subsequent clauses and the return expression
+   * are evaluated by the workers of a shared pool.
+   * @param p position of the 'for' clause
+   * @param qc query context
+   * @return resulting value
+   * @throws QueryException query exception
+   */
+  private Value parallel(final int p, final QueryContext qc) throws QueryException {
+    Eval eval = new StartEval();
+    for(int c = 0; c <= p; c++) eval = clauses.get(c).eval(eval);
+    final ArrayList<Value[]> tuples = new ArrayList<>();
+    while(eval.next(qc)) tuples.add(qc.stack.values());
+
+    final int ts = tuples.size();
+    if(ts == 0) return Empty.VALUE;
+
+    final ForkJoinPool pool = qc.context.jobs.forkJoin();
+    final ParallelTask task = new ParallelTask(tuples, p + 1, qc,
+        Math.max(1, ts / (pool.getParallelism() * 4)));
+    final Value value;
+    try {
+      value = pool.invoke(task);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    if(task.results == null) return value;
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final Value result : task.results) vb.add(result);
+    return vb.value(this);
+  }
+
+  /**
+   * Returns the position of the 'for' clause whose tuples can be evaluated in parallel.
+   * Parallel evaluation is possible if it is followed by 'for', 'let', 'where' and 'window'
+   * clauses, and if the remaining expressions have no side effects.
+   * @return position or {@code -1}
+   */
+  private int parallelFor() {
+    final int p = parallel ? firstFor() : -1;
+    if(p == -1 || rtrn.has(Flag.UPD, Flag.NDT)) return -1;
+    final int cs = clauses.size();
+    for(int c = p + 1; c < cs; c++) {
+      final Clause clause = clauses.get(c);
+      if(!(clause instanceof ForLet || clause instanceof Where || clause instanceof Window) ||
+          clause.has(Flag.UPD, Flag.NDT)) return -1;
+    }
+    return p;
+  }
+
+  /**
+   * Returns the position of the first 'for' clause.
+   * @return position or {@code -1}
+   */
+  private int firstFor() {
+    final int cs = clauses.size();
+    for(int c = 0; c < cs; c++) {
+      if(clauses.get(c) instanceof For) return c;
+    }
+    return -1;
+  }
+
   @Override
   public Expr compile(final CompileContext cc) throws QueryException {
     final ListIterator<Clause> iter = clauses.listIterator();
@@ -116,8 +203,9 @@ public final class GFLWOR extends ParseExpr {
 
     // apply all optimizations in a row until nothing changes anymore
     while(flattenReturn(cc) | flattenFor(cc) | unnestFLWR(cc) | unnestLets(cc) | ifToWhere(cc) |
-        forToLet(cc) | slideLetsOut(cc) | inlineForLet(cc) | unusedClauses(cc) | unusedVars(cc) |
-        cleanDeadVars() | optimizeWhere(cc) | optimizePos(cc) | optimizeOrderBy(cc));
+        forToLet(cc) | slideLetsOut(cc) | hashJoins(cc) | inlineForLet(cc) | unusedClauses(cc) |
+        unusedVars(cc) | cleanDeadVars() | optimizeWhere(cc) | optimizePos(cc) |
+        optimizeOrderBy(cc));
 
     mergeWheres();
 
@@ -373,9 +461,11 @@ public final class GFLWOR extends ParseExpr {
   private boolean inlineForLet(final CompileContext cc) throws QueryException {
     boolean changed = false;
     int cs = clauses.size();
+    // preserve 'for' clause that will be evaluated in parallel
+    final int p = parallel ? firstFor() : -1;
     for(int c = cs - 1; c >= 0; c--) {
       final Clause clause = clauses.get(c);
-      if(!(clause instanceof ForLet)) continue;
+      if(!(clause instanceof ForLet) || c == p) continue;
 
       final ForLet fl = (ForLet) clause;
       final Expr inline = fl.inlineExpr(cc);
@@ -690,6 +780,172 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Rewrites equality predicates that join the items of an independent input with the
+   * items of preceding 'for' clauses to hash joins.
+   *   for $a in A for $b in B[K = $a]  ->  let $j := B for $a in A for $b in hash-join($j, K, $a)
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean hashJoins(final CompileContext cc) throws QueryException {
+    // find first 'for' clause that may yield multiple items
+    int loop = -1;
+    int cs = clauses.size();
+    for(int c = 0; c < cs && loop == -1; c++) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof For) {
+        if(!((For) clause).expr.seqType().zeroOrOne()) loop = c;
+      } else if(!(clause instanceof Let || clause instanceof Where)) {
+        return false;
+      }
+    }
+    if(loop == -1) return false;
+
+    // rewrite expressions of subsequent clauses and the return expression
+    boolean changed = false;
+    int c = loop + 1;
+    for(; c < cs; c++) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof Where) continue;
+      if(!(clause instanceof ForLet)) return changed;
+
+      final ForLet fl = (ForLet) clause;
+      if(fl.scoring) continue;
+      final Expr join = hashJoin(fl.expr, loop, c, cc);
+      if(join != null) {
+        fl.expr = join;
+        fl.optimize(cc);
+        changed = true;
+        // skip inserted let clause
+        if(clauses.size() != cs) {
+          loop++;
+          c++;
+          cs++;
+        }
+      }
+    }
+    final Expr join = hashJoin(rtrn, loop, c, cc);
+    if(join != null) {
+      rtrn = join;
+      changed = true;
+    }
+    return changed;
+  }
+
+  /**
+   * Checks if the join predicate of a path will be rewritten for index access.
+   * @param path path
+   * @param cmp join predicate
+   * @param cc compilation context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  private boolean indexAccessible(final AxisPath path, final CmpG cmp, final CompileContext cc)
+      throws QueryException {
+
+    // same preconditions as in the index rewriting of paths
+    final Expr rt = path.root != null ? path.root : cc.qc.focus.value;
+    if(rt == null ? cc.dynamic : !rt.seqType().type.instanceOf(NodeType.DOCUMENT_NODE)) {
+      return false;
+    }
+    for(final Expr step : path.steps) {
+      if(!(step instanceof Step) || !((Step) step).axis.down || ((Step) step).mayBePositional()) {
+        return false;
+      }
+    }
+    // databases may only be known when the query is optimized with the context value
+    if(!cc.dynamic) return true;
+
+    final Data data = path.data();
+    final IndexDb db = data != null ? new IndexStaticDb(data, info) :
+      new IndexDynDb(path.root != null ? path.root : new ContextValue(info), info);
+    final IndexInfo ii = new IndexInfo(db, cc, path.step(path.steps.length - 1));
+    return cmp.indexAccessible(ii) && (data == null || !ii.costs.tooExpensive(data));
+  }
+
+  /**
+   * Tries to rewrite an expression with a join predicate to a hash join.
+   * If required, a let clause for the input is inserted before the first loop.
+   * @param expr expression
+   * @param loop index of the first 'for' clause that may yield multiple items
+   * @param c index of the clause with the expression
+   * @param cc compilation context
+   * @return hash join or {@code null}
+   * @throws QueryException query exception
+   */
+  private Expr hashJoin(final Expr expr, final int loop, final int c, final CompileContext cc)
+      throws QueryException {
+
+    // find join predicate: E[K = P], E/step[K = P]
+    final ExprList parts = new ExprList();
+    final Expr[] preds;
+    if(expr instanceof Filter) {
+      final Filter filter = (Filter) expr;
+      parts.add(filter.root);
+      preds = filter.exprs;
+    } else if(expr instanceof AxisPath) {
+      final AxisPath path = (AxisPath) expr;
+      final int sl = path.steps.length;
+      if(path.root != null) parts.add(path.root);
+      parts.add(Arrays.copyOf(path.steps, sl - 1));
+      preds = path.step(sl - 1).exprs;
+    } else {
+      return null;
+    }
+    final int pl = preds.length;
+    if(pl == 0 || !(preds[pl - 1] instanceof CmpG) || !((CmpG) preds[pl - 1]).hashable()) {
+      return null;
+    }
+    final Expr[] rest = Arrays.copyOf(preds, pl - 1);
+    parts.add(rest);
+
+    // key must depend on the context, probe must depend on a preceding clause
+    final CmpG cmp = (CmpG) preds[pl - 1];
+    // skip predicates that will be rewritten for index access
+    if(expr instanceof AxisPath && indexAccessible((AxisPath) expr, cmp, cc)) return null;
+    final boolean swap = !cmp.arg(0).has(Flag.CTX);
+    final Expr key = cmp.arg(swap ? 1 : 0), probe = cmp.arg(swap ? 0 : 1);
+    final Predicate<Expr> dependent = ex -> {
+      for(int d = loop; d < c; d++) {
+        for(final Var var : clauses.get(d).vars()) {
+          if(ex.uses(var)) return true;
+        }
+      }
+      return false;
+    };
+    if(!key.has(Flag.CTX) || key.has(Flag.POS, Flag.NDT) || dependent.test(key) ||
+        probe.has(Flag.CTX, Flag.NDT) || !dependent.test(probe)) return null;
+    for(final Expr part : parts) {
+      if(part.has(Flag.NDT, Flag.CNS) || dependent.test(part)) return null;
+    }
+
+    // create input without join predicate
+    Expr input;
+    if(expr instanceof Filter) {
+      input = Filter.get(cc, info, ((Filter) expr).root, rest);
+    } else {
+      final AxisPath path = (AxisPath) expr;
+      final int sl = path.steps.length;
+      final Step step = path.step(sl - 1);
+      final ExprList steps = new ExprList(sl).add(path.steps);
+      steps.set(sl - 1, Step.get(cc, path.root, step.info(), step.axis, step.test, rest));
+      input = Path.get(cc, path.info(), path.root, steps.finish());
+    }
+    final long size = input.size();
+    if(size >= 0 && size <= 1) return null;
+
+    // bind input to a variable that is declared before the first loop
+    if(!(input instanceof Value || input instanceof VarRef)) {
+      final Var var = cc.vs().addNew(new QNm("join"), null, false, cc.qc, info);
+      clauses.add(loop, new Let(var, input).optimize(cc));
+      input = new VarRef(info, var).optimize(cc);
+    }
+    final Expr join = new HashJoin(cmp.info(), input, key, probe).optimize(cc);
+    cc.info(QueryText.OPTREWRITE_X_X, (Supplier<?>) expr::description, join);
+    return join;
+  }
+
   /**
    * Rewrites positional variables to predicates.
    * @param cc compilation context
@@ -1058,7 +1314,10 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(cc, vm));
-    return copyType(new GFLWOR(info, cls, rtrn.copy(cc, vm)));
+    final GFLWOR flwor = new GFLWOR(info, cls, rtrn.copy(cc, vm));
+    flwor.parallel = parallel;
+    flwor.ordered = ordered;
+    return copyType(flwor);
   }
 
   /**
@@ -1116,7 +1375,8 @@ public final class GFLWOR extends ParseExpr {
     if(this == obj) return true;
     if(!(obj instanceof GFLWOR)) return false;
     final GFLWOR g = (GFLWOR) obj;
-    return clauses.equals(g.clauses) && rtrn.equals(g.rtrn);
+    return clauses.equals(g.clauses) && rtrn.equals(g.rtrn) && parallel == g.parallel &&
+        ordered == g.ordered;
   }
 
   @Override
@@ -1146,4 +1406,102 @@ public final class GFLWOR extends ParseExpr {
       return true;
     }
   }
+
+  /** Task for evaluating tuples in parallel. */
+  private final class ParallelTask extends RecursiveTask<Value> {
+    /** Tuples (values of the stack frame). */
+    private final ArrayList<Value[]> tuples;
+    /** Position of the first clause to be evaluated. */
+    private final int first;
+    /** Query context. */
+    private final QueryContext qc;
+    /** Query focus. */
+    private final QueryFocus focus;
+    /** Maximum number of tuples to be evaluated by a single task. */
+    private final int chunk;
+    /** Unordered results (set to {@code null} if the order is preserved). */
+    private final Queue<Value> results;
+    /** First tuple to evaluate (inclusive). */
+    private final int start;
+    /** Last tuple to evaluate (exclusive). */
+    private final int end;
+
+    /**
+     * Constructor.
+     * @param tuples tuples
+     * @param first position of the first clause to be evaluated
+     * @param qc query context
+     * @param chunk maximum number of tuples to be evaluated by a single task
+     */
+    ParallelTask(final ArrayList<Value[]> tuples, final int first, final QueryContext qc,
+        final int chunk) {
+      this.tuples = tuples;
+      this.first = first;
+      this.qc = qc;
+      this.chunk = chunk;
+      focus = qc.focus.copy();
+      results = ordered ? null : new ConcurrentLinkedQueue<>();
+      start = 0;
+      end = tuples.size();
+    }
+
+    /**
+     * Constructor for subtasks.
+     * @param task parent task
+     * @param start first tuple to evaluate
+     * @param end last tuple to evaluate
+     */
+    private ParallelTask(final ParallelTask task, final int start, final int end) {
+      tuples = task.tuples;
+      first = task.first;
+      qc = task.qc;
+      chunk = task.chunk;
+      focus = task.focus;
+      results = task.results;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Value compute() {
+      final int size = end - start;
+      if(size > chunk) {
+        // split the work and join the results in the correct order
+        final int middle = start + size / 2;
+        final ParallelTask task2 = new ParallelTask(this, middle, end);
+        task2.fork();
+        final Value value1 = new ParallelTask(this, start, middle).invoke(), value2 = task2.join();
+        return results != null ? Empty.VALUE : ValueBuilder.concat(value1, value2, qc);
+      }
+
+      // perform the work, using a separate query context
+      final JobContext jc = qc.jc();
+      jc.tasks.incrementAndGet();
+      try(QueryContext qctx = new QueryContext(qc)) {
+        qctx.focus = focus.copy();
+        final ValueBuilder vb = new ValueBuilder(qctx);
+        final int cs = clauses.size();
+        for(int t = start; t < end; t++) {
+          final int fp = qctx.stack.enterFrame(tuples.get(t));
+          try {
+            Eval eval = new StartEval();
+            for(int c = first; c < cs; c++) eval = clauses.get(c).eval(eval);
+            while(eval.next(qctx)) vb.add(rtrn.value(qctx));
+          } finally {
+            qctx.stack.exitFrame(fp);
+          }
+          // be nice to the garbage collector
+          tuples.set(t, null);
+        }
+        final Value value = vb.value(GFLWOR.this);
+        if(results == null) return value;
+        results.add(value);
+        return Empty.VALUE;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      } finally {
+        jc.tasks.decrementAndGet();
+      }
+    }
+  }
 }
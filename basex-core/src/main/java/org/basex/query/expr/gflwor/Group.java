@@ -12,6 +12,8 @@ import org.basex.query.value.item.*;
 final class Group {
   /** Grouping key, may contain {@code null} values. */
   final Item[] key;
+  /** Hash value of the grouping key. */
+  final int hash;
   /** Non-grouping variables. */
   final ValueBuilder[] ngv;
   /** Overflow list. */
@@ -20,10 +22,12 @@ final class Group {
   /**
    * Constructor.
    * @param k grouping key
+   * @param h hash value of the grouping key
    * @param ng non-grouping variables
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final int h, final ValueBuilder[] ng) {
     key = k;
+    hash = h;
     ngv = ng;
   }
 }
@@ -1,9 +1,15 @@
 package org.basex.query.expr.gflwor;
 
+import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 
+import java.io.*;
 import java.util.*;
 
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
@@ -22,6 +28,8 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class GroupBy extends Clause {
+  /** Number of partitions for tuples that are written to disk (must be a power of two). */
+  private static final int PARTITIONS = 64;
   /** Grouping specs. */
   private final GroupSpec[] specs;
   /** Non-grouping variable expressions. */
@@ -90,11 +98,21 @@ public final class GroupBy extends Clause {
       private Group[] groups;
       /** Current position. */
       private int pos;
+      /** Partitions with tuples that have been written to disk (can be {@code null}). */
+      private Partition[] partitions;
+      /** Current partition. */
+      private int part;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
         if(groups == null) groups = init(qc);
-        if(pos == groups.length) return false;
+        while(pos == groups.length) {
+          // group tuples of next partition
+          if(partitions == null || part == partitions.length) return false;
+          groups = partitions[part].groups(qc);
+          partitions[part++] = null;
+          pos = 0;
+        }
 
         final Group curr = groups[pos];
         // be nice to the garbage collector
@@ -113,94 +131,260 @@ public final class GroupBy extends Clause {
       }
 
       /**
-       * Builds up the groups.
+       * Builds up the groups. If the number of tuples exceeds the main memory limit,
+       * the tuples are distributed to partitions, which will be grouped one by one.
        * @param qc query context
+       * @return groups
        * @throws QueryException query exception
        */
       private Group[] init(final QueryContext qc) throws QueryException {
-        final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjMap<Group> map = new IntObjMap<>();
-        final DeepEqual[] deeps = new DeepEqual[nonOcc];
-        int c = 0;
-        for(final GroupSpec spec : specs) {
-          if(!spec.occluded) deeps[c++] = new DeepEqual(info, spec.coll, qc);
-        }
+        final long limit = qc.context.options.get(MainOptions.SPILLLIMIT);
+        boolean spill = limit > 0;
+        long count = 0;
+        Groups grps = new Groups(qc);
+        Partition[] parts = null;
 
         while(sub.next(qc)) {
           final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
+          int p = 0;
           for(final GroupSpec spec : specs) {
             final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom.isEmpty() || spec.coll != null ? 0 : atom.hash(info));
-            }
+            if(!spec.occluded) key[p++] = atom;
             qc.set(spec.var, atom);
           }
+          final int pl = preExpr.length;
+          final Value[] values = new Value[pl];
+          for(int g = 0; g < pl; g++) values[g] = preExpr[g].value(qc);
 
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, deeps)) {
-              grp = g;
-              break;
-            }
+          final int hash = hash(key);
+          if(parts != null) {
+            parts[hash & PARTITIONS - 1].add(key, values, qc);
+            continue;
           }
-
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
+          grps.add(key, hash, values);
+
+          // write tuples to disk (only possible if all tuples contain atomic items or db nodes)
+          if(spill) {
+            spill = TupleFiles.spillable(key, values);
+            if(spill && ++count >= limit) {
+              parts = new Partition[PARTITIONS];
+              for(int i = 0; i < PARTITIONS; i++) parts[i] = new Partition();
+              // the values of the existing groups are added as single tuples
+              for(final Group grp : grps.finish()) {
+                final Value[] vals = new Value[pl];
+                for(int g = 0; g < pl; g++) vals[g] = grp.ngv[g].value(preExpr[g]);
+                parts[grp.hash & PARTITIONS - 1].add(grp.key, vals, qc);
+              }
+              grps = null;
             }
           }
+        }
+        if(parts == null) return grps.finish();
+        partitions = parts;
+        return new Group[0];
+      }
+    };
+  }
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) {
-            grp.ngv[g].add(preExpr[g].value(qc));
-          }
+  /**
+   * Computes the hash value of a grouping key.
+   * @param key grouping key
+   * @return hash value
+   * @throws QueryException query exception
+   */
+  private int hash(final Item[] key) throws QueryException {
+    int p = 0, hash = 1;
+    for(final GroupSpec spec : specs) {
+      if(!spec.occluded) {
+        final Item atom = key[p++];
+        // If the values are compared using a special collation, we let them collide
+        // here and let the comparison do all the work later.
+        // This enables other non-collation specs to avoid the collision.
+        hash = 31 * hash + (atom.isEmpty() || spec.coll != null ? 0 : atom.hash(info));
+      }
+    }
+    return hash;
+  }
+
+  /** Groups, built from tuples. */
+  private final class Groups {
+    /** Query context. */
+    private final QueryContext qc;
+    /** Groups, in the order in which they were created. */
+    private final ArrayList<Group> list = new ArrayList<>();
+    /** Groups, indexed by the hash values of their keys. */
+    private final IntObjMap<Group> map = new IntObjMap<>();
+    /** Deep equality comparisons. */
+    private final DeepEqual[] deeps = new DeepEqual[nonOcc];
+
+    /**
+     * Constructor.
+     * @param qc query context
+     */
+    Groups(final QueryContext qc) {
+      this.qc = qc;
+      int c = 0;
+      for(final GroupSpec spec : specs) {
+        if(!spec.occluded) deeps[c++] = new DeepEqual(info, spec.coll, qc);
+      }
+    }
+
+    /**
+     * Adds a tuple to its group.
+     * @param key grouping key
+     * @param hash hash value of the key
+     * @param values values of the non-grouping variables
+     * @throws QueryException query exception
+     */
+    void add(final Item[] key, final int hash, final Value[] values) throws QueryException {
+      // find the group for this key
+      final Group fst;
+      Group grp = null;
+      // no collations, so we can use hashing
+      for(Group g = fst = map.get(hash); g != null; g = g.next) {
+        if(eq(key, g.key)) {
+          grp = g;
+          break;
         }
+      }
 
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(Group[]::new);
+      final int pl = values.length;
+      if(grp == null) {
+        // new group, add it to the list
+        final ValueBuilder[] ngs = new ValueBuilder[pl];
+        for(int n = 0; n < pl; n++) ngs[n] = new ValueBuilder(qc);
+        grp = new Group(key, hash, ngs);
+        list.add(grp);
+
+        // insert the group into the hash table
+        if(fst == null) {
+          map.put(hash, grp);
+        } else {
+          final Group nxt = fst.next;
+          fst.next = grp;
+          grp.next = nxt;
+        }
       }
 
-      /**
-       * Checks two keys for equality.
-       * @param items1 first keys
-       * @param items2 second keys
-       * @param deeps deep equality comparisons
-       * @return {@code true} if the compare as equal, {@code false} otherwise
-       * @throws QueryException query exception
-       */
-      private boolean eq(final Item[] items1, final Item[] items2, final DeepEqual[] deeps)
-          throws QueryException {
-
-        final int il = items1.length;
-        for(int i = 0; i < il; i++) {
-          final Item item1 = items1[i], item2 = items2[i];
-          final boolean empty1 = item1.isEmpty(), empty2 = item2.isEmpty();
-          if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
+      // add values of non-grouping variables to the group
+      for(int g = 0; g < pl; g++) grp.ngv[g].add(values[g]);
+    }
+
+    /**
+     * Returns the groups.
+     * @return groups
+     */
+    Group[] finish() {
+      // we're finished, copy the array so the list can be garbage-collected
+      return list.toArray(Group[]::new);
+    }
+
+    /**
+     * Checks two keys for equality.
+     * @param items1 first keys
+     * @param items2 second keys
+     * @return {@code true} if the compare as equal, {@code false} otherwise
+     * @throws QueryException query exception
+     */
+    private boolean eq(final Item[] items1, final Item[] items2) throws QueryException {
+      final int il = items1.length;
+      for(int i = 0; i < il; i++) {
+        final Item item1 = items1[i], item2 = items2[i];
+        final boolean empty1 = item1.isEmpty(), empty2 = item2.isEmpty();
+        if(empty1 ^ empty2 || !empty1 && !deeps[i].equal(item1, item2)) return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Partition of tuples with identical hash values. Tuples are written to a temporary file.
+   * If a tuple cannot be written to disk, it is cached in main memory, along with all
+   * subsequent tuples of the partition.
+   */
+  private final class Partition implements Closeable {
+    /** Temporary file (can be {@code null}). */
+    private IOFile file;
+    /** Data output (can be {@code null}). */
+    private DataOutput out;
+    /** Number of tuples in the temporary file. */
+    private int size;
+    /** Cached keys (can be {@code null}). */
+    private ArrayList<Item[]> keys;
+    /** Cached values (can be {@code null}). */
+    private ArrayList<Value[]> values;
+
+    /**
+     * Adds a tuple.
+     * @param key grouping key
+     * @param vals values of the non-grouping variables
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    void add(final Item[] key, final Value[] vals, final QueryContext qc) throws QueryException {
+      if(keys == null && TupleFiles.spillable(key, vals)) {
+        final TupleFiles files = qc.resources.index(TupleFiles.class);
+        try {
+          if(file == null) {
+            file = files.create(this, info);
+            out = new DataOutput(file);
+          }
+          files.write(out, key, vals);
+          size++;
+        } catch(final IOException ex) {
+          throw IOERR_X.get(info, ex);
         }
-        return true;
+      } else {
+        if(keys == null) {
+          keys = new ArrayList<>();
+          values = new ArrayList<>();
+        }
+        keys.add(key);
+        values.add(vals);
       }
-    };
+    }
+
+    /**
+     * Groups the tuples of this partition.
+     * @param qc query context
+     * @return groups
+     * @throws QueryException query exception
+     */
+    Group[] groups(final QueryContext qc) throws QueryException {
+      final Groups grps = new Groups(qc);
+      if(file != null) {
+        final TupleFiles files = qc.resources.index(TupleFiles.class);
+        try {
+          close();
+          try(DataInput in = new DataInput(file)) {
+            for(int s = 0; s < size; s++) {
+              final Item[] key = files.readKeys(in, nonOcc, qc);
+              grps.add(key, hash(key), files.readValues(in, preExpr.length, qc));
+            }
+          }
+        } catch(final IOException ex) {
+          throw IOERR_X.get(info, ex);
+        } finally {
+          files.delete(file);
+        }
+      }
+      if(keys != null) {
+        final int ks = keys.size();
+        for(int k = 0; k < ks; k++) {
+          final Item[] key = keys.get(k);
+          grps.add(key, hash(key), values.get(k));
+        }
+      }
+      return grps.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if(out != null) {
+        out.close();
+        out = null;
+      }
+    }
   }
 
   @Override
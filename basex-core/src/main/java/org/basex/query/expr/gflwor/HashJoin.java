@@ -0,0 +1,221 @@
+package org.basex.query.expr.gflwor;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Hash join. Returns all items of the input for which the key equals one of the probed items.
+ * When the expression is evaluated the first time, the keys of all input items are hashed.
+ * The hashed keys are reused as long as the input does not change.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class HashJoin extends ParseExpr {
+  /** Input. */
+  Expr input;
+  /** Key expression (evaluated with the input items as context). */
+  Expr key;
+  /** Probe expression. */
+  Expr probe;
+
+  /**
+   * Constructor.
+   * @param info input info (can be {@code null})
+   * @param input input
+   * @param key key expression
+   * @param probe probe expression
+   */
+  HashJoin(final InputInfo info, final Expr input, final Expr key, final Expr probe) {
+    super(info, SeqType.ITEM_ZM);
+    this.input = input;
+    this.key = key;
+    this.probe = probe;
+  }
+
+  @Override
+  public void checkUp() throws QueryException {
+    checkNoneUp(input, key, probe);
+  }
+
+  @Override
+  public Expr compile(final CompileContext cc) throws QueryException {
+    input = input.compile(cc);
+    key = cc.get(input, () -> key.compile(cc));
+    probe = probe.compile(cc);
+    return optimize(cc);
+  }
+
+  @Override
+  public Expr optimize(final CompileContext cc) throws QueryException {
+    final SeqType st = input.seqType();
+    if(st.zero()) return cc.replaceWith(this, input);
+    exprType.assign(st.union(Occ.ZERO)).data(input);
+    return this;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    return value(qc).iter();
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = input.value(qc);
+    final JoinCache cache = qc.threads.get(this, info).get();
+    if(cache.value != value) build(value, cache, qc);
+
+    // collect positions of the matching input items
+    final HashItemSet keys = cache.keys;
+    final IntList list = new IntList();
+    int hits = 0;
+    final Iter iter = probe.atomIter(qc, info);
+    for(Item item; (item = qc.next(iter)) != null;) {
+      final int id = keys.id(item);
+      if(id != 0) {
+        list.add(cache.positions.get(id).toArray());
+        hits++;
+      }
+    }
+    if(hits > 1) list.ddo();
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(final int pos : list.finish()) vb.add(value.itemAt(pos));
+    return vb.value(this);
+  }
+
+  /**
+   * Hashes the keys of all input items.
+   * @param value input value
+   * @param cache cache
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void build(final Value value, final JoinCache cache, final QueryContext qc)
+      throws QueryException {
+
+    cache.init(value);
+    final HashItemSet keys = cache.keys;
+    final ArrayList<IntList> positions = cache.positions;
+    final QueryFocus qf = qc.focus;
+    final Value qv = qf.value;
+    try {
+      final long size = value.size();
+      for(int pos = 0; pos < size; pos++) {
+        qf.value = value.itemAt(pos);
+        final Iter iter = key.atomIter(qc, info);
+        for(Item item; (item = qc.next(iter)) != null;) {
+          if(keys.add(item)) positions.add(new IntList());
+          final IntList list = positions.get(keys.id(item));
+          // skip duplicate positions (caused by identical keys of a single item)
+          if(list.isEmpty() || list.peek() != pos) list.add(pos);
+        }
+      }
+    } finally {
+      qf.value = qv;
+    }
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    if(Flag.FCS.in(flags) || input.has(flags) || probe.has(flags)) return true;
+    final Flag[] flgs = Flag.FCS.remove(Flag.POS.remove(Flag.CTX.remove(flags)));
+    return flgs.length != 0 && key.has(flgs);
+  }
+
+  @Override
+  public boolean inlineable(final InlineContext ic) {
+    return input.inlineable(ic) && probe.inlineable(ic) &&
+        !(ic.expr instanceof ContextValue && ic.var != null && key.uses(ic.var));
+  }
+
+  @Override
+  public VarUsage count(final Var var) {
+    final VarUsage inKey = var != null ? key.count(var) : VarUsage.NEVER;
+    return input.count(var).plus(probe.count(var)).plus(
+        inKey == VarUsage.NEVER ? inKey : VarUsage.MORE_THAN_ONCE);
+  }
+
+  @Override
+  public Expr inline(final InlineContext ic) throws QueryException {
+    boolean changed = false;
+    Expr inlined = input.inline(ic);
+    if(inlined != null) {
+      input = inlined;
+      changed = true;
+    }
+    inlined = probe.inline(ic);
+    if(inlined != null) {
+      probe = inlined;
+      changed = true;
+    }
+    // do not inline context reference in key
+    if(ic.var != null) {
+      inlined = ic.cc.get(input, () -> key.inline(ic));
+      if(inlined != null) {
+        key = inlined;
+        changed = true;
+      }
+    }
+    return changed ? optimize(ic.cc) : null;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new HashJoin(info, input.copy(cc, vm), key.copy(cc, vm), probe.copy(cc, vm)));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    visitor.enterFocus();
+    if(!key.accept(visitor)) return false;
+    visitor.exitFocus();
+    return input.accept(visitor) && probe.accept(visitor);
+  }
+
+  @Override
+  public boolean ddo() {
+    return input.ddo();
+  }
+
+  @Override
+  public int exprSize() {
+    return 1 + input.exprSize() + key.exprSize() + probe.exprSize();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof HashJoin)) return false;
+    final HashJoin hj = (HashJoin) obj;
+    return input.equals(hj.input) && key.equals(hj.key) && probe.equals(hj.probe);
+  }
+
+  @Override
+  public int hashCode() {
+    // operands do not override hashCode: only hash their types to stay consistent with equals
+    return Objects.hash(input.getClass(), key.getClass(), probe.getClass());
+  }
+
+  @Override
+  public void toXml(final QueryPlan plan) {
+    plan.add(plan.create(this), input, key, probe);
+  }
+
+  @Override
+  public void toString(final QueryString qs) {
+    qs.token(input).bracket(new QueryString().token(key).token("=").token(probe));
+  }
+}
@@ -0,0 +1,44 @@
+package org.basex.query.expr.gflwor;
+
+import java.util.*;
+
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Hashed join keys.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class JoinCache {
+  /** Input info (can be {@code null}). */
+  private final InputInfo info;
+  /** Hashed keys. */
+  HashItemSet keys;
+  /** Positions of the input items, indexed by key ids. */
+  final ArrayList<IntList> positions = new ArrayList<>();
+  /** Cached value (input of the join). */
+  Value value;
+
+  /**
+   * Constructor.
+   * @param info input info (can be {@code null})
+   */
+  public JoinCache(final InputInfo info) {
+    this.info = info;
+  }
+
+  /**
+   * Initializes the cache for a new value.
+   * @param val value
+   */
+  void init(final Value val) {
+    keys = new HashItemSet(true, info);
+    positions.clear();
+    positions.add(null);
+    value = val;
+  }
+}
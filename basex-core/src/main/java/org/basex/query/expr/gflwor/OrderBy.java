@@ -4,9 +4,13 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.QueryText.*;
 import static org.basex.query.func.Function.*;
 
+import java.io.*;
 import java.util.*;
-import java.util.List;
 
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
@@ -45,84 +49,164 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
-      private Value[][] tpls;
-      private Integer[] perm;
-      int pos;
+      /** Sorted runs, ordered by their current tuples. */
+      private PriorityQueue<Run> runs;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
+        if(runs == null) runs = sort(qc);
+        final Run run = runs.poll();
+        if(run == null) return false;
+
+        final Value[] tuple = run.values;
         final int rl = refs.length;
         for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
+        try {
+          if(run.next(qc)) runs.add(run);
+        } catch(final QueryRTException ex) {
+          throw ex.getCause();
+        }
         return true;
       }
 
       /**
-       * Caches and sorts all incoming tuples.
+       * Caches and sorts all incoming tuples. If the number of tuples exceeds the main memory
+       * limit, sorted runs are written to disk and merged.
        * @param qc query context
+       * @return sorted runs
        * @throws QueryException evaluation exception
        */
-      private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
+      private PriorityQueue<Run> sort(final QueryContext qc) throws QueryException {
+        final long limit = qc.context.options.get(MainOptions.SPILLLIMIT);
+        boolean spill = limit > 0;
+        final ArrayList<Run> list = new ArrayList<>();
+        final ArrayList<Item[]> ks = new ArrayList<>();
+        final ArrayList<Value[]> tpls = new ArrayList<>();
         while(sub.next(qc)) {
           final int kl = keys.length;
           final Item[] key = new Item[kl];
           for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info());
-          tuples.add(key);
+          ks.add(key);
 
           final int rl = refs.length;
           final Value[] vals = new Value[rl];
           for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
-        }
+          tpls.add(vals);
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
+          // write tuples to disk (only possible if all tuples contain atomic items or db nodes)
+          if(spill) {
+            spill = TupleFiles.spillable(key, vals);
+            if(spill && ks.size() >= limit) {
+              list.add(write(ks, tpls, list.size(), qc));
+              ks.clear();
+              tpls.clear();
+            }
+          }
         }
+        final int size = ks.size();
+        final MemRun mem = new MemRun(list.size(), ks.toArray(new Item[size][]),
+            tpls.toArray(new Value[size][]));
         // be nice to the garbage collector
-        tuples = null;
+        ks.clear();
+        tpls.clear();
+        mem.perm = perm(mem.ks);
+        list.add(mem);
+
+        // merge runs: compare current tuples, and prefer tuples of earlier runs
+        final PriorityQueue<Run> queue = new PriorityQueue<>(list.size(), (run1, run2) -> {
+          try {
+            final int c = compare(run1.keys, run2.keys);
+            return c != 0 ? c : run1.id - run2.id;
+          } catch(final QueryException ex) {
+            throw new QueryRTException(ex);
+          }
+        });
         try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
-                if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
-                if(!m.isEmpty() && !n.isEmpty() && !m.comparable(n))
-                  throw typeError(n, m.type, key.info());
-
-                final int c = m.isEmpty()
-                    ? n.isEmpty() ? 0             : key.least ? -1 : 1
-                    : n.isEmpty() ? key.least ? 1 : -1 : m.compare(n, key.coll, true, key.info());
-                if(c != 0) return key.desc ? -c : c;
-              }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
-            }
-          });
+          for(final Run run : list) {
+            if(run.next(qc)) queue.add(run);
+          }
         } catch(final QueryRTException ex) {
           throw ex.getCause();
         }
+        return queue;
       }
     };
   }
 
+  /**
+   * Sorts tuples and writes them to a temporary file.
+   * @param ks keys
+   * @param tpls values
+   * @param id id of the run
+   * @param qc query context
+   * @return run
+   * @throws QueryException query exception
+   */
+  private Run write(final ArrayList<Item[]> ks, final ArrayList<Value[]> tpls, final int id,
+      final QueryContext qc) throws QueryException {
+
+    final int size = ks.size();
+    final Integer[] perm = perm(ks.toArray(new Item[size][]));
+    final FileRun run = new FileRun(id, qc.resources.index(TupleFiles.class), size);
+    final TupleFiles files = run.files;
+    try(DataOutput out = new DataOutput(run.file)) {
+      for(final int p : perm) files.write(out, ks.get(p), tpls.get(p));
+    } catch(final IOException ex) {
+      files.delete(run.file);
+      throw IOERR_X.get(info, ex);
+    }
+    return run;
+  }
+
+  /**
+   * Returns a sorted permutation of the specified keys.
+   * @param ks keys
+   * @return permutation
+   * @throws QueryException query exception
+   */
+  private Integer[] perm(final Item[][] ks) throws QueryException {
+    final int kl = ks.length;
+    final Integer[] perm = new Integer[kl];
+    for(int k = 0; k < kl; k++) perm[k] = k;
+    try {
+      Arrays.sort(perm, (x, y) -> {
+        try {
+          return compare(ks[x], ks[y]);
+        } catch(final QueryException ex) {
+          throw new QueryRTException(ex);
+        }
+      });
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return perm;
+  }
+
+  /**
+   * Compares two sort keys.
+   * @param a first keys
+   * @param b second keys
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Item[] a, final Item[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = a[k], n = b[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
+      if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
+      if(!m.isEmpty() && !n.isEmpty() && !m.comparable(n))
+        throw typeError(n, m.type, key.info());
+
+      final int c = m.isEmpty()
+          ? n.isEmpty() ? 0             : key.least ? -1 : 1
+          : n.isEmpty() ? key.least ? 1 : -1 : m.compare(n, key.coll, true, key.info());
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
   /**
    * Merges the order by clause with the supplied for clause.
    * @param fr for clause
@@ -253,4 +337,118 @@ public final class OrderBy extends Clause {
   public void toString(final QueryString qs) {
     qs.token(ORDER).token(BY).tokens(keys, SEP);
   }
+
+  /** Sorted run of tuples. */
+  private abstract static class Run {
+    /** Id (runs with smaller ids contain earlier tuples). */
+    final int id;
+    /** Keys of the current tuple. */
+    Item[] keys;
+    /** Values of the current tuple. */
+    Value[] values;
+
+    /**
+     * Constructor.
+     * @param id id
+     */
+    Run(final int id) {
+      this.id = id;
+    }
+
+    /**
+     * Assigns the next tuple.
+     * @param qc query context
+     * @return {@code false} if the run is exhausted
+     * @throws QueryException query exception
+     */
+    abstract boolean next(QueryContext qc) throws QueryException;
+  }
+
+  /** Sorted run in main memory. */
+  private static final class MemRun extends Run {
+    /** Keys. */
+    final Item[][] ks;
+    /** Values. */
+    final Value[][] tpls;
+    /** Sorted permutation. */
+    Integer[] perm;
+    /** Current position. */
+    int pos;
+
+    /**
+     * Constructor.
+     * @param id id
+     * @param ks keys
+     * @param tpls values
+     */
+    MemRun(final int id, final Item[][] ks, final Value[][] tpls) {
+      super(id);
+      this.ks = ks;
+      this.tpls = tpls;
+    }
+
+    @Override
+    boolean next(final QueryContext qc) {
+      if(pos == perm.length) return false;
+      final int p = perm[pos++];
+      keys = ks[p];
+      values = tpls[p];
+      // free the space occupied by the tuple
+      ks[p] = null;
+      tpls[p] = null;
+      return true;
+    }
+  }
+
+  /** Sorted run in a temporary file. */
+  private final class FileRun extends Run implements Closeable {
+    /** Temporary files. */
+    private final TupleFiles files;
+    /** File. */
+    private final IOFile file;
+    /** Number of remaining tuples. */
+    private int size;
+    /** Data input (assigned when the first tuple is requested). */
+    private DataInput in;
+
+    /**
+     * Constructor. Creates a temporary file.
+     * @param id id
+     * @param files temporary files
+     * @param size number of tuples
+     * @throws QueryException query exception
+     */
+    FileRun(final int id, final TupleFiles files, final int size) throws QueryException {
+      super(id);
+      this.files = files;
+      this.size = size;
+      file = files.create(this, info);
+    }
+
+    @Override
+    boolean next(final QueryContext qc) throws QueryException {
+      try {
+        if(in == null) in = new DataInput(file);
+        if(size == 0) {
+          close();
+          files.delete(file);
+          return false;
+        }
+        size--;
+        keys = files.readKeys(in, OrderBy.this.keys.length, qc);
+        values = files.readValues(in, refs.length, qc);
+        return true;
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if(in != null) {
+        in.close();
+        in = null;
+      }
+    }
+  }
 }
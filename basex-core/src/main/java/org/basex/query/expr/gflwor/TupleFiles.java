@@ -0,0 +1,230 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files for tuples of FLWOR clauses that exceed the main memory limit
+ * (see {@link MainOptions#SPILLLIMIT}). Tuples can be written to disk if they only contain
+ * atomic items and database nodes. Database nodes are stored as references.
+ * All remaining streams will be closed and files will be deleted when the query is closed.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class TupleFiles implements QueryResource {
+  /** Temporary files, and the owners of their streams. */
+  private final HashMap<IOFile, Closeable> files = new HashMap<>();
+  /** Referenced databases. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Ids of referenced databases. */
+  private final IdentityHashMap<Data, Integer> ids = new IdentityHashMap<>();
+
+  /**
+   * Checks if the specified tuple can be written to disk.
+   * @param keys keys
+   * @param values values
+   * @return result of check
+   */
+  static boolean spillable(final Item[] keys, final Value[] values) {
+    for(final Item key : keys) {
+      if(key != null && !spillable(key)) return false;
+    }
+    for(final Value value : values) {
+      for(final Item item : value) {
+        if(!spillable(item)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the specified item can be written to disk.
+   * @param item item
+   * @return result of check
+   */
+  private static boolean spillable(final Item item) {
+    if(item.getClass() == DBNode.class) {
+      // skip database nodes that have been attached to a fragment
+      final DBNode node = (DBNode) item;
+      final Data data = node.data();
+      final int pre = node.pre();
+      return data.parent(pre, data.kind(pre)) != -1 || node.parent() == null;
+    }
+    return item.type instanceof AtomType;
+  }
+
+  /**
+   * Creates a new temporary file.
+   * @param owner owner of the streams opened on the file
+   * @param info input info (can be {@code null})
+   * @return file
+   * @throws QueryException query exception
+   */
+  synchronized IOFile create(final Closeable owner, final InputInfo info) throws QueryException {
+    try {
+      final IOFile file = new IOFile(File.createTempFile(Prop.PROJECT + '-', IO.TMPSUFFIX));
+      files.put(file, owner);
+      return file;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Deletes a temporary file.
+   * @param file file
+   */
+  synchronized void delete(final IOFile file) {
+    file.delete();
+    files.remove(file);
+  }
+
+  /**
+   * Writes a tuple.
+   * @param out data output
+   * @param keys keys (can contain {@code null} references)
+   * @param values values
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  void write(final DataOutput out, final Item[] keys, final Value[] values)
+      throws IOException, QueryException {
+    for(final Item key : keys) write(out, key == null ? Empty.VALUE : key);
+    for(final Value value : values) write(out, value);
+  }
+
+  /**
+   * Reads the keys of a tuple.
+   * @param in data input
+   * @param size number of keys
+   * @param qc query context
+   * @return keys
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  Item[] readKeys(final DataInput in, final int size, final QueryContext qc)
+      throws IOException, QueryException {
+    final Item[] keys = new Item[size];
+    for(int k = 0; k < size; k++) {
+      final Value key = read(in, qc);
+      keys[k] = key.isEmpty() ? Empty.VALUE : (Item) key;
+    }
+    return keys;
+  }
+
+  /**
+   * Reads the values of a tuple.
+   * @param in data input
+   * @param size number of values
+   * @param qc query context
+   * @return values
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  Value[] readValues(final DataInput in, final int size, final QueryContext qc)
+      throws IOException, QueryException {
+    final Value[] values = new Value[size];
+    for(int v = 0; v < size; v++) values[v] = read(in, qc);
+    return values;
+  }
+
+  /**
+   * Writes a value.
+   * @param out data output
+   * @param value value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private void write(final DataOutput out, final Value value) throws IOException, QueryException {
+    out.writeLong(value.size());
+    for(final Item item : value) {
+      if(item instanceof DBNode) {
+        final DBNode node = (DBNode) item;
+        out.writeBool(true);
+        out.writeNum(id(node.data()));
+        out.writeNum(node.pre());
+      } else {
+        out.writeBool(false);
+        out.writeNum(item.type.index());
+        item.write(out);
+      }
+    }
+  }
+
+  /**
+   * Reads a value.
+   * @param in data input
+   * @param qc query context
+   * @return value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private Value read(final DataInput in, final QueryContext qc)
+      throws IOException, QueryException {
+    final long size = in.readLong();
+    if(size == 0) return Empty.VALUE;
+    final ValueBuilder vb = new ValueBuilder(qc);
+    for(long s = 0; s < size; s++) {
+      if(in.readBool()) {
+        final Data data = data(in.readNum());
+        vb.add(new DBNode(data, in.readNum()));
+      } else {
+        vb.add(Types.type(in.readNum()).read(in, qc));
+      }
+    }
+    return vb.value();
+  }
+
+  /**
+   * Returns the id of a database.
+   * @param data data reference
+   * @return id
+   */
+  private synchronized int id(final Data data) {
+    return ids.computeIfAbsent(data, d -> {
+      datas.add(d);
+      return datas.size() - 1;
+    });
+  }
+
+  /**
+   * Returns the database with the specified id.
+   * @param id id
+   * @return data reference
+   */
+  private synchronized Data data(final int id) {
+    return datas.get(id);
+  }
+
+  @Override
+  public synchronized void close() {
+    // streams must be closed first: open files cannot be deleted on all platforms
+    files.forEach((file, owner) -> {
+      try {
+        owner.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+      file.delete();
+    });
+    files.clear();
+    datas.clear();
+    ids.clear();
+  }
+}
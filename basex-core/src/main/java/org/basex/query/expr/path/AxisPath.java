@@ -1,5 +1,6 @@
 package org.basex.query.expr.path;
 
+import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.path.PathCache.*;
@@ -8,8 +9,10 @@ import org.basex.query.util.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
 import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * Abstract axis path expression.
@@ -97,6 +100,117 @@ public abstract class AxisPath extends Path {
    */
   protected abstract Value nodes(QueryContext qc) throws QueryException;
 
+  /**
+   * Evaluates the steps set-at-a-time on sorted pre values of a single database.
+   * Nodes are only materialized when the final result is returned.
+   * @param value context value (can be {@code null})
+   * @param qc query context
+   * @return resulting nodes, or {@code null} if the path cannot be evaluated this way
+   * @throws QueryException query exception
+   */
+  final Value pres(final Value value, final QueryContext qc) throws QueryException {
+    // check if all steps can be evaluated on pre values
+    for(final Expr expr : steps) {
+      if(!(expr instanceof IterStep)) return null;
+      switch(((Step) expr).axis) {
+        case ATTRIBUTE: case CHILD: case DESCENDANT: case DESCENDANT_OR_SELF: case SELF:
+          break;
+        default:
+          return null;
+      }
+    }
+
+    // collect pre values of the context nodes
+    final Data data;
+    IntList input;
+    if(value instanceof DBNodeSeq) {
+      final DBNodeSeq seq = (DBNodeSeq) value;
+      data = seq.data();
+      input = new IntList(seq.pres());
+    } else if(value instanceof DBNode) {
+      // skip database nodes that have been attached to a fragment
+      final DBNode node = (DBNode) value;
+      data = node.data();
+      final int pre = node.pre();
+      if(data.parent(pre, data.kind(pre)) == -1 && node.parent() != null) return null;
+      input = new IntList(new int[] { pre });
+    } else {
+      return null;
+    }
+    if(!sorted(input)) input = new IntList(input.toArray()).ddo();
+
+    // process steps, reuse a single node instance for checking tests and predicates
+    final DBNode node = new DBNode(data);
+    for(final Expr expr : steps) {
+      final Step step = (Step) expr;
+      final IntList output = new IntList();
+      // staircase join: skip context nodes that are descendants of a previous context node
+      int last = 0;
+      for(final int pre : input.finish()) {
+        final int kind = data.kind(pre), end = pre + data.size(pre, kind);
+        switch(step.axis) {
+          case SELF:
+            add(pre, kind, step, node, output, qc);
+            break;
+          case ATTRIBUTE:
+            for(int p = pre + 1, as = pre + data.attSize(pre, kind); p < as; p++) {
+              add(p, Data.ATTR, step, node, output, qc);
+            }
+            break;
+          case CHILD:
+            for(int p = pre + data.attSize(pre, kind); p < end;) {
+              final int k = data.kind(p);
+              add(p, k, step, node, output, qc);
+              p += data.size(p, k);
+            }
+            break;
+          default:
+            if(pre < last) break;
+            int p = step.axis == Axis.DESCENDANT ? pre + data.attSize(pre, kind) : pre;
+            while(p < end) {
+              final int k = data.kind(p);
+              add(p, k, step, node, output, qc);
+              p += data.attSize(p, k);
+            }
+            last = end;
+        }
+      }
+      // children of nested context nodes may be out of order
+      if(step.axis == Axis.CHILD && !sorted(output)) output.ddo();
+      if(output.isEmpty()) return Empty.VALUE;
+      input = output;
+    }
+    return DBNodeSeq.get(input.finish(), data, this);
+  }
+
+  /**
+   * Adds a pre value to the list if the node matches the step.
+   * @param pre pre value
+   * @param kind node kind
+   * @param step step
+   * @param node node instance
+   * @param list list of pre values
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private static void add(final int pre, final int kind, final Step step, final DBNode node,
+      final IntList list, final QueryContext qc) throws QueryException {
+    qc.checkStop();
+    if(step.matches(node.set(pre, kind), qc)) list.add(pre);
+  }
+
+  /**
+   * Checks if the specified pre values are sorted and distinct.
+   * @param pres pre values
+   * @return result of check
+   */
+  private static boolean sorted(final IntList pres) {
+    for(int p = pres.size() - 1; p > 0; p--) {
+      if(pres.get(p - 1) >= pres.get(p)) return false;
+    }
+    return true;
+  }
+
   /**
    * Returns the specified axis step.
    * @param index index
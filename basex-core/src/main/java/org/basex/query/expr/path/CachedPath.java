@@ -43,6 +43,8 @@ public final class CachedPath extends AxisPath {
     final Value rt = root != null ? root.value(qc) : focus.value;
     qc.focus = qf;
     try {
+      final Value nodes = pres(rt, qc);
+      if(nodes != null) return nodes;
       if(rt != null) {
         final Iter iter = rt.iter(qc);
         for(Item item; (item = iter.next()) != null;) {
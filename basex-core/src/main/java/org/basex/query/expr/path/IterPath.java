@@ -29,6 +29,16 @@ public final class IterPath extends AxisPath {
 
   @Override
   protected Iter iterator(final QueryContext qc) {
+    return iterator(null, qc);
+  }
+
+  /**
+   * Returns a node iterator.
+   * @param value value of the root expression (if {@code null}, the root will be evaluated)
+   * @param qc query context
+   * @return iterator
+   */
+  private Iter iterator(final Value value, final QueryContext qc) {
     final boolean rt = root != null;
 
     return new Iter() {
@@ -39,7 +49,7 @@ public final class IterPath extends AxisPath {
 
       @Override
       public Item next() throws QueryException {
-        if(iter[0] == null) iter[0] = exprs[0].iter(qc);
+        if(iter[0] == null) iter[0] = value != null ? value.iter() : exprs[0].iter(qc);
 
         final QueryFocus qf = qc.focus;
         final Value qv = qf.value;
@@ -65,7 +75,9 @@ public final class IterPath extends AxisPath {
 
   @Override
   protected Value nodes(final QueryContext qc) throws QueryException {
-    return iterator(qc).value(qc, this);
+    final Value value = root != null ? root.value(qc) : qc.focus.value;
+    final Value nodes = pres(value, qc);
+    return nodes != null ? nodes : iterator(root != null ? value : null, qc).value(qc, this);
   }
 
   @Override
@@ -217,6 +217,17 @@ public abstract class Step extends Preds {
   @Override
   public abstract Step copy(CompileContext cc, IntObjMap<Var> vm);
 
+  /**
+   * Checks if the specified node matches the node test and the predicates.
+   * @param node node to be checked
+   * @param qc query context
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  final boolean matches(final ANode node, final QueryContext qc) throws QueryException {
+    return test.matches(node) && match(node, qc);
+  }
+
   /**
    * Returns the path nodes that are the result of this step.
    * @param nodes initial path nodes
@@ -900,8 +900,8 @@ public enum Function implements AFunction {
   _ADMIN_DELETE_LOGS(AdminDeleteLogs::new, "delete-logs(date)",
       params(STRING_O), EMPTY_SEQUENCE_Z, flag(NDT), ADMIN_URI, Perm.ADMIN),
   /** XQuery function. */
-  _ADMIN_LOGS(AdminLogs::new, "logs([date,merge])",
-      params(STRING_O, BOOLEAN_ZO), ELEMENT_ZM, flag(NDT), ADMIN_URI, Perm.ADMIN),
+  _ADMIN_LOGS(AdminLogs::new, "logs([date,merge,options])",
+      params(STRING_O, BOOLEAN_ZO, MAP_ZO), ELEMENT_ZM, flag(NDT), ADMIN_URI, Perm.ADMIN),
   /** XQuery function. */
   _ADMIN_SESSIONS(AdminSessions::new, "sessions()",
       params(), ELEMENT_ZM, flag(NDT), ADMIN_URI, Perm.ADMIN),
@@ -17,6 +17,8 @@ import org.basex.query.value.node.*;
 import org.basex.server.*;
 import org.basex.server.Log.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
+import org.basex.util.options.*;
 
 /**
  * Function implementation.
@@ -25,6 +27,20 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class AdminLogs extends AdminFn {
+  /** Log options. */
+  public static final class LogsOptions extends Options {
+    /** Start time. */
+    public static final StringOption START = new StringOption("start", "");
+    /** End time. */
+    public static final StringOption END = new StringOption("end", "");
+    /** Type. */
+    public static final StringOption TYPE = new StringOption("type", "");
+    /** User. */
+    public static final StringOption USER = new StringOption("user", "");
+    /** Address. */
+    public static final StringOption ADDRESS = new StringOption("address", "");
+  }
+
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
     final String date = toStringOrNull(arg(0), qc);
@@ -64,7 +80,8 @@ public final class AdminLogs extends AdminFn {
     final LogFile file = qc.context.log.file(date);
     if(file == null) throw WHICHRES_X.get(info, date);
 
-    final LinkedList<LogEntry> list = logs(file, qc);
+    final LogsOptions options = toOptions(arg(2), new LogsOptions(), true, qc);
+    final LinkedList<LogEntry> list = logs(file, options, qc);
     final HashMap<String, LinkedList<LogEntry>> map = new HashMap<>();
     if(merge) {
       // group entries by address
@@ -121,42 +138,75 @@ public final class AdminLogs extends AdminFn {
   }
 
   /**
-   * Returns all log entries.
+   * Returns all log entries that match the specified options.
    * @param file log file
+   * @param options options
    * @param qc query context
    * @return list
    * @throws QueryException query exception
    */
-  private LinkedList<LogEntry> logs(final LogFile file, final QueryContext qc)
-      throws QueryException {
+  private LinkedList<LogEntry> logs(final LogFile file, final LogsOptions options,
+      final QueryContext qc) throws QueryException {
+
+    final int start = time(options.get(LogsOptions.START), 0);
+    final int end = time(options.get(LogsOptions.END), Integer.MAX_VALUE);
+    final String type = string(options.get(LogsOptions.TYPE));
+    final String user = string(options.get(LogsOptions.USER));
+    final String address = string(options.get(LogsOptions.ADDRESS));
 
+    final StringList lines;
     try {
-      final LinkedList<LogEntry> logs = new LinkedList<>();
-      for(final String line : file.read()) {
-        qc.checkStop();
-        final LogEntry entry = new LogEntry();
-        final String[] cols = line.split("\t");
-        if(cols.length > 2) {
-          entry.time = cols[0];
-          entry.address = cols[1];
-          entry.user = cols[2];
-          entry.type = cols.length > 3 ? cols[3] : "";
-          entry.message = cols.length > 4 ? cols[4] : "";
-          entry.ms = BigDecimal.ZERO;
-          if(cols.length > 5) {
-            // skip errors caused by erroneous input
-            final int i = cols[5].indexOf(" ms");
-            if(i > -1) entry.ms = new BigDecimal(cols[5].substring(0, i));
-          }
-        } else {
-          // legacy format
-          entry.message = line;
-        }
-        logs.add(entry);
-      }
-      return logs;
+      lines = file.read(start, end, type, user, address);
     } catch(final IOException ex) {
       throw IOERR_X.get(info, ex);
     }
+
+    final LinkedList<LogEntry> logs = new LinkedList<>();
+    for(final String line : lines) {
+      qc.checkStop();
+      final LogEntry entry = new LogEntry();
+      final String[] cols = line.split("\t");
+      if(cols.length > 2) {
+        entry.time = cols[0];
+        entry.address = cols[1];
+        entry.user = cols[2];
+        entry.type = cols.length > 3 ? cols[3] : "";
+        entry.message = cols.length > 4 ? cols[4] : "";
+        entry.ms = BigDecimal.ZERO;
+        if(cols.length > 5) {
+          // skip errors caused by erroneous input
+          final int i = cols[5].indexOf(" ms");
+          if(i > -1) entry.ms = new BigDecimal(cols[5].substring(0, i));
+        }
+      } else {
+        // legacy format
+        entry.message = line;
+      }
+      logs.add(entry);
+    }
+    return logs;
+  }
+
+  /**
+   * Converts a time string to milliseconds.
+   * @param string time string
+   * @param dflt default value (returned for empty strings)
+   * @return milliseconds
+   * @throws QueryException query exception
+   */
+  private int time(final String string, final int dflt) throws QueryException {
+    if(string.isEmpty()) return dflt;
+    final int ms = LogFile.time(string);
+    if(ms == -1) throw ADMIN_TIME_X.get(info, string);
+    return ms;
+  }
+
+  /**
+   * Returns a filter string.
+   * @param string option value
+   * @return string, or {@code null} if the string is empty
+   */
+  private static String string(final String string) {
+    return string.isEmpty() ? null : string;
   }
 }
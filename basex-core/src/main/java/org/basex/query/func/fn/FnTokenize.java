@@ -25,10 +25,18 @@ public final class FnTokenize extends RegEx {
   private static final byte[] DEFAULT = { ' ' };
   /** Placeholder for default search. */
   private static final byte[] WHITESPACE = Token.token("\\s+");
+  /** Newline patterns. */
+  private static final byte[][] NEWLINES = { Token.token("\\n"), Token.token("\\r?\\n") };
 
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
     final byte[] pattern = pattern(qc);
+    if(UNPARSED_TEXT.is(arg(0))) {
+      // tokenize(unparsed-text(...), ...): tokenize text while it is read
+      final int ch = separator(pattern, qc);
+      if(ch != -1) return new UnparsedTextIter((Parse) arg(0), ch, qc);
+    }
+
     final byte[] value = input(pattern, qc);
     final byte[] flags = toZeroToken(arg(2), qc);
     final boolean simple = pattern == DEFAULT || flags.length == 0;
@@ -114,6 +122,22 @@ public final class FnTokenize extends RegEx {
     return pattern != null ? pattern : DEFAULT;
   }
 
+  /**
+   * Returns the separator character for tokenizing text incrementally.
+   * Newlines can be matched literally, as they are normalized when text is read.
+   * @param pattern pattern
+   * @param qc query context
+   * @return separator character, or {@code -1} if the pattern is no single character
+   * @throws QueryException query exception
+   */
+  private int separator(final byte[] pattern, final QueryContext qc) throws QueryException {
+    if(pattern == DEFAULT || toZeroToken(arg(2), qc).length != 0) return -1;
+    for(final byte[] newline : NEWLINES) {
+      if(eq(pattern, newline)) return '\n';
+    }
+    return patternChar(pattern);
+  }
+
   /**
    * Returns the input argument.
    * @param pattern pattern
@@ -126,6 +150,17 @@ public final class FnTokenize extends RegEx {
     return pattern == DEFAULT ? normalize(value) : value;
   }
 
+  @Override
+  public Expr compile(final CompileContext cc) throws QueryException {
+    // tokenize(unparsed-text(...), ...): do not pre-evaluate text that will be tokenized while read
+    final Expr value = arg(0), pattern = arg(1);
+    if(cc.dynamic && UNPARSED_TEXT.is(value) && pattern instanceof Str && arg(2) instanceof Value &&
+        separator(((Str) pattern).string(), cc.qc) != -1) {
+      ((FnUnparsedText) value).tokenize = true;
+    }
+    return super.compile(cc);
+  }
+
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     final Expr value = arg(0), pattern = arg(1);
@@ -12,6 +12,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class FnUnparsedText extends FnUnparsedTextAvailable {
+  /** Indicates if the text will be tokenized while it is read (set by {@link FnTokenize}). */
+  boolean tokenize;
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     return unparsedText(qc, false, true);
@@ -20,6 +23,10 @@ public final class FnUnparsedText extends FnUnparsedTextAvailable {
   @Override
   protected Expr opt(final CompileContext cc) throws QueryException {
     final Expr expr = optFirst();
-    return expr != this ? expr : super.opt(cc);
+    if(expr != this) return expr;
+    // the flag is only valid for the current compilation pass
+    final boolean stream = tokenize;
+    tokenize = false;
+    return stream ? this : super.opt(cc);
   }
 }
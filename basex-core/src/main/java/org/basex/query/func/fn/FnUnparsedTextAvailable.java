@@ -29,8 +29,17 @@ public class FnUnparsedTextAvailable extends Parse {
     // pre-evaluate during dynamic compilation if target is not a remote URL
     if(cc.dynamic && href instanceof Value) {
       input = input(toToken(href.atomItem(cc.qc, info)));
-      if(input == null || !(input instanceof IOUrl)) return value(cc.qc);
+      if(input == null || !(input instanceof IOUrl) && !streamable()) return value(cc.qc);
     }
     return this;
   }
+
+  /**
+   * Indicates if the resource can be read incrementally at runtime.
+   * In this case, it will not be pre-evaluated during compilation.
+   * @return result of check
+   */
+  boolean streamable() {
+    return false;
+  }
 }
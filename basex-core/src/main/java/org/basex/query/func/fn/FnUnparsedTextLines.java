@@ -1,7 +1,5 @@
 package org.basex.query.func.fn;
 
-import static org.basex.query.QueryError.*;
-
 import java.io.*;
 
 import org.basex.io.in.*;
@@ -9,7 +7,6 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
 import org.basex.query.value.*;
-import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
@@ -22,17 +19,16 @@ import org.basex.util.list.*;
  */
 public final class FnUnparsedTextLines extends FnUnparsedTextAvailable {
   @Override
-  public Iter iter(final QueryContext qc) throws QueryException {
-    final Item text = unparsedText(qc, false, true);
-    return text.isEmpty() ? Empty.ITER : new LinesIter(text.string(info));
+  public Iter iter(final QueryContext qc) {
+    return new UnparsedTextIter(this, -1, qc);
   }
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
-    final Item text = unparsedText(qc, false, true);
-    if(text.isEmpty()) return Empty.VALUE;
+    final NewlineInput nli = unparsedInput(qc, true);
+    if(nli == null) return Empty.VALUE;
 
-    try(NewlineInput ni = new NewlineInput(text.string(info))) {
+    try(NewlineInput ni = nli) {
       final TokenList tl = new TokenList();
       final TokenBuilder tb = new TokenBuilder();
       while(ni.readLine(tb)) {
@@ -41,7 +37,7 @@ public final class FnUnparsedTextLines extends FnUnparsedTextAvailable {
       }
       return StrSeq.get(tl);
     } catch(final IOException ex) {
-      throw FILE_IO_ERROR_X.get(info, ex);
+      throw unparsedError(ex, nli.io());
     }
   }
 
@@ -51,38 +47,8 @@ public final class FnUnparsedTextLines extends FnUnparsedTextAvailable {
     return href.seqType().zero() ? href : super.opt(cc);
   }
 
-  /**
-   * Line iterator.
-   * @author Christian Gruen
-   * @author BaseX Team 2005-24, BSD License
-   */
-  private static final class LinesIter extends Iter {
-    /** Token builder. */
-    private final TokenBuilder tb = new TokenBuilder();
-    /** Input stream. */
-    private final NewlineInput nli;
-
-    /**
-     * Constructor.
-     * @param contents file contents
-     */
-    private LinesIter(final byte[] contents) {
-      try {
-        nli = new NewlineInput(contents);
-      } catch(final IOException ex) {
-        // input has already been converted to the correct encoding
-        throw Util.notExpected(ex);
-      }
-    }
-
-    @Override
-    public Str next() {
-      try {
-        return nli.readLine(tb) ? Str.get(tb.toArray()) : null;
-      } catch(final IOException ex) {
-        // input has already been converted to the correct encoding
-        throw Util.notExpected(ex);
-      }
-    }
+  @Override
+  boolean streamable() {
+    return true;
   }
 }
@@ -44,41 +44,73 @@ public abstract class Parse extends StandardFunc {
   final Item unparsedText(final QueryContext qc, final boolean check, final boolean encoding)
       throws QueryException {
     try {
-      IO io = input;
-      if(io == null) {
-        final Item href = arg(0).atomItem(qc, info);
-        if(href.isEmpty()) return check ? Bln.FALSE : Empty.VALUE;
-        io = input(toToken(href));
-        if(io == null) throw INVURL_X.get(info, href);
-      }
-      if(Strings.contains(io.path(), '#')) throw FRAGID_X.get(info, io);
-
-      String enc = encoding ? toEncodingOrNull(arg(1), ENCODING_X, qc) : null;
-
-      // only required for test APIs
-      final String[] pathEnc = qc.resources.text(io);
-      if(pathEnc != null) {
-        io = IO.get(pathEnc[0]);
-        enc = pathEnc[1];
-      }
+      final NewlineInput nli = unparsedInput(qc, encoding);
+      if(nli == null) return check ? Bln.FALSE : Empty.VALUE;
 
       // parse text
-      try(InputStream is = io.inputStream(); NewlineInput nli = new NewlineInput(io)) {
-        nli.encoding(enc).validate(true);
-        if(!check) return Str.get(nli.content());
+      try(NewlineInput ni = nli) {
+        if(!check) return Str.get(ni.content());
 
-        while(nli.read() != -1);
+        while(ni.read() != -1);
         return Bln.TRUE;
       } catch(final IOException ex) {
         if(check) return Bln.FALSE;
-        if(ex instanceof DecodingException) throw WHICHCHARS_X.get(info, ex);
-        if(ex instanceof InputException) throw INVCHARS_X.get(info, ex);
-        throw RESNF_X.get(info, io);
+        throw unparsedError(ex, nli.io());
       }
-
     } catch(final QueryException ex) {
       if(check && !ex.error().toString().startsWith(ErrType.XPTY.name())) return Bln.FALSE;
       throw ex;
     }
   }
+
+  /**
+   * Opens the input of an unparsed-text function. The text is decoded and validated
+   * while it is read.
+   * @param qc query context
+   * @param encoding parse encoding
+   * @return input stream, or {@code null} if no URL is supplied
+   * @throws QueryException query exception
+   */
+  final NewlineInput unparsedInput(final QueryContext qc, final boolean encoding)
+      throws QueryException {
+    IO io = input;
+    if(io == null) {
+      final Item href = arg(0).atomItem(qc, info);
+      if(href.isEmpty()) return null;
+      io = input(toToken(href));
+      if(io == null) throw INVURL_X.get(info, href);
+    }
+    if(Strings.contains(io.path(), '#')) throw FRAGID_X.get(info, io);
+
+    String enc = encoding ? toEncodingOrNull(arg(1), ENCODING_X, qc) : null;
+
+    // only required for test APIs
+    final String[] pathEnc = qc.resources.text(io);
+    if(pathEnc != null) {
+      io = IO.get(pathEnc[0]);
+      enc = pathEnc[1];
+    }
+
+    NewlineInput nli = null;
+    try {
+      nli = new NewlineInput(io);
+      nli.encoding(enc).validate(true);
+      return nli;
+    } catch(final IOException ex) {
+      if(nli != null) try { nli.close(); } catch(final IOException e) { Util.debug(e); }
+      throw unparsedError(ex, io);
+    }
+  }
+
+  /**
+   * Returns an error for an input exception raised by an unparsed-text function.
+   * @param ex exception
+   * @param io input
+   * @return query exception
+   */
+  final QueryException unparsedError(final IOException ex, final IO io) {
+    if(ex instanceof DecodingException) return WHICHCHARS_X.get(info, ex);
+    if(ex instanceof InputException) return INVCHARS_X.get(info, ex);
+    return RESNF_X.get(info, io);
+  }
 }
@@ -0,0 +1,88 @@
+package org.basex.query.func.fn;
+
+import java.io.*;
+
+import org.basex.io.in.*;
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * Iterator over the lines or tokens of an unparsed text resource.
+ * The resource is opened when the first item is requested, and it is read incrementally.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+final class UnparsedTextIter extends Iter {
+  /** Token builder. */
+  private final TokenBuilder tb = new TokenBuilder();
+  /** Function. */
+  private final Parse func;
+  /** Separator character ({@code -1}: return lines). */
+  private final int separator;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Input stream ({@code null}: not opened yet). */
+  private NewlineInput nli;
+  /** Indicates if the first token has been read. */
+  private boolean started;
+  /** Indicates if all items have been returned. */
+  private boolean done;
+
+  /**
+   * Constructor.
+   * @param func function
+   * @param separator separator character ({@code -1}: return lines)
+   * @param qc query context
+   */
+  UnparsedTextIter(final Parse func, final int separator, final QueryContext qc) {
+    this.func = func;
+    this.separator = separator;
+    this.qc = qc;
+  }
+
+  @Override
+  public Str next() throws QueryException {
+    if(done) return null;
+    try {
+      if(nli == null) {
+        nli = func.unparsedInput(qc, true);
+        if(nli == null) return finish();
+        qc.resources.add(nli);
+      }
+      qc.checkStop();
+      if(separator == -1) return nli.readLine(tb) ? Str.get(tb.toArray()) : finish();
+
+      // tokenize input: empty input yields no tokens, a trailing separator an empty token
+      int cp = nli.read();
+      if(cp == -1 && !started) return finish();
+      started = true;
+      tb.reset();
+      for(; cp != -1 && cp != separator; cp = nli.read()) tb.add(cp);
+      final Str token = Str.get(tb.toArray());
+      if(cp == -1) finish();
+      return token;
+    } catch(final IOException ex) {
+      finish();
+      throw func.unparsedError(ex, nli.io());
+    }
+  }
+
+  /**
+   * Closes the input and indicates that all items have been returned.
+   * @return {@code null}
+   */
+  private Str finish() {
+    done = true;
+    if(nli != null) {
+      try {
+        qc.resources.remove(nli);
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    return null;
+  }
+}
@@ -59,6 +59,7 @@ public final class JobListDetails extends StandardFunc {
       }
       elem.add(Q_READS, jc.locks.reads);
       elem.add(Q_WRITES, jc.locks.writes);
+      elem.add(Q_TASKS, jc.tasks.get());
       elem.add(Q_TIME, dateTime(jc.time));
       elem.add(Token.chop(Token.normalize(Token.token(jc)), max));
       vb.add(elem.finish());
@@ -23,6 +23,8 @@ final class TaskContext {
   final boolean errors;
   /** Collect results. */
   final boolean results;
+  /** Maximum number of functions to be evaluated by a single task. */
+  final int chunk;
 
   /**
    * Constructor.
@@ -38,5 +40,8 @@ final class TaskContext {
     this.qc = qc;
     this.errors = options.get(TaskOptions.ERRORS);
     this.results = options.get(TaskOptions.RESULTS);
+    // limit the number of tasks to the specified number of parallel threads
+    final int parallel = options.parallel();
+    chunk = (funcs.size() + parallel - 1) / parallel;
   }
 }
@@ -4,7 +4,6 @@ import static org.basex.query.func.xquery.TaskOptions.*;
 import static org.basex.query.QueryError.*;
 
 import java.util.*;
-import java.util.concurrent.*;
 
 import org.basex.core.jobs.*;
 import org.basex.query.*;
@@ -38,18 +37,15 @@ public final class XQueryForkJoin extends StandardFunc {
     // single function: invoke directly
     if(size == 1) return list.get(0).invoke(qc, info);
 
-    final ForkJoinPool pool = new ForkJoinPool(options.parallel());
     final TaskContext tc = new TaskContext(list, options, qc, info);
     try {
-      return pool.invoke(new XQueryTask(tc));
+      return qc.context.jobs.forkJoin().invoke(new XQueryTask(tc));
     } catch(final Exception ex) {
       // pass on query and job exceptions
       final Throwable e = Util.rootException(ex);
       if(e instanceof QueryException) throw (QueryException) e;
       if(e instanceof JobException) throw (JobException) e;
       throw XQUERY_UNEXPECTED_X.get(info, e);
-    } finally {
-      pool.shutdown();
     }
   }
 
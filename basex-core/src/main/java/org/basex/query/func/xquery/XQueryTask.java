@@ -2,6 +2,7 @@ package org.basex.query.func.xquery;
 
 import java.util.concurrent.*;
 
+import org.basex.core.jobs.*;
 import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.query.value.seq.*;
@@ -43,15 +44,28 @@ final class XQueryTask extends RecursiveTask<Value> {
   @Override
   protected Value compute() {
     final int size = end - start;
-    if(size == 1) {
+    if(size <= tc.chunk) {
       // perform the work
-      try(QueryContext qc = new QueryContext(tc.qc)) {
-        return tc.funcs.get(start).invoke(qc, tc.info);
-      } catch(final QueryException ex) {
-        if(tc.errors) {
-          completeExceptionally(ex);
-          cancel(true);
+      final JobContext jc = tc.qc.jc();
+      jc.tasks.incrementAndGet();
+      try {
+        final ValueBuilder vb = new ValueBuilder(tc.qc);
+        for(int f = start; f < end; f++) {
+          tc.qc.checkStop();
+          try(QueryContext qc = new QueryContext(tc.qc)) {
+            final Value value = tc.funcs.get(f).invoke(qc, tc.info);
+            if(tc.results) vb.add(value);
+          } catch(final QueryException ex) {
+            if(tc.errors) {
+              completeExceptionally(ex);
+              cancel(true);
+              return Empty.VALUE;
+            }
+          }
         }
+        return vb.value();
+      } finally {
+        jc.tasks.decrementAndGet();
       }
     } else {
       // split the work and join the results in the correct order
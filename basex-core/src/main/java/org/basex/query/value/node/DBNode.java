@@ -96,12 +96,12 @@ public class DBNode extends ANode {
   }
 
   /**
-   * Sets the node type.
+   * Assigns a pre value and the node type.
    * @param p pre value
    * @param k node kind
    * @return self reference
    */
-  private DBNode set(final int p, final int k) {
+  public final DBNode set(final int p, final int k) {
     type = type(k);
     pre = p;
     return this;
@@ -1,5 +1,7 @@
 package org.basex.query.var;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.value.*;
 import org.basex.util.*;
@@ -36,6 +38,25 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and assigns the specified values.
+   * @param values values of the frame (see {@link #values()})
+   * @return stack pointer of the old frame
+   */
+  public int enterFrame(final Value[] values) {
+    final int s = enterFrame(values.length);
+    System.arraycopy(values, 0, stack, start, values.length);
+    return s;
+  }
+
+  /**
+   * Returns a copy of the values of the current stack frame.
+   * @return values
+   */
+  public Value[] values() {
+    return Arrays.copyOfRange(stack, start, end);
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
@@ -4,6 +4,7 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 import org.basex.*;
@@ -74,102 +75,129 @@ public final class ClientListener extends Thread implements ClientInfo {
   @Override
   public void run() {
     if(!authenticate()) return;
+    while(process());
+  }
 
+  /**
+   * Processes a single client request.
+   * @return {@code true} if the session is still active
+   */
+  boolean process() {
     try {
-      while(authenticated) {
-        command = null;
-        String cmd;
-        final ServerCmd sc;
-        try {
-          final int b = in.read();
-          if(b == -1) {
-            // end of stream: exit session
-            close();
-            break;
-          }
-
-          last = System.currentTimeMillis();
-          perf.ns();
-          sc = ServerCmd.get(b);
-          cmd = null;
-          if(sc == ServerCmd.CREATE) {
-            create();
-          } else if(sc == ServerCmd.ADD) {
-            add();
-          } else if(sc == ServerCmd.PUT) {
-            put();
-          } else if(sc == ServerCmd.PUTBINARY) {
-            putBinary();
-          } else if(sc != ServerCmd.COMMAND) {
-            query(sc);
-          } else {
-            // database command
-            cmd = new ByteList().add(b).add(in.readBytes()).toString();
-          }
-        } catch(final IOException ex) {
-          // this exception may be thrown if a session is stopped
-          Util.debug(ex);
+      command = null;
+      String cmd;
+      final ServerCmd sc;
+      try {
+        final int b = in.read();
+        if(b == -1) {
+          // end of stream: exit session
           close();
-          break;
+          return false;
         }
-        if(sc != ServerCmd.COMMAND) continue;
 
-        // parse input and create command instance
-        try {
-          command = CommandParser.get(cmd, context).parseSingle();
-          log(LogType.REQUEST, command.toString(true));
-        } catch(final QueryException ex) {
-          // log invalid command
-          final String msg = ex.getMessage();
-          log(LogType.REQUEST, cmd);
-          log(LogType.ERROR, msg);
-          // send 0 to mark end of potential result
-          out.write(0);
-          // send {INFO}0
-          out.print(msg);
-          out.write(0);
-          // send 1 to mark error
-          send(false);
-          continue;
+        last = System.currentTimeMillis();
+        perf.ns();
+        sc = ServerCmd.get(b);
+        cmd = null;
+        if(sc == ServerCmd.CREATE) {
+          create();
+        } else if(sc == ServerCmd.ADD) {
+          add();
+        } else if(sc == ServerCmd.PUT) {
+          put();
+        } else if(sc == ServerCmd.PUTBINARY) {
+          putBinary();
+        } else if(sc == ServerCmd.BATCH) {
+          batch();
+        } else if(sc != ServerCmd.COMMAND) {
+          query(sc);
+        } else {
+          // database command
+          cmd = new ByteList().add(b).add(in.readBytes()).toString();
         }
+      } catch(final IOException ex) {
+        // this exception may be thrown if a session is stopped
+        Util.debug(ex);
+        close();
+        return false;
+      }
+      if(sc != ServerCmd.COMMAND) return true;
+
+      // parse input and create command instance
+      try {
+        command = CommandParser.get(cmd, context).parseSingle();
+        log(LogType.REQUEST, command.toString(true));
+      } catch(final QueryException ex) {
+        // log invalid command
+        final String msg = ex.getMessage();
+        log(LogType.REQUEST, cmd);
+        log(LogType.ERROR, msg);
+        // send 0 to mark end of potential result
+        out.write(0);
+        // send {INFO}0
+        out.print(msg);
+        out.write(0);
+        // send 1 to mark error
+        send(false);
+        return true;
+      }
 
-        // execute command and send {RESULT}
-        boolean ok = true;
-        String info;
-        try {
-          // run command
-          command.execute(context, new ServerOutput(out));
-          info = command.info();
-        } catch(final BaseXException ex) {
-          Util.debug(ex);
-          ok = false;
-          info = ex.getMessage();
-        }
+      // execute command and send {RESULT}
+      boolean ok = true;
+      String info;
+      try {
+        // run command
+        command.execute(context, new ServerOutput(out));
+        info = command.info();
+      } catch(final BaseXException ex) {
+        Util.debug(ex);
+        ok = false;
+        info = ex.getMessage();
+      }
 
-        // send 0 to mark end of result
-        out.write(0);
-        // send info
-        info(info, ok);
+      // send 0 to mark end of result
+      out.write(0);
+      // send info
+      info(info, ok);
 
-        // stop console
-        if(command instanceof Exit) {
-          command = null;
-          close();
-        }
+      // stop console
+      if(command instanceof Exit) {
+        command = null;
+        close();
+        return false;
       }
+      return true;
     } catch(final IOException ex) {
       log(LogType.ERROR, Util.message(ex));
       command = null;
       close();
+      return false;
+    } finally {
+      command = null;
     }
-    command = null;
+  }
+
+  /**
+   * Indicates if the input of the client has been buffered, but not been processed yet.
+   * @return result of check
+   */
+  boolean buffered() {
+    return in.buffered() > 0;
+  }
+
+  /**
+   * Returns the socket channel of this session.
+   * @return channel, or {@code null} if the socket was not created by a channel
+   */
+  SocketChannel channel() {
+    return socket.getChannel();
   }
 
   /**
    * Initializes a session via digest authentication.
    * @return success flag
    */
-  private boolean authenticate() {
+  boolean authenticate() {
     boolean ok = false;
     try {
       final String nonce = Long.toString(System.nanoTime());
@@ -331,6 +359,122 @@ public final class ClientListener extends Thread implements ClientInfo {
     execute(new BinaryPut(in.readString()));
   }
 
+  /**
+   * Executes a batch of requests and sends a status for each request
+   * (0: success, 1: error, followed by {MSG}0, 2: not executed).
+   * The requests of a single-job batch are executed as one job, which acquires the global lock,
+   * and execution stops after the first error. Changes of preceding requests are not rolled back.
+   * @throws IOException I/O exception
+   */
+  private void batch() throws IOException {
+    final boolean singleJob = in.read() == 1;
+    final ArrayList<Command> cmds = new ArrayList<>();
+    final ArrayOutput status = new ArrayOutput();
+    String error = null;
+    for(int b; (b = in.read()) > 0;) {
+      final ServerCmd sc = ServerCmd.get(b);
+      Command cmd = null;
+      String msg = null;
+      ServerInput si = null;
+      if(sc == ServerCmd.COMMAND) {
+        final String string = new ByteList().add(b).add(in.readBytes()).toString();
+        try {
+          cmd = CommandParser.get(string, context).parseSingle();
+          log(LogType.REQUEST, cmd.toString(true));
+        } catch(final QueryException ex) {
+          log(LogType.REQUEST, string);
+          msg = ex.getMessage();
+        }
+      } else {
+        final String arg = in.readString();
+        if(sc == ServerCmd.CREATE) cmd = new CreateDB(arg);
+        else if(sc == ServerCmd.ADD) cmd = new Add(arg);
+        else if(sc == ServerCmd.PUT) cmd = new Put(arg);
+        else if(sc == ServerCmd.PUTBINARY) cmd = new BinaryPut(arg);
+        else throw new IOException("Invalid batch request: " + sc);
+        log(LogType.REQUEST, cmd + " [...]");
+        si = new ServerInput(in);
+        cmd.setInput(singleJob ? new ArrayInput(si.readAllBytes()) : si);
+      }
+
+      if(singleJob) {
+        // single job: parse all requests before executing them
+        if(msg != null && error == null) {
+          error = msg;
+          log(LogType.ERROR, msg);
+          cmds.add(null);
+        } else {
+          cmds.add(cmd);
+        }
+        continue;
+      }
+
+      if(cmd != null) {
+        try {
+          command = cmd;
+          cmd.execute(context, new NullOutput());
+        } catch(final BaseXException ex) {
+          Util.debug(ex);
+          msg = ex.getMessage();
+        } finally {
+          command = null;
+        }
+        if(si != null) si.flush();
+      }
+      log(msg == null ? LogType.OK : LogType.ERROR, msg == null ? cmd.info() : msg);
+      status(status, msg);
+    }
+
+    if(singleJob) {
+      // execute all commands with a single job, or return the parse error
+      final int cs = cmds.size();
+      int executed = 0, failed = cmds.indexOf(null);
+      if(error == null) {
+        final Execute exec = new Execute(cmds.toArray(new Command[0]));
+        try {
+          command = exec;
+          exec.execute(context, new NullOutput());
+          log(LogType.OK, exec.info());
+        } catch(final BaseXException ex) {
+          Util.debug(ex);
+          error = ex.getMessage();
+          log(LogType.ERROR, error);
+        } finally {
+          command = null;
+        }
+        executed = exec.executed();
+        failed = executed;
+        if(error != null && failed < cs) {
+          final String info = cmds.get(failed).info();
+          if(!info.isEmpty()) error = info;
+        }
+      }
+      for(int c = 0; c < cs; c++) {
+        if(c < executed) status(status, null);
+        else if(c == failed) status(status, error);
+        else status.write(2);
+      }
+    }
+    out.write(status.finish());
+    out.flush();
+  }
+
+  /**
+   * Adds the status of a batch request.
+   * @param status status output
+   * @param error error message ({@code null} if request was successful)
+   * @throws IOException I/O exception
+   */
+  private static void status(final ArrayOutput status, final String error) throws IOException {
+    if(error == null) {
+      status.write(0);
+    } else {
+      status.write(1);
+      status.print(error);
+      status.write(0);
+    }
+  }
+
   /**
    * Executes the specified command.
    * @param cmd command to be executed
@@ -372,6 +516,9 @@ public final class ClientListener extends Thread implements ClientInfo {
         out.write(0);
         // write log file
         info.append(query);
+      } else if(sc == ServerCmd.NEXT && arg.isEmpty()) {
+        // check for support of windows: send 0 as end marker
+        out.write(0);
       } else {
         // find query process
         qp = queries.get(arg);
@@ -406,7 +553,20 @@ public final class ClientListener extends Thread implements ClientInfo {
         } else if(sc == ServerCmd.CLOSE) {
           queries.remove(arg);
         } else if(sc == ServerCmd.NEXT) {
-          throw new Exception("Protocol for query iteration is out-of-date.");
+          final int window = Strings.toInt(in.readString());
+          if(window < 1) throw new IOException("Invalid window size: " + window);
+          // limit the time for waiting for the client, as locks are held between windows
+          final int timeout = socket.getSoTimeout();
+          socket.setSoTimeout(windowTimeout());
+          try {
+            qp.execute(out, true, true, false, window, in);
+          } catch(final SocketTimeoutException ex) {
+            // the state of the client is unknown: close session
+            close();
+            throw ex;
+          } finally {
+            if(!closed) socket.setSoTimeout(timeout);
+          }
         }
         // send 0 as end marker
         out.write(0);
@@ -433,6 +593,21 @@ public final class ClientListener extends Thread implements ClientInfo {
     out.flush();
   }
 
+  /**
+   * Returns the maximum time for waiting for the client between two windows of query results.
+   * The time is limited by the {@link StaticOptions#KEEPALIVE} option and, for users without
+   * admin permissions, by the {@link StaticOptions#TIMEOUT} option.
+   * @return timeout in milliseconds ({@code 0}: no timeout)
+   */
+  private int windowTimeout() {
+    int seconds = context.soptions.get(StaticOptions.KEEPALIVE);
+    if(!context.user().has(Perm.ADMIN)) {
+      final int timeout = context.soptions.get(StaticOptions.TIMEOUT);
+      if(timeout > 0 && (seconds == 0 || timeout < seconds)) seconds = timeout;
+    }
+    return (int) Math.min(Integer.MAX_VALUE, seconds * 1000L);
+  }
+
   /**
    * Sends a success flag to the client (0: true, 1: false).
    * @param ok success flag
@@ -0,0 +1,127 @@
+package org.basex.server;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.util.*;
+
+/**
+ * This class watches idle client sessions with a single selector thread.
+ * Requests are processed by worker threads, which are only assigned to a session
+ * as long as it is processing a request.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSelector {
+  /** Worker threads. */
+  private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+    final Thread thread = new Thread(r, Util.className(ClientListener.class));
+    thread.setDaemon(true);
+    return thread;
+  });
+  /** Sessions that will be registered for selection. */
+  private final ConcurrentLinkedQueue<ClientListener> idle = new ConcurrentLinkedQueue<>();
+  /** Selector. */
+  private final Selector selector;
+
+  /**
+   * Constructor.
+   * @throws IOException I/O exception
+   */
+  public ClientSelector() throws IOException {
+    selector = Selector.open();
+    final Thread thread = new Thread(this::select, Util.className(this));
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Adds a new session. The client will be authenticated by a worker thread.
+   * @param client client session
+   */
+  public void add(final ClientListener client) {
+    workers.execute(() -> {
+      if(client.authenticate()) process(client);
+    });
+  }
+
+  /**
+   * Stops the selector and all workers.
+   */
+  public void close() {
+    try {
+      selector.close();
+    } catch(final IOException ex) {
+      Util.debug(ex);
+    }
+    workers.shutdownNow();
+  }
+
+  /**
+   * Processes client requests until no more input is buffered,
+   * and returns the session to the selector.
+   * @param client client session
+   */
+  private void process(final ClientListener client) {
+    do {
+      if(!client.process()) return;
+    } while(client.buffered());
+
+    idle.add(client);
+    selector.wakeup();
+  }
+
+  /**
+   * Waits for input from idle sessions and assigns workers to them.
+   */
+  private void select() {
+    final ArrayList<ClientListener> ready = new ArrayList<>();
+    while(selector.isOpen()) {
+      try {
+        selector.select();
+
+        // register idle sessions
+        for(ClientListener client; (client = idle.poll()) != null;) {
+          try {
+            final SocketChannel channel = client.channel();
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, client);
+          } catch(final IOException ex) {
+            Util.debug(ex);
+            client.close();
+          }
+        }
+
+        // deregister sessions with new input
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while(keys.hasNext()) {
+          final SelectionKey key = keys.next();
+          keys.remove();
+          key.cancel();
+          ready.add((ClientListener) key.attachment());
+        }
+        if(ready.isEmpty()) continue;
+
+        // complete deregistration, process requests in blocking mode
+        selector.selectNow();
+        for(final ClientListener client : ready) {
+          try {
+            client.channel().configureBlocking(true);
+            workers.execute(() -> process(client));
+          } catch(final IOException | RejectedExecutionException ex) {
+            Util.debug(ex);
+            client.close();
+          }
+        }
+        ready.clear();
+      } catch(final ClosedSelectorException ex) {
+        Util.debug(ex);
+      } catch(final IOException ex) {
+        Util.errln(ex);
+      }
+    }
+  }
+}
@@ -4,6 +4,8 @@ import static org.basex.util.Token.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
@@ -23,6 +25,10 @@ import org.basex.util.*;
  *   <li><b>Performance</b>: Measured time in milliseconds</li>
  * </ul>
  *
+ * Log entries are queued and written to disk by a separate thread. If the queue is full,
+ * new entries are discarded, and the number of discarded entries is logged as soon as
+ * the queue has been drained.
+ *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
@@ -38,11 +44,26 @@ public final class Log implements QueryTracer {
     /** OK.      */ OK
   }
 
+  /** Maximum number of queued log entries. */
+  private static final int CAPACITY = 1 << 14;
+  /** Number of written bytes after which log entries will be flushed. */
+  private static final int FLUSHSIZE = 1 << 16;
+  /** Time (ms) after which log entries will be flushed. */
+  private static final long FLUSHTIME = 1000;
+  /** Marker for stopping the writing thread. */
+  private static final Entry STOP = new Entry(null);
+
   /** Static options. */
   private final StaticOptions sopts;
+  /** Queued log entries. */
+  private final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<>(CAPACITY);
+  /** Number of discarded log entries. */
+  private final AtomicInteger discarded = new AtomicInteger();
 
+  /** Writing thread ({@code null} if no thread is running). */
+  private volatile Thread writer;
   /** Current log file. */
-  private LogFile file;
+  private volatile LogFile file;
 
   /**
    * Constructor.
@@ -58,6 +79,7 @@ public final class Log implements QueryTracer {
    * @return log file, or {@code null} if it does not exist
    */
   public LogFile file(final String name) {
+    flush();
     LogFile lf = file;
     if(lf == null || !lf.valid(name)) lf = new LogFile(name, dir());
     return lf.exists() ? lf : null;
@@ -123,43 +145,159 @@ public final class Log implements QueryTracer {
     // check if logging is disabled
     if(!sopts.get(StaticOptions.LOG)) return;
 
+    final Entry entry = new Entry(System.currentTimeMillis(), type, info,
+        perf != null ? perf.toString() : null, address, user);
+    if(writer == null) start();
+    if(!queue.offer(entry)) discarded.incrementAndGet();
+  }
+
+  /**
+   * Writes all queued log entries to disk.
+   */
+  public void flush() {
+    if(writer == null) return;
+    final Entry entry = new Entry(new CountDownLatch(1));
+    try {
+      if(queue.offer(entry, FLUSHTIME, TimeUnit.MILLISECONDS)) {
+        entry.flushed.await(FLUSHTIME, TimeUnit.MILLISECONDS);
+      }
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+  }
+
+  /**
+   * Writes all queued log entries and closes the log file.
+   */
+  public synchronized void close() {
+    final Thread thread = writer;
+    if(thread != null) {
+      try {
+        queue.put(STOP);
+        thread.join();
+      } catch(final InterruptedException ex) {
+        Util.debug(ex);
+      }
+      writer = null;
+    }
+  }
+
+  /**
+   * Starts the writing thread.
+   */
+  private synchronized void start() {
+    if(writer == null) {
+      final Thread thread = new Thread(this::run, Util.className(this));
+      thread.setDaemon(true);
+      thread.start();
+      writer = thread;
+    }
+  }
+
+  /**
+   * Writes queued log entries until the thread is stopped.
+   * Entries are flushed if the queue is empty, or if a size or time threshold is exceeded.
+   */
+  private void run() {
+    final TokenBuilder tb = new TokenBuilder();
+    long flushed = System.currentTimeMillis();
+    int size = 0;
+    try {
+      while(true) {
+        Entry entry = queue.poll();
+        if(entry == null) {
+          if(size > 0) {
+            flushFile();
+            size = 0;
+          }
+          entry = queue.take();
+        }
+        if(entry == STOP) break;
+
+        if(entry.flushed != null) {
+          flushFile();
+          size = 0;
+          entry.flushed.countDown();
+        } else {
+          final int d = discarded.getAndSet(0);
+          if(d > 0) {
+            size += write(new Entry(entry.time, LogType.ERROR.toString(),
+                d + " log entries were discarded.", null, null, null), tb);
+          }
+          size += write(entry, tb);
+          if(size >= FLUSHSIZE || entry.time - flushed >= FLUSHTIME) {
+            flushFile();
+            size = 0;
+          }
+        }
+        if(size == 0) flushed = System.currentTimeMillis();
+      }
+    } catch(final InterruptedException ex) {
+      Util.debug(ex);
+    }
+
+    try {
+      final LogFile lf = file;
+      if(lf != null) {
+        lf.close();
+        file = null;
+      }
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Writes an entry to the log file (called by the writing thread).
+   * A new log file will be created if the date has changed.
+   * @param entry log entry
+   * @param tb token builder
+   * @return number of written bytes
+   */
+  private int write(final Entry entry, final TokenBuilder tb) {
     // construct log text
-    final Date date = new Date();
+    final Date date = new Date(entry.time);
     final int ml = sopts.get(StaticOptions.LOGMSGMAXLEN);
-    final TokenBuilder tb = new TokenBuilder();
-    tb.add(DateTime.format(date, DateTime.TIME));
-    tb.add('\t').add(address != null ? address.replaceFirst("^/", "") : SERVER);
-    tb.add('\t').add(user != null ? user : UserText.ADMIN);
-    tb.add('\t').add(type);
+    final String time = DateTime.format(date, DateTime.TIME), info = entry.info;
+    final String address = entry.address != null ? entry.address.replaceFirst("^/", "") : SERVER;
+    final String user = entry.user != null ? entry.user : UserText.ADMIN;
+    tb.reset();
+    tb.add(time);
+    tb.add('\t').add(address);
+    tb.add('\t').add(user);
+    tb.add('\t').add(entry.type);
     tb.add('\t').add(info != null ? chop(normalize(token(info)), ml) : EMPTY);
-    if(perf != null) tb.add('\t').add(perf);
+    if(entry.perf != null) tb.add('\t').add(entry.perf);
     tb.add(Prop.NL);
 
     try {
-      synchronized(sopts) {
-        // create new log file and write log entry
-        final String name = DateTime.format(date, DateTime.DATE);
-        if(file != null && !file.valid(name)) close();
-        if(file == null) file = LogFile.create(name, dir());
-        // write log entry
-        file.write(tb.finish());
+      // create new log file and write log entry
+      final String name = DateTime.format(date, DateTime.DATE);
+      LogFile lf = file;
+      if(lf != null && !lf.valid(name)) {
+        lf.close();
+        lf = null;
       }
+      if(lf == null) {
+        lf = LogFile.create(name, dir());
+        file = lf;
+      }
+      final byte[] line = tb.toArray();
+      lf.write(line, LogFile.time(time), entry.type, user, address);
+      return line.length;
     } catch(final IOException ex) {
       Util.stack(ex);
+      return 0;
     }
   }
 
   /**
-   * Closes the log file.
+   * Writes buffered log entries to disk (called by the writing thread).
    */
-  public void close() {
+  private void flushFile() {
     try {
-      synchronized(sopts) {
-        if(file != null) {
-          file.close();
-          file = null;
-        }
-      }
+      final LogFile lf = file;
+      if(lf != null) lf.flush();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -170,6 +308,7 @@ public final class Log implements QueryTracer {
    * @return log directory
    */
   public IOFile[] files() {
+    flush();
     return dir().children(".*\\" + IO.LOGSUFFIX);
   }
 
@@ -186,4 +325,58 @@ public final class Log implements QueryTracer {
     writeServer(LogType.TRACE, info);
     return false;
   }
+
+  /**
+   * Log entry.
+   */
+  private static final class Entry {
+    /** Timestamp. */
+    final long time;
+    /** Type. */
+    final String type;
+    /** Info string (can be {@code null}). */
+    final String info;
+    /** Performance string (can be {@code null}). */
+    final String perf;
+    /** Address (can be {@code null}). */
+    final String address;
+    /** User (can be {@code null}). */
+    final String user;
+    /** Signal for written entries (only assigned if the entry is a flush request). */
+    final CountDownLatch flushed;
+
+    /**
+     * Constructor for log entries.
+     * @param time timestamp
+     * @param type type
+     * @param info info string (can be {@code null})
+     * @param perf performance string (can be {@code null})
+     * @param address address (can be {@code null})
+     * @param user user (can be {@code null})
+     */
+    Entry(final long time, final String type, final String info, final String perf,
+        final String address, final String user) {
+      this.time = time;
+      this.type = type;
+      this.info = info;
+      this.perf = perf;
+      this.address = address;
+      this.user = user;
+      flushed = null;
+    }
+
+    /**
+     * Constructor for flush requests and markers.
+     * @param flushed signal for written entries
+     */
+    Entry(final CountDownLatch flushed) {
+      this.flushed = flushed;
+      time = 0;
+      type = null;
+      info = null;
+      perf = null;
+      address = null;
+      user = null;
+    }
+  }
 }
@@ -1,22 +1,48 @@
 package org.basex.server;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
  * Log file instance.
  *
+ * A sidecar index is written for each log file. It contains an entry for each log line,
+ * consisting of the file offset (5 bytes), the time in milliseconds (4 bytes) and hash
+ * values of the type, user and address (4 bytes each). The times are non-decreasing, as
+ * they are adjusted to the time of the preceding entry if necessary. The index is only used
+ * if it starts with the first line of the log file.
+ *
  * @author BaseX Team 2005-24, BSD License
  * @author Christian Gruen
  */
 public final class LogFile {
+  /** Suffix of index files. */
+  private static final String IDXSUFFIX = ".idx";
+  /** Size of an index entry. */
+  private static final int ENTRY = 21;
+  /** Tolerance for times of log entries that precede the time of the index entry. */
+  private static final int SLACK = 1000;
+
   /** File reference. */
   private final IOFile file;
+  /** Index file reference. */
+  private final IOFile index;
   /** Output stream. */
-  private FileOutputStream fos;
+  private BufferOutput out;
+  /** Index output stream. */
+  private DataOutput idx;
+  /** Current file offset. */
+  private long offset;
+  /** Time of the last index entry. */
+  private int time;
 
   /**
    * Creates a new writable log file for the specified date.
@@ -28,7 +54,10 @@ public final class LogFile {
   static LogFile create(final String name, final IOFile dir) throws IOException {
     final LogFile lf = new LogFile(name, dir);
     dir.md();
-    lf.fos = new FileOutputStream(lf.file.file(), true);
+    lf.offset = lf.file.length();
+    if(lf.index.exists() && !lf.validIndex()) lf.index.delete();
+    lf.out = new BufferOutput(new FileOutputStream(lf.file.file(), true));
+    lf.idx = new DataOutput(new BufferOutput(new FileOutputStream(lf.index.file(), true)));
     return lf;
   }
 
@@ -39,6 +68,7 @@ public final class LogFile {
    */
   LogFile(final String name, final IOFile dir) {
     file = new IOFile(dir, name + IO.LOGSUFFIX);
+    index = new IOFile(dir, name + IDXSUFFIX);
   }
 
   /**
@@ -46,7 +76,7 @@ public final class LogFile {
    * @return result of check
    */
   public boolean current() {
-    return fos != null;
+    return out != null;
   }
 
   /**
@@ -55,12 +85,90 @@ public final class LogFile {
    * @throws IOException I/O exception
    */
   public StringList read() throws IOException {
+    return read(0, Integer.MAX_VALUE, null, null, null);
+  }
+
+  /**
+   * Returns the entries of the specified log file that match the specified criteria.
+   * Entries of legacy log files will always be returned.
+   * @param start minimum time in milliseconds
+   * @param end maximum time in milliseconds
+   * @param type type (ignored if {@code null})
+   * @param user user (ignored if {@code null})
+   * @param address address (ignored if {@code null})
+   * @return log entries
+   * @throws IOException I/O exception
+   */
+  public StringList read(final int start, final int end, final String type, final String user,
+      final String address) throws IOException {
+
     synchronized(file) {
       final StringList list = new StringList();
-      try(NewlineInput nli = new NewlineInput(file)) {
-        for(String line; (line = nli.readLine()) != null;) list.add(line);
+      final long size = index.length() / ENTRY;
+      if(size == 0) {
+        // no index available: parse all lines
+        try(NewlineInput nli = new NewlineInput(file)) {
+          for(String line; (line = nli.readLine()) != null;) {
+            if(matches(line, start, end, type, user, address)) list.add(line);
+          }
+        }
+        return list;
+      }
+
+      final DataAccess ia = new DataAccess(index), la = new DataAccess(file);
+      try {
+        if(ia.read5(0) != 0) {
+          // index does not start with the first line: parse all lines
+          la.cursor(0);
+          final ByteList bl = new ByteList();
+          while(la.more()) {
+            final byte b = la.read1();
+            if(b == '\n') {
+              final String line = line(bl.next());
+              if(matches(line, start, end, type, user, address)) list.add(line);
+            } else {
+              bl.add(b);
+            }
+          }
+          return list;
+        }
+
+        // find first entry
+        long l = 0, h = size;
+        final int min = start - SLACK;
+        while(l < h) {
+          final long m = l + h >>> 1;
+          if(ia.read4(m * ENTRY + 5) < min) l = m + 1;
+          else h = m;
+        }
+        // scan entries, compare hash values, parse matching lines
+        final int th = type != null ? type.hashCode() : 0;
+        final int uh = user != null ? user.hashCode() : 0;
+        final int ah = address != null ? address.hashCode() : 0;
+        final long ll = la.length();
+        for(long e = l; e < size; e++) {
+          final long pos = e * ENTRY;
+          if(ia.read4(pos + 5) > end + (long) SLACK) break;
+          if(type != null && ia.read4(pos + 9) != th) continue;
+          if(user != null && ia.read4(pos + 13) != uh) continue;
+          if(address != null && ia.read4(pos + 17) != ah) continue;
+
+          // skip lines that have not been completely written yet
+          final long off = ia.read5(pos);
+          final long next = Math.min(e + 1 < size ? ia.read5(pos + ENTRY) : ll, ll);
+          if(off >= next) break;
+          final byte[] bytes = la.readBytes(off, (int) (next - off));
+          int n = 0;
+          while(n < bytes.length && bytes[n] != '\n') n++;
+          if(n == bytes.length) break;
+          final String line = line(Arrays.copyOf(bytes, n));
+          if(matches(line, start, end, type, user, address)) list.add(line);
+        }
+        return list;
+      } finally {
+        ia.close();
+        la.close();
       }
-      return list;
     }
   }
 
@@ -70,6 +178,7 @@ public final class LogFile {
    */
   public boolean delete() {
     synchronized(file) {
+      index.delete();
       return file.delete();
     }
   }
@@ -85,14 +194,36 @@ public final class LogFile {
   }
 
   /**
-   * Writes new line to the log file.
+   * Writes new line to the log file. The line will be buffered until {@link #flush()} is called.
    * @param line line to be written
+   * @param ms time in milliseconds
+   * @param type type
+   * @param user user
+   * @param address address
    * @throws IOException I/O exception
    */
-  void write(final byte[] line) throws IOException {
+  void write(final byte[] line, final int ms, final String type, final String user,
+      final String address) throws IOException {
     synchronized(file) {
-      fos.write(line);
-      fos.flush();
+      out.write(line);
+      time = Math.max(time, ms);
+      idx.write5(offset);
+      idx.write4(time);
+      idx.write4(type.hashCode());
+      idx.write4(user.hashCode());
+      idx.write4(address.hashCode());
+      offset += line.length;
+    }
+  }
+
+  /**
+   * Writes buffered lines to disk.
+   * @throws IOException I/O exception
+   */
+  void flush() throws IOException {
+    synchronized(file) {
+      out.flush();
+      idx.flush();
     }
   }
 
@@ -102,9 +233,11 @@ public final class LogFile {
    */
   void close() throws IOException {
     synchronized(file) {
-      if(fos != null) {
-        fos.close();
-        fos = null;
+      if(out != null) {
+        out.close();
+        idx.close();
+        out = null;
+        idx = null;
       }
     }
   }
@@ -117,4 +250,94 @@ public final class LogFile {
   boolean valid(final String name) {
     return file.name().equals(name + IO.LOGSUFFIX);
   }
+
+  /**
+   * Returns the time of a log entry.
+   * @param string time string (format: {@code HH:mm[:ss[.SSS]]})
+   * @return time in milliseconds, or {@code -1} if the string is invalid
+   */
+  public static int time(final String string) {
+    final int sl = string.length();
+    if(sl != 5 && sl != 8 && sl != 12) return -1;
+    final String time = sl == 5 ? string + ":00.000" : sl == 8 ? string + ".000" : string;
+    if(time.charAt(2) != ':' || time.charAt(5) != ':' || time.charAt(8) != '.') return -1;
+    final int h = digits(time, 0, 2), m = digits(time, 3, 2), s = digits(time, 6, 2);
+    final int ms = digits(time, 9, 3);
+    if(h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59 || ms < 0) return -1;
+    return ((h * 60 + m) * 60 + s) * 1000 + ms;
+  }
+
+  /**
+   * Parses digits.
+   * @param string string
+   * @param start start position
+   * @param length number of digits
+   * @return value, or {@code -1} if a character is no digit
+   */
+  private static int digits(final String string, final int start, final int length) {
+    int v = 0;
+    for(int i = start; i < start + length; i++) {
+      final char ch = string.charAt(i);
+      if(ch < '0' || ch > '9') return -1;
+      v = v * 10 + ch - '0';
+    }
+    return v;
+  }
+
+  /**
+   * Checks if the index matches the log file. Otherwise, the log file was written by an
+   * older version, or the index was not completely written.
+   * @return result of check
+   * @throws IOException I/O exception
+   */
+  private boolean validIndex() throws IOException {
+    final long il = index.length();
+    if(il % ENTRY != 0) return false;
+    if(il == 0) return offset == 0;
+
+    // check if last indexed line ends with the log file
+    final DataAccess ia = new DataAccess(index), la = new DataAccess(file);
+    try {
+      final long off = ia.read5(il - ENTRY);
+      time = ia.read4(il - ENTRY + 5);
+      la.cursor(off);
+      while(la.more() && la.read1() != '\n');
+      return la.cursor() == offset && off < offset;
+    } finally {
+      ia.close();
+      la.close();
+    }
+  }
+
+  /**
+   * Checks if a log entry matches the specified criteria.
+   * @param line log line
+   * @param start minimum time in milliseconds
+   * @param end maximum time in milliseconds
+   * @param type type (ignored if {@code null})
+   * @param user user (ignored if {@code null})
+   * @param address address (ignored if {@code null})
+   * @return result of check
+   */
+  private static boolean matches(final String line, final int start, final int end,
+      final String type, final String user, final String address) {
+    final String[] cols = line.split("\t");
+    // legacy format
+    if(cols.length < 3) return true;
+    final int ms = time(cols[0]);
+    return (ms == -1 || ms >= start && ms <= end) &&
+      (address == null || address.equals(cols[1])) &&
+      (user == null || user.equals(cols[2])) &&
+      (type == null || cols.length > 3 && type.equals(cols[3]));
+  }
+
+  /**
+   * Converts the bytes of a log line to a string.
+   * @param bytes bytes
+   * @return line
+   */
+  private static String line(final byte[] bytes) {
+    final int bl = bytes.length;
+    return Token.string(bytes, 0, bl > 0 && bytes[bl - 1] == '\r' ? bl - 1 : bl);
+  }
 }
@@ -9,7 +9,12 @@ package org.basex.server;
 public enum ServerCmd {
   /** Code for creating a query process: {query}0. */
   QUERY(0),
-  /** Code for iterating results (obsolete). */
+  /**
+   * Code for executing the query and returning the results in windows: {id}0{size}0.
+   * With an empty id ({@code 0}), the server only confirms that windows are supported.
+   * Before windows were introduced, the code was obsolete and rejected with an error.
+   * Clients therefore check the code once per session and fall back to {@link #RESULTS}.
+   */
   NEXT(1),
   /** Code for closing the query: {id}0. */
   CLOSE(2),
@@ -33,6 +38,8 @@ public enum ServerCmd {
   PUTBINARY(13),
   /** Code for binding a context value: {id}0{val}0{type}0. */
   CONTEXT(14),
+  /** Code for running a batch of requests: {single job}{request}*0. */
+  BATCH(15),
   /** Code for returning the update flag: {id}0. */
   UPDATING(30),
   /** Code for executing a query and returning all information relevant for XQJ: {id}0. */
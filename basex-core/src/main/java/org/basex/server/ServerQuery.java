@@ -111,6 +111,22 @@ public final class ServerQuery extends Job {
    */
   public void execute(final OutputStream out, final boolean iterative, final boolean encode,
       final boolean full) throws IOException {
+    execute(out, iterative, encode, full, 0, null);
+  }
+
+  /**
+   * Executes the query and returns the results in windows. After each window, the iterator
+   * state is preserved until the client requests more results (1) or stops the evaluation (0).
+   * @param out output stream
+   * @param iterative iterative evaluation
+   * @param encode encode results (client/server communication, iterative processing)
+   * @param full return full type information (only applicable to iterative evaluation)
+   * @param window maximum number of items per window (0: no limit)
+   * @param in client input (only required if a window size is specified)
+   * @throws IOException I/O Exception
+   */
+  public void execute(final OutputStream out, final boolean iterative, final boolean encode,
+      final boolean full, final int window, final InputStream in) throws IOException {
 
     try {
       // parses the query and registers the process
@@ -128,7 +144,8 @@ public final class ServerQuery extends Job {
       final PrintOutput po = PrintOutput.get(encode ? new ServerOutput(out) : out);
       final SerializerOptions sopts = full ? SerializerMode.API.get() : qc.parameters();
       try(Serializer ser = Serializer.get(po, sopts)) {
-        for(Item item; (item = qc.next(iter)) != null;) {
+        for(Item item; (window == 0 || hits == 0 || hits % window != 0 || more(out, in)) &&
+            (item = qc.next(iter)) != null;) {
           if(iterative) {
             if(full) po.write(item.xdmInfo());
             else po.write(item.typeId().asByte());
@@ -165,6 +182,18 @@ public final class ServerQuery extends Job {
     }
   }
 
+  /**
+   * Sends the current window to the client and waits for its response.
+   * @param out output stream
+   * @param in client input
+   * @return {@code true} if more results are requested
+   * @throws IOException I/O Exception
+   */
+  private static boolean more(final OutputStream out, final InputStream in) throws IOException {
+    out.flush();
+    return in.read() == 1;
+  }
+
   /**
    * Generates a query plan.
    * @throws QueryIOException query I/O exception
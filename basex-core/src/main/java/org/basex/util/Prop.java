@@ -163,6 +163,14 @@ public final class Prop {
     OPTIONS.put(name, value);
   }
 
+  /**
+   * Removes a global option.
+   * @param option option
+   */
+  public static void remove(final Option<?> option) {
+    OPTIONS.remove(DBPREFIX + option.name().toLowerCase(Locale.ENGLISH));
+  }
+
   /**
    * Removes all global options.
    */
@@ -2,6 +2,8 @@ package org.basex.build;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
@@ -234,6 +236,67 @@ public final class AddDeleteTest extends SandboxTest {
     }
   }
 
+  /**
+   * Parses files in parallel.
+   */
+  @Test public void parallel() throws IOException {
+    final IOFile dir = new IOFile(sandbox(), "parallel");
+    dir.md();
+    for(int i = 0; i < 100; i++) {
+      write(new IOFile(dir, i + IO.XMLSUFFIX), "<x n='" + i + "'><?pi " + i + "?>" +
+          "<y xmlns='y'>" + i + "</y><!--" + i + "--></x>");
+    }
+    new IOFile(dir, "xml.zip").write(new IOFile(ZIPFILE).read());
+    write(new IOFile(dir, "corrupt.xml"), "<x");
+    final String query = "db:get('" + NAME + "') ! (db:path(.) || ':' || serialize(.))";
+
+    try {
+      set(MainOptions.SKIPCORRUPT, true);
+      execute(new Add("", dir.path()));
+      final String expected = query(query);
+      execute(new CreateDB(NAME));
+      set(MainOptions.PARSETHREADS, 4);
+      execute(new Add("", dir.path()));
+      assertEquals(expected, query(query));
+      assertEquals(104, docs());
+
+      set(MainOptions.SKIPCORRUPT, false);
+      assertThrows(BaseXException.class, () -> new Add("", dir.path()).execute(context));
+    } finally {
+      set(MainOptions.SKIPCORRUPT, false);
+      set(MainOptions.PARSETHREADS, 1);
+      dir.delete();
+    }
+  }
+
+  /**
+   * Parses a large file in a separate thread.
+   */
+  @Test public void pipeline() {
+    final StringBuilder sb = new StringBuilder("<x xmlns:p='p'>");
+    for(int i = 0; i < 20000; i++) {
+      sb.append("<p:y a='").append(i).append("' b='value ").append(i).append("'>text ").
+        append(i).append("<!--").append(i).append("--><?pi ").append(i).append("?></p:y>");
+    }
+    final IOFile file = new IOFile(TEMP);
+    write(file, sb.append("</x>").toString());
+    final String query = "string-join(//node() ! serialize(.))";
+
+    try {
+      execute(new CreateDB(NAME, file.path()));
+      final String expected = query(query);
+      set(MainOptions.PARSETHREADS, 2);
+      execute(new CreateDB(NAME, file.path()));
+      assertEquals(expected, query(query));
+
+      write(file, sb.append("<x>").toString());
+      assertThrows(BaseXException.class, () -> new CreateDB(NAME, file.path()).execute(context));
+    } finally {
+      set(MainOptions.PARSETHREADS, 1);
+      file.delete();
+    }
+  }
+
   /**
    * Returns the number of documents in the current database.
    * @return number of documents
@@ -0,0 +1,119 @@
+package org.basex.build;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.build.json.*;
+import org.basex.build.json.JsonOptions.JsonFormat;
+import org.basex.core.*;
+import org.basex.core.MainOptions.MainParser;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JSON Parser Test.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class JsonParserTest extends SandboxTest {
+  /** Temporary JSON file. */
+  private static final String TEMP = Prop.TEMPDIR + NAME + IO.JSONSUFFIX;
+  /** JSON input. */
+  private static final String JSON = "{ \"a\": 1, \"b c\": [ true, null, \"x\", [], {} ], "
+      + "\"d\": { \"_\": -1.5e3, \"e\": \" \" }, \"a\": { \"f\": [ 2 ] }, \"\": \"\" }";
+
+  /**
+   * Sets the initial options.
+   */
+  @BeforeAll public static void before() {
+    set(MainOptions.PARSER, MainParser.JSON);
+  }
+
+  /**
+   * Removes the temporary JSON file.
+   */
+  @AfterAll public static void after() {
+    new IOFile(TEMP).delete();
+    set(MainOptions.STRIPWS, false);
+  }
+
+  /**
+   * Drops the database.
+   */
+  @AfterEach public void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Compares the databases with the results of json:parse.
+   */
+  @Test public void formats() {
+    compare(JSON, "direct", false, false);
+    compare(JSON, "direct", true, false);
+    compare(JSON, "direct", false, true);
+    compare(JSON, "attributes", false, false);
+    compare(JSON, "attributes", true, false);
+    compare(JSON, "basic", false, false);
+    compare("[ \"a\", { \"b\": \"c\" }, [ \"d\" ] ]", "jsonml", false, false);
+
+    compare("123", "direct", false, false);
+    compare("\"abc\"", "attributes", true, false);
+    compare("[ null, [ 1 ] ]", "attributes", false, false);
+  }
+
+  /**
+   * Strips whitespace-only values.
+   */
+  @Test public void stripWS() {
+    set(MainOptions.JSONPARSER, new JsonParserOptions());
+    set(MainOptions.STRIPWS, true);
+    write(new IOFile(TEMP), "{ \"a\": \" \", \"b\": \"x\" }");
+    execute(new CreateDB(NAME, TEMP));
+    assertEquals("<json type=\"object\"><a/><b>x</b></json>", query("."));
+    set(MainOptions.STRIPWS, false);
+  }
+
+  /**
+   * Parses erroneous input.
+   */
+  @Test public void error() {
+    write(new IOFile(TEMP), "{ \"a\": 1,\n  \"b\": }");
+    try {
+      new CreateDB(NAME, TEMP).execute(context);
+      fail("Error expected.");
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage().contains("2/8"), ex.getMessage());
+    }
+  }
+
+  /**
+   * Creates a database from the specified input and compares it with the result of json:parse.
+   * Values of duplicate keys are ignored by the database parser.
+   * Input for other formats is converted in main memory and compared without duplicates.
+   * @param json JSON input
+   * @param format format
+   * @param strings strings flag
+   * @param merge merge flag
+   */
+  private static void compare(final String json, final String format, final boolean strings,
+      final boolean merge) {
+    final JsonParserOptions jopts = new JsonParserOptions();
+    jopts.set(JsonOptions.FORMAT, JsonFormat.valueOf(format.toUpperCase(Locale.ENGLISH)));
+    jopts.set(JsonOptions.STRINGS, strings);
+    jopts.set(JsonOptions.MERGE, merge);
+    set(MainOptions.JSONPARSER, jopts);
+
+    final String input = json.replace("\"a\": { \"f\": [ 2 ] }, ", "");
+    final boolean streamed = !merge && (format.equals("direct") || format.equals("attributes"));
+    write(new IOFile(TEMP), streamed ? json : input);
+    execute(new CreateDB(NAME, TEMP));
+    assertEquals(query("json:parse('" + input + "', map { 'format': '" + format +
+        "', 'strings': " + strings + "(), 'merge': " + merge + "() })"), query("."));
+  }
+}
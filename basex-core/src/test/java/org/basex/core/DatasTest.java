@@ -0,0 +1,116 @@
+package org.basex.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for keeping unused databases open.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class DatasTest extends SandboxTest {
+  /**
+   * Finalizes the test.
+   */
+  @AfterEach public void finish() {
+    execute(new DropDB(NAME + '*'));
+  }
+
+  /**
+   * Reuses an unpinned database.
+   */
+  @Test public void reuse() {
+    execute(new CreateDB(NAME, "<a/>"));
+    final Data data = context.data();
+    execute(new Close());
+    assertEquals(0, context.datas.pins(NAME));
+    assertFalse(data.closed());
+
+    execute(new Open(NAME));
+    assertSame(data, context.data());
+    assertEquals(1, context.datas.pins(NAME));
+    query("count(/a)", 1);
+  }
+
+  /**
+   * Updates an unpinned database.
+   */
+  @Test public void update() {
+    execute(new CreateDB(NAME, "<a/>"));
+    execute(new Close());
+    query("insert node <b/> into " + "db:get('" + NAME + "')/a");
+    query("count(db:get('" + NAME + "')//b)", 1);
+
+    // drop unpinned database and create new one
+    execute(new DropDB(NAME));
+    assertFalse(context.soptions.dbExists(NAME));
+    execute(new CreateDB(NAME, "<c/>"));
+    execute(new Close());
+    query("count(db:get('" + NAME + "')//b)", 0);
+  }
+
+  /**
+   * Renames an unpinned database.
+   */
+  @Test public void alter() {
+    execute(new CreateDB(NAME, "<a/>"));
+    final Data data = context.data();
+    execute(new Close());
+    execute(new AlterDB(NAME, NAME + '2'));
+    assertTrue(data.closed());
+
+    execute(new Open(NAME + '2'));
+    query("count(/a)", 1);
+    execute(new Close());
+    assertFalse(context.soptions.dbExists(NAME));
+  }
+
+  /**
+   * Overwrites an unpinned database.
+   */
+  @Test public void overwrite() {
+    execute(new CreateDB(NAME, "<a/>"));
+    execute(new Close());
+
+    execute(new CreateDB(NAME + '2', "<b/>"));
+    execute(new Close());
+    execute(new Copy(NAME + '2', NAME));
+    execute(new Open(NAME));
+    query("count(/b)", 1);
+    execute(new Close());
+
+    execute(new CreateDB(NAME + '3', "<c/>"));
+    execute(new Close());
+    execute(new AlterDB(NAME + '3', NAME));
+    execute(new Open(NAME));
+    query("count(/c)", 1);
+    execute(new Close());
+
+    // pinned target databases are not overwritten
+    execute(new Open(NAME));
+    assertFalse(new Copy(NAME + '2', NAME).run(context));
+    assertFalse(new AlterDB(NAME + '2', NAME).run(context));
+    query("count(/c)", 1);
+  }
+
+  /**
+   * Closes the least recently used database if the pool is full.
+   */
+  @Test public void size() {
+    final int max = context.soptions.get(StaticOptions.DBPOOL);
+    final Data[] datas = new Data[max + 1];
+    for(int d = 0; d <= max; d++) {
+      execute(new CreateDB(NAME + d, "<a/>"));
+      datas[d] = context.data();
+      execute(new Close());
+    }
+    assertTrue(datas[0].closed());
+    for(int d = 1; d <= max; d++) assertFalse(datas[d].closed());
+  }
+}
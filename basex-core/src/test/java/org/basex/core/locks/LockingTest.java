@@ -127,6 +127,58 @@ public final class LockingTest extends SandboxTest {
     th2.release();
   }
 
+  /**
+   * Fetch deferred write lock, then read lock, then commit.
+   * @throws InterruptedException Got interrupted.
+   */
+  @RepeatedTest(REPEAT)
+  public void deferredReadTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, NONE, objects, sync, true);
+    final LockTester th2 = new LockTester(sync, objects, NONE, test);
+
+    th1.start();
+    th2.start();
+    assertTrue(test.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 2 should be able to acquire lock.");
+    final CountDownLatch commit = th1.commit();
+    assertFalse(commit.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 1 shouldn't be able to commit yet.");
+    th2.release();
+    assertTrue(commit.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 1 should be able to commit now.");
+
+    final CountDownLatch test2 = new CountDownLatch(1);
+    final LockTester th3 = new LockTester(null, objects, NONE, test2);
+    th3.start();
+    assertFalse(test2.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 3 shouldn't be able to acquire lock yet.");
+    th1.release();
+    assertTrue(test2.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 3 should be able to acquire lock now.");
+    th3.release();
+  }
+
+  /**
+   * Fetch two deferred write locks.
+   * @throws InterruptedException Got interrupted.
+   */
+  @RepeatedTest(REPEAT)
+  public void deferredWriteTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, NONE, objects, sync, true);
+    final LockTester th2 = new LockTester(sync, NONE, objects, test, true);
+
+    th1.start();
+    th2.start();
+    assertFalse(test.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 2 shouldn't be able to acquire lock yet.");
+    th1.release();
+    assertTrue(test.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 2 should be able to acquire lock now.");
+    th2.release();
+  }
+
   /**
    * Test parallel transaction limit.
    * @throws InterruptedException Got interrupted.
@@ -508,12 +560,16 @@ public final class LockingTest extends SandboxTest {
             final CountDownLatch latch = new CountDownLatch(1);
             final String[] read = randomSubset(objects, true);
             final String[] write = randomSubset(objects, true);
-            final LockTester th = new LockTester(null, read, write, latch);
+            final boolean deferred = Math.random() < 0.5;
+            final LockTester th = new LockTester(null, read, write, latch, deferred);
             th.start();
             try {
               Thread.sleep(HOLD_TIME);
               if(!latch.await(FUZZING_THREADS * HOLD_TIME + WAIT, TimeUnit.MILLISECONDS))
                 throw new RuntimeException("Looks like thread is stuck in a deadlock.");
+              if(deferred && !th.commit().await(FUZZING_THREADS * HOLD_TIME + WAIT,
+                  TimeUnit.MILLISECONDS))
+                throw new RuntimeException("Looks like thread is stuck in a deadlock.");
             } catch(final InterruptedException e) {
               throw new RuntimeException(e);
             }
@@ -541,6 +597,8 @@ public final class LockingTest extends SandboxTest {
     private final Locks locks = new Locks();
     /** Flag indicating to release locks after being notified. */
     private volatile boolean requestRelease;
+    /** Latch to count down after committing (can be {@code null}). */
+    private volatile CountDownLatch committed;
 
     /**
      * Setup locking thread. Call {@code start} to lock, notify the thread to unlock.
@@ -551,6 +609,19 @@ public final class LockingTest extends SandboxTest {
      */
     LockTester(final CountDownLatch await, final String[] reads, final String[] writes,
         final CountDownLatch countDown) {
+      this(await, reads, writes, countDown, false);
+    }
+
+    /**
+     * Setup locking thread. Call {@code start} to lock, notify the thread to unlock.
+     * @param await latch to await (can be {@code null})
+     * @param reads strings to put read lock on (can be {@code null})
+     * @param writes strings to put write lock on (can be {@code null})
+     * @param countDown latch to count down after receiving locks
+     * @param deferred defer write locks until commit
+     */
+    LockTester(final CountDownLatch await, final String[] reads, final String[] writes,
+        final CountDownLatch countDown, final boolean deferred) {
 
       this.await = await;
       this.countDown = countDown;
@@ -564,6 +635,7 @@ public final class LockingTest extends SandboxTest {
       } else {
         for(final String write : writes) locks.writes.add(write);
       }
+      locks.deferred = deferred;
       locks.finish(context);
     }
 
@@ -585,9 +657,16 @@ public final class LockingTest extends SandboxTest {
         // we hold the lock, count down
         if(countDown != null) countDown.countDown();
 
-        // wait until we're asked to release the lock
+        // wait until we're asked to commit or release the lock
         synchronized(this) {
-          while(!requestRelease) wait();
+          while(!requestRelease && committed == null) wait();
+        }
+        if(committed != null) {
+          locking.commit();
+          committed.countDown();
+          synchronized(this) {
+            while(!requestRelease) wait();
+          }
         }
 
         locking.release();
@@ -605,5 +684,15 @@ public final class LockingTest extends SandboxTest {
       requestRelease = true;
       notifyAll();
     }
+
+    /**
+     * Requests the tester to acquire its deferred locks.
+     * @return latch that will be counted down after committing
+     */
+    public synchronized CountDownLatch commit() {
+      committed = new CountDownLatch(1);
+      notifyAll();
+      return committed;
+    }
   }
 }
@@ -164,14 +164,14 @@ public final class ServerLockingTest extends SandboxTest {
   }
 
   /**
-   * Read from and write to the same database.
+   * Read from and write to the same database (readers only wait for commits).
    * @throws Exception none expected
    */
   @Test public void readWriteDatabase() throws Exception {
     testQueries(
         f("(db:get('%s'), %s)", NAME, Q),
         f("insert nodes %s into db:get('%s')", Q, NAME),
-        false);
+        true);
   }
 
   /**
@@ -186,14 +186,14 @@ public final class ServerLockingTest extends SandboxTest {
   }
 
   /**
-   * Read from a database, perform global write lock.
+   * Read from a database, write to the same database (readers only wait for commits).
    * @throws Exception none expected
    */
   @Test public void readDatabasesGlobalWrite() throws Exception {
     testQueries(
         f("(db:get('%s'), %s)", NAME, Q),
         f("for $i in ('%s') return insert nodes %s into db:get($i)", NAME, Q),
-        false);
+        true);
   }
 
   /**
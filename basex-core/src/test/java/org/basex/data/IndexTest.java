@@ -6,6 +6,7 @@ import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.*;
 import org.junit.jupiter.params.provider.*;
 
@@ -22,6 +23,8 @@ public final class IndexTest extends SandboxTest {
   @AfterEach public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.FTINCLUDE, "");
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -199,6 +202,62 @@ public final class IndexTest extends SandboxTest {
     execute(new Delete("A"));
   }
 
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltext() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>A B</a></x>"));
+    for(int i = 0; i < 5; i++) {
+      execute(new Put(NAME + ".xml", "<x><a>A B</a><a>C</a></x>"));
+      execute(new Put(NAME + ".xml", "<x><a>A D</a><a>Cobra Cobra</a></x>"));
+    }
+    final String tokens = "string-join(" + _FT_TOKENS.args(NAME) + " ! (. || @count), ',')";
+    query(_FT_SEARCH.args(NAME, "A"), "A D");
+    query(_FT_SEARCH.args(NAME, "B"), "");
+    query(_FT_SEARCH.args(NAME, "C"), "");
+    query(_FT_SEARCH.args(NAME, "d*", " map { 'wildcards': true() }"), "A D");
+    query(_FT_SEARCH.args(NAME, "cobre", " map { 'fuzzy': true() }"), "Cobra Cobra");
+    query("//a[text() contains text 'd']", "<a>A D</a>");
+    query(tokens, "a1,d1,cobra2");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+
+    // updates are persistent
+    execute(new Close());
+    execute(new Open(NAME));
+    query(_FT_SEARCH.args(NAME, "D"), "A D");
+    query(_FT_SEARCH.args(NAME, "B"), "");
+
+    // value updates
+    query("replace value of node //a[1] with 'E F'");
+    query(_FT_SEARCH.args(NAME, "E"), "E F");
+    query(_FT_SEARCH.args(NAME, "A"), "");
+    query(tokens, "e1,f1,cobra2");
+
+    // merge updates
+    execute(new Optimize());
+    query(_FT_SEARCH.args(NAME, "E"), "E F");
+    query(_FT_SEARCH.args(NAME, "A"), "");
+    query(tokens, "e1,f1,cobra2");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+  }
+
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltextRename() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    set(MainOptions.FTINCLUDE, "a");
+    execute(new CreateDB(NAME, "<x><a>A</a><b>B</b></x>"));
+    query(_FT_SEARCH.args(NAME, "B"), "");
+    query("rename node //b as 'a'");
+    query(_FT_SEARCH.args(NAME, "B"), "B");
+    query("rename node //a[1] as 'c'");
+    query(_FT_SEARCH.args(NAME, "A"), "");
+  }
+
   /**
    * Test.
    * @param mainmem main memory flag.
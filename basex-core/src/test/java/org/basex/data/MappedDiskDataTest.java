@@ -0,0 +1,60 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test updates when using disk storage with a memory-mapped table ({@link StaticOptions#MMAP}).
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedDiskDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(MappedDiskDataTest.class);
+
+  @Override
+  @BeforeEach public void setUp() {
+    context.soptions.set(StaticOptions.MMAP, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @AfterEach public void cleanUp() {
+    execute(new DropDB(dbName));
+    context.soptions.set(StaticOptions.MMAP, false);
+  }
+
+  /**
+   * Spreads the table across multiple pages and deletes nodes in between.
+   */
+  @Test public void pages() {
+    query("insert node (1 to 5000) ! <n>{ . }</n> into /a");
+    query("delete node /a/n[. > 100 and . < 900]");
+    execute(new Close());
+    execute(new Open(dbName));
+    assertEquals("4201", query("count(/a/n)"));
+    assertEquals("5000", query("/a/n[last()] ! string()"));
+    query("delete node /a/n[. < 4000]");
+    assertEquals("4000", query("/a/n[1] ! string()"));
+  }
+
+  /**
+   * Closes and reopens the database, which releases and recreates the mapping.
+   */
+  @Test public void reopen() {
+    for(int r = 0; r < 3; r++) {
+      execute(new Close());
+      context.datas.evict(dbName);
+      execute(new Open(dbName));
+      assertEquals("1", query("count(/a)"));
+    }
+  }
+}
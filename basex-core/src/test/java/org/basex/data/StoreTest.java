@@ -3,9 +3,14 @@ package org.basex.data;
 import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+
 import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 
@@ -73,6 +78,103 @@ public final class StoreTest extends SandboxTest {
     assertEquals(size, context.data().meta.dbFile(DataText.DATATXT).length());
   }
 
+  /**
+   * Reclaims unused space in the heap files.
+   */
+  @Test public void compact() {
+    execute(new Close());
+    query(_DB_CREATE.args(NAME, " <x>{ (1 to 1000) ! "
+        + "<a b='attribute value { . }'>text value { . }</a> }</x>", "x.xml"));
+    execute(new Open(NAME));
+    query(_DB_PROPERTY.args(NAME, "reclaimable"), 0);
+
+    query("delete node (//a)[position() mod 2 = 0]");
+    query("for $a in (//a)[position() mod 3 = 0] "
+        + "return replace value of node $a/@b with 'x' || $a");
+    execute(new Flush());
+    final String result = query(_DB_GET.args(NAME));
+    final MetaData meta = context.data().meta;
+    final long size = meta.dbFile(DataText.DATATXT).length();
+    assertTrue(meta.reclaimable(true) > 0);
+    assertTrue(meta.reclaimable(false) > 0);
+    assertTrue(execute(new InfoDB()).contains(MetaProp.RECLAIMABLE.name()));
+
+    execute(new Optimize());
+    execute(new Flush());
+    query(_DB_PROPERTY.args(NAME, "reclaimable"), 0);
+    assertTrue(meta.dbFile(DataText.DATATXT).length() < size);
+    assertEquals(result, query(_DB_GET.args(NAME)));
+
+    // sizes of the entries are persistent and are updated incrementally
+    execute(new Close());
+    execute(new Open(NAME));
+    query("delete node //a[ends-with(., '5')]");
+    execute(new Flush());
+    assertTrue(context.data().meta.reclaimable(true) > 0);
+    execute(new Optimize());
+    assertEquals(query(_DB_GET.args(NAME) + "/x/a ! string()"),
+        query("(1 to 1000)[. mod 2 != 0 and . mod 5 != 0] ! ('text value ' || .)"));
+  }
+
+  /**
+   * Recovers from interrupted compactions.
+   * @throws IOException I/O exception
+   */
+  @Test public void compactRecover() throws IOException {
+    close();
+    query(_DB_CREATE.args(NAME, " <x>{ (1 to 1000) ! <a>text value { . }</a> }</x>", "x.xml"));
+    execute(new Open(NAME));
+    query("delete node (//a)[position() mod 2 = 0]");
+    execute(new Flush());
+    final String result = query(_DB_GET.args(NAME));
+    final MetaData meta = context.data().meta;
+    final IOFile txt = meta.dbFile(DataText.DATATXT), tbl = meta.dbFile(DataText.DATATBL);
+    final IOFile tmp = meta.dbFile(DataText.DATATXT + DataText.DATATMP);
+    final IOFile refs = meta.dbFile(DataText.DATATXT + DataText.DATAREF);
+    close();
+
+    // interrupted before the old heap file was deleted: temporary files are discarded
+    tmp.write(Token.token("tmp"));
+    refs.write(Token.token("refs"));
+    execute(new Open(NAME));
+    assertFalse(tmp.exists());
+    assertFalse(refs.exists());
+    assertEquals(result, query(_DB_GET.args(NAME)));
+    close();
+
+    // interrupted before the references in the table were updated: compaction is completed
+    final byte[] table = tbl.read();
+    execute(new Open(NAME));
+    execute(new Optimize());
+    final Data data = context.data();
+    try(DataOutput out = new DataOutput(refs)) {
+      final int size = data.meta.size;
+      for(int pre = 0; pre < size; pre++) {
+        final int kind = data.kind(pre);
+        if(kind == Data.ELEM || kind == Data.ATTR) continue;
+        final long ref = data.textRef(pre);
+        if(!Inline.inlined(ref)) out.write5(ref);
+      }
+    }
+    close();
+    assertTrue(txt.rename(tmp));
+    tbl.write(table);
+
+    execute(new Open(NAME));
+    assertTrue(txt.exists());
+    assertFalse(tmp.exists());
+    assertFalse(refs.exists());
+    assertEquals(result, query(_DB_GET.args(NAME)));
+  }
+
+  /**
+   * Closes the database and evicts the idle instance, so it will be reopened from disk.
+   */
+  private static void close() {
+    execute(new Close());
+    context.datas.evict(NAME);
+  }
+
   /**
    * Tests the {@link MainOptions#UPDINDEX} and {@link MainOptions#AUTOFLUSH} flags in combination.
    * Reaction on a bug (incremental value index was not correctly closed)
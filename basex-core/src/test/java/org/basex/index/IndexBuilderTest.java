@@ -0,0 +1,175 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.core.parse.Commands.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building index structures in parallel.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexBuilderTest extends SandboxTest {
+  /** Query for creating the database (document is large enough to be partitioned). */
+  private static final String CREATE = "db:create('" + NAME + "', <x>{ (1 to 40000) ! "
+      + "<a b='{ . mod 700 }' c='x{ . mod 70 } y{ . mod 7 }'>{ 'text' || . mod 1000 || ' token' "
+      + "|| . mod 13 }</a> }</x>, '" + NAME + ".xml', "
+      + "map { 'tokenindex': true(), 'ftindex': true() })";
+  /** Queries. */
+  private static final String[] QUERIES = {
+    "index:texts('" + NAME + "') ! (string() || ':' || @count)",
+    "index:attributes('" + NAME + "') ! (string() || ':' || @count)",
+    "index:tokens('" + NAME + "') ! (string() || ':' || @count)",
+    "ft:tokens('" + NAME + "') ! (string() || ':' || @count)",
+    "sum(db:text('" + NAME + "', ('text1 token1', 'text999 token11')) ! db:node-pre(.))",
+    "sum(db:token('" + NAME + "', 'y3') ! db:node-pre(.))",
+    "sum(ft:search('" + NAME + "', 'token5') ! db:node-pre(.))",
+  };
+
+  /**
+   * Initializes the test.
+   */
+  @BeforeEach public void init() {
+    set(MainOptions.TEXTINDEX, true);
+    set(MainOptions.ATTRINDEX, true);
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+  }
+
+  /**
+   * Finalizes the test.
+   */
+  @AfterEach public void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
+    IndexBuilder.threads(0);
+    IndexBuilder.buffer(0);
+  }
+
+  /**
+   * Compares indexes built by a single and multiple threads.
+   */
+  @Test public void parallel() {
+    compare();
+  }
+
+  /**
+   * Compares indexes built by a single and multiple threads, with partial index structures.
+   */
+  @Test public void splits() {
+    set(MainOptions.SPLITSIZE, 1);
+    compare();
+  }
+
+  /**
+   * Compares indexes built with and without a small index buffer.
+   */
+  @Test public void buffer() {
+    IndexBuilder.threads(1);
+    create();
+    final String[] results = new String[QUERIES.length];
+    for(int q = 0; q < QUERIES.length; q++) results[q] = query(QUERIES[q]);
+
+    IndexBuilder.buffer(1);
+    execute(new OptimizeAll());
+    assertTrue(execute(new InfoIndex(CmdIndexInfo.TEXT)).contains(Text.LI_SPILLS));
+    for(int q = 0; q < QUERIES.length; q++) assertEquals(results[q], query(QUERIES[q]), QUERIES[q]);
+  }
+
+  /**
+   * Checks the information on partial index structures.
+   */
+  @Test public void spills() {
+    set(MainOptions.SPLITSIZE, 1);
+    IndexBuilder.threads(4);
+    create();
+    assertTrue(execute(new InfoIndex(CmdIndexInfo.TEXT)).contains(Text.LI_SPILLS));
+    assertTrue(execute(new InfoIndex(CmdIndexInfo.FULLTEXT)).contains(Text.LI_SPILLS));
+
+    // information is persistent
+    execute(new Close());
+    execute(new Open(NAME));
+    assertTrue(execute(new InfoIndex(CmdIndexInfo.ATTRIBUTE)).contains(Text.LI_SPILLS));
+
+    // information is dropped with the index
+    execute(new DropIndex(CmdIndex.ATTRIBUTE));
+    IndexBuilder.threads(1);
+    execute(new CreateIndex(CmdIndex.ATTRIBUTE));
+    assertFalse(execute(new InfoIndex(CmdIndexInfo.ATTRIBUTE)).contains(Text.LI_SPILLS));
+  }
+
+  /**
+   * Runs nested tasks in the shared pool, and stops tasks after an error.
+   * @throws IOException I/O exception
+   */
+  @Test public void run() throws IOException {
+    // nested tasks must not block the pool
+    IndexBuilder.threads(1);
+    final AtomicInteger count = new AtomicInteger();
+    final ArrayList<Callable<Void>> tasks = new ArrayList<>();
+    for(int t = 0; t < 4; t++) {
+      tasks.add(() -> {
+        final ArrayList<Callable<Void>> nested = new ArrayList<>();
+        for(int n = 0; n < 4; n++) {
+          nested.add(() -> {
+            count.incrementAndGet();
+            return null;
+          });
+        }
+        IndexBuilder.run(nested, () -> { });
+        return null;
+      });
+    }
+    IndexBuilder.run(tasks, () -> { });
+    assertEquals(16, count.get());
+
+    // first error is passed on, remaining tasks are stopped
+    final AtomicBoolean stopped = new AtomicBoolean();
+    tasks.clear();
+    tasks.add(() -> {
+      throw new IOException("error");
+    });
+    tasks.add(() -> null);
+    assertThrows(IOException.class, () -> IndexBuilder.run(tasks, () -> stopped.set(true)));
+    assertTrue(stopped.get());
+  }
+
+  /**
+   * Creates and opens the database.
+   */
+  private static void create() {
+    query(CREATE);
+    execute(new Open(NAME));
+  }
+
+  /**
+   * Builds the indexes with a single and multiple threads and compares the results.
+   */
+  private static void compare() {
+    IndexBuilder.threads(1);
+    create();
+    final String[] results = new String[QUERIES.length];
+    for(int q = 0; q < QUERIES.length; q++) results[q] = query(QUERIES[q]);
+
+    IndexBuilder.threads(4);
+    execute(new OptimizeAll());
+    for(int q = 0; q < QUERIES.length; q++) assertEquals(results[q], query(QUERIES[q]), QUERIES[q]);
+
+    query("db:optimize('" + NAME + "', false(), map { 'textindex': false(), 'ftindex': false() })");
+    query("db:optimize('" + NAME + "', false(), map { 'textindex': true(), 'ftindex': true() })");
+    for(int q = 0; q < QUERIES.length; q++) assertEquals(results[q], query(QUERIES[q]), QUERIES[q]);
+  }
+}
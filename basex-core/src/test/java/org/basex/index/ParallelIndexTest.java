@@ -0,0 +1,82 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs parallel queries on the disk-based value and full-text indexes.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends SandboxTest {
+  /** Queries. */
+  private static final String[] QUERIES = {
+    "count(db:text('" + NAME + "', string(1 to 2000 ! (. mod 100))))",
+    "count(db:attribute('" + NAME + "', string(1 to 2000 ! (. mod 50))))",
+    "count(db:token('" + NAME + "', 'x' || 1 to 2000 ! (. mod 10)))",
+    "sum(index:texts('" + NAME + "') ! string-length())",
+    "count(ft:search('" + NAME + "', string(1 to 500 ! (. mod 100))))",
+    "count(ft:search('" + NAME + "', '1.*', map { 'wildcards': true() }))",
+    "count(ft:search('" + NAME + "', '123', map { 'fuzzy': true() }))",
+  };
+  /** Error. */
+  private volatile Throwable error;
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void init() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x>{ (1 to 10000) ! <a b='{ . mod 50 }' c='x{ . mod 10 }'>{ . mod "
+        + "1000 }</a> }</x>"));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /**
+   * Test.
+   * @throws Throwable throwable
+   */
+  @Test public void test() throws Throwable {
+    // generate reference results
+    final String[] results = new String[QUERIES.length];
+    for(int q = 0; q < QUERIES.length; q++) results[q] = query(QUERIES[q]);
+    // reopen database to discard cached index entries
+    execute(new Close());
+    execute(new Open(NAME));
+
+    final ArrayList<Thread> threads = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      final int offset = t;
+      threads.add(new Thread(() -> {
+        try {
+          for(int q = 0; q < QUERIES.length; q++) {
+            final int i = (q + offset) % QUERIES.length;
+            assertEquals(results[i], query(QUERIES[i]));
+          }
+        } catch(final Throwable th) {
+          error = th;
+        }
+      }));
+    }
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    if(error != null) throw error;
+  }
+}
@@ -0,0 +1,107 @@
+package org.basex.index.resource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for looking up documents by their paths.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class ResourcesTest extends SandboxTest {
+  /** Directories. */
+  private static final String[] DIRS = { "", "a/", "a/b/", "a/b!/", "ab/", "a/b/c/", "b/" };
+  /** Paths to check. */
+  private static final String[] LOOKUPS = { "", "a", "a/", "a/b", "a/b/", "a/b!", "ab", "a/b/c",
+    "a/b/c/", "b", "c", "a/1.xml", "a/b/2.xml", "x/" };
+
+  /**
+   * Finalizes the test.
+   */
+  @AfterEach public void finish() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Adds, renames and deletes documents and compares the lookups with the expected results.
+   */
+  @Test public void lookups() {
+    execute(new CreateDB(NAME));
+    final ArrayList<String> paths = new ArrayList<>();
+    final Random random = new Random(1);
+    for(int i = 0; i < 300; i++) {
+      final String path = DIRS[random.nextInt(DIRS.length)] + random.nextInt(20) + ".xml";
+      final int op = random.nextInt(4);
+      if(op == 0 && !paths.isEmpty()) {
+        final String old = paths.get(random.nextInt(paths.size()));
+        execute(new Rename(old, path));
+        paths.replaceAll(p -> p.equals(old) ? path : p);
+      } else if(op == 1 && !paths.isEmpty()) {
+        final String old = paths.get(random.nextInt(paths.size()));
+        execute(new Delete(old));
+        paths.removeIf(old::equals);
+      } else {
+        execute(new Add(path, "<x/>"));
+        paths.add(path);
+      }
+      if(i % 50 == 0) {
+        // path order is persisted
+        execute(new Close());
+        execute(new Open(NAME));
+      }
+      check(paths);
+    }
+  }
+
+  /**
+   * Compares the results of path lookups.
+   * @param paths expected paths
+   */
+  private static void check(final List<String> paths) {
+    final Data data = context.data();
+    final Resources resources = data.resources;
+    for(final String lookup : LOOKUPS) {
+      final String dir = lookup.isEmpty() || lookup.endsWith("/") ? lookup : lookup + '/';
+      final TreeSet<String> docs = new TreeSet<>(), exact = new TreeSet<>();
+      for(final String path : paths) {
+        if(path.equals(lookup)) exact.add(path);
+        if(path.startsWith(dir) || path.equals(lookup)) docs.add(path);
+      }
+
+      final TreeSet<String> found = new TreeSet<>();
+      for(final int pre : resources.docs(lookup).toArray()) {
+        found.add(Token.string(data.text(pre, true)));
+      }
+      assertEquals(docs, found, lookup);
+
+      final int pre = resources.doc(lookup);
+      assertEquals(!exact.isEmpty(), pre != -1, lookup);
+      if(pre != -1) assertEquals(lookup, Token.string(data.text(pre, true)));
+      if(!lookup.isEmpty() && !lookup.endsWith("/")) {
+        assertEquals(!docs.equals(exact), resources.isDir('/' + lookup), lookup);
+      }
+
+      final TreeSet<String> children = new TreeSet<>();
+      for(final String path : paths) {
+        if(path.startsWith(dir) && path.indexOf('/', dir.length()) == -1) {
+          children.add(path.substring(dir.length()));
+        }
+      }
+      final TreeSet<String> files = new TreeSet<>();
+      for(final byte[] child : resources.children(dir.replaceAll("/$", ""), false)) {
+        if(child != null) files.add(Token.string(child));
+      }
+      assertEquals(children, files, lookup);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link PageCache}.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCacheTest {
+  /** Number of blocks in the test file. */
+  private static final int BLOCKS = 64;
+
+  /** Temporary file. */
+  private IOFile file;
+
+  /**
+   * Creates a temporary file and enables the cache.
+   * @throws IOException I/O exception
+   */
+  @BeforeEach public void setUp() throws IOException {
+    file = new IOFile(File.createTempFile("page", IO.BASEXSUFFIX));
+    try(DataAccess da = new DataAccess(file)) {
+      for(int b = 0; b < BLOCKS; b++) da.write4((long) b * IO.BLOCKSIZE, b);
+    }
+    PageCache.get().size(1);
+  }
+
+  /**
+   * Disables the cache and deletes the temporary file.
+   */
+  @AfterEach public void tearDown() {
+    PageCache.get().size(0);
+    file.delete();
+  }
+
+  /**
+   * Repeated reads are served from the cache.
+   * @throws IOException I/O exception
+   */
+  @Test public void hits() throws IOException {
+    final PageCache cache = PageCache.get();
+    try(DataAccess da = new DataAccess(file)) {
+      for(int r = 0; r < 2; r++) {
+        for(int b = 0; b < BLOCKS; b++) assertEquals(b, da.read4((long) b * IO.BLOCKSIZE));
+      }
+      assertTrue(cache.hits() > 0);
+      assertTrue(cache.misses() >= BLOCKS);
+      assertTrue(cache.pages() > 0);
+    }
+    // pages of closed files are discarded
+    assertEquals(0, cache.pages());
+  }
+
+  /**
+   * Written pages are updated in the cache.
+   * @throws IOException I/O exception
+   */
+  @Test public void update() throws IOException {
+    try(DataAccess da = new DataAccess(file)) {
+      for(int r = 0; r < 2; r++) {
+        for(int b = 0; b < BLOCKS; b++) {
+          final long pos = (long) b * IO.BLOCKSIZE;
+          assertEquals(b * (r + 1), da.read4(pos));
+          da.write4(pos, b * (r + 2));
+        }
+      }
+      for(int b = 0; b < BLOCKS; b++) assertEquals(b * 3, da.read4((long) b * IO.BLOCKSIZE));
+    }
+  }
+
+  /**
+   * Readers use cached pages without copying them, and cached pages are never modified.
+   * @throws IOException I/O exception
+   */
+  @Test public void reader() throws IOException {
+    final PageCache cache = PageCache.get();
+    try(DataAccess da = new DataAccess(file)) {
+      for(int b = 0; b < BLOCKS; b++) da.read4((long) b * IO.BLOCKSIZE);
+      // pages are now cached, and the current buffer of the data access is the last page
+      final DataReader reader = da.reader();
+      final long hits = cache.hits();
+      assertEquals(1, reader.read4(IO.BLOCKSIZE));
+      assertEquals(hits + 1, cache.hits());
+
+      final int id = PageCache.id();
+      final byte[] data = new byte[IO.BLOCKSIZE];
+      cache.add(id, 0, data);
+      final byte[] page = cache.page(id, 0);
+      data[0] = 1;
+      cache.update(id, 0, data);
+      assertEquals(0, page[0]);
+      assertEquals(1, cache.page(id, 0)[0]);
+    }
+  }
+
+  /**
+   * Cache size.
+   */
+  @Test public void size() {
+    final PageCache cache = PageCache.get();
+    cache.size(0);
+    assertFalse(cache.read(PageCache.id(), 0, new byte[IO.BLOCKSIZE]));
+    assertEquals(0, cache.misses());
+
+    cache.size(1);
+    final int id = PageCache.id();
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    final int max = (1 << 20) / IO.BLOCKSIZE;
+    for(int p = 0; p < max * 2; p++) {
+      data[0] = (byte) p;
+      cache.add(id, (long) p * IO.BLOCKSIZE, data);
+    }
+    assertTrue(cache.pages() <= max, Util.info("% > %", cache.pages(), max));
+  }
+}
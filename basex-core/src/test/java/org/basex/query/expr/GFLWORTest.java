@@ -4,15 +4,23 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+import java.nio.file.*;
+
 import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.basex.query.expr.constr.*;
 import org.basex.query.expr.gflwor.*;
+import org.basex.query.expr.index.*;
 import org.basex.query.up.expr.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 
 /**
  * Test cases for FLWOR expressions.
@@ -460,4 +468,118 @@ public final class GFLWORTest extends SandboxTest {
     query("for sliding window $w in 1 to 3 start at $p when true()"
         + "only end when $p = 2 return <w>{ $w }</w>", "<w>2</w>");
   }
+
+  /** Hash joins. */
+  @Test public void hashJoin() {
+    check("count(let $c := (1 to 20) ! <c id='{ . mod 7 }'/> "
+        + "for $o in (1 to 10) ! <o cid='{ . }'/> "
+        + "for $x in $c[@id = $o/@cid] return $x)", 18, exists(HashJoin.class));
+    check("count(let $c := (1 to 20) ! <c id='{ . mod 7 }'/> "
+        + "for $o in (1 to 10) ! <o cid='{ . }'/>, $x in $c "
+        + "where $x/@id = $o/@cid return $x)", 18, exists(HashJoin.class));
+    check("for $i in (1 to 6) ! (. * 2) for $j in (1 to 30)[. mod 10 = $i] return $j",
+        "2\n12\n22\n4\n14\n24\n6\n16\n26\n8\n18\n28", exists(HashJoin.class));
+    check("for $i in (1 to 3) ! (. * 2) return (1 to 9)[. = ($i + 3, $i)]",
+        "2\n5\n4\n7\n6\n9", exists(HashJoin.class));
+
+    // input depends on outer loop
+    check("for $i in (1 to 3) ! (. * 2) for $j in ($i to 9)[. = $i + 1] return $j",
+        "3\n5\n7", empty(HashJoin.class));
+    // positional predicate
+    check("for $i in (1 to 3) ! (. * 2) for $j in (1 to 9)[. = $i][1] return $j",
+        "2\n4\n6", empty(HashJoin.class));
+  }
+
+  /** Hash joins on database paths. */
+  @Test public void hashJoinDb() {
+    query(_DB_CREATE.args(NAME, " <x>{ (1 to 20) ! <c id='{ . mod 7 }'/> }</x>", "c.xml",
+        " map { 'attrindex': false() }"));
+    query(_DB_CREATE.args(NAME + "o", " <x>{ (1 to 10) ! <o cid='{ . }'/> }</x>", "o.xml"));
+    final String query = "count(for $o in " + _DB_GET.args(NAME + "o") + "//o "
+        + "for $c in " + _DB_GET.args(NAME) + "//c[@id = $o/@cid] return $c)";
+
+    // no index: hash join
+    check(query, 18, exists(HashJoin.class), empty(ValueAccess.class));
+    // attribute index: index access
+    query(_DB_OPTIMIZE.args(NAME, false, " map { 'attrindex': true() }"));
+    check(query, 18, empty(HashJoin.class), exists(ValueAccess.class));
+    query(_DB_DROP.args(NAME + "o"));
+  }
+
+  /** Sorts and groups tuples that exceed the main memory limit. */
+  @Test public void spill() {
+    final String[] queries = {
+      "for $i in 1 to 100 order by $i mod 7, -$i return $i",
+      "for $i in 1 to 100 order by string($i) descending return $i",
+      "for $i in (1 to 50) ! (if(. mod 10 = 0) then () else .) "
+          + "order by $i empty greatest return $i",
+      "for $i in 1 to 100 let $d := xs:date('2000-01-01') + xs:dayTimeDuration('P' || $i || 'D') "
+          + "order by $i mod 3 return $d",
+      "for $n in db:get('" + NAME + "')//node() order by name($n) return $n",
+      "for $i in 1 to 100 let $e := <e>{ $i }</e> order by $i mod 5 return $e",
+      "sort(for $i in 1 to 100 group by $k := $i mod 13 return $k || ':' || sum($i))",
+      "sort(for $i in 1 to 100 let $s := string($i mod 3) group by $k := $i mod 7, $s "
+          + "return $k || $s || ':' || string-join($i, ','))",
+      "sort(for $n in db:get('" + NAME + "')//node() group by $k := name($n) "
+          + "return $k || count($n))",
+      "sort(for $i in 1 to 100 let $e := <e>{ $i }</e> group by $k := $i mod 4 "
+          + "return $k || ':' || count($e) || ':' || sum($e))",
+    };
+    execute(new CreateDB(NAME, "<a><b>x</b><c>y</c><b>z</b><d><b/></d>text</a>"));
+    try {
+      for(final String query : queries) {
+        set(MainOptions.SPILLLIMIT, 0);
+        final String expected = query(query);
+        set(MainOptions.SPILLLIMIT, 10);
+        query(query, expected);
+      }
+    } finally {
+      set(MainOptions.SPILLLIMIT, MainOptions.SPILLLIMIT.value());
+    }
+  }
+
+  /**
+   * Closes the streams of temporary files if tuples are only partially consumed.
+   * @throws IOException I/O exception
+   */
+  @Test public void spillClose() throws IOException {
+    set(MainOptions.SPILLLIMIT, 10);
+    try {
+      query("head(for $i in 1 to 100 order by -$i return $i)", 100);
+      query("head(for $i in 1 to 100 group by $k := $i mod 17 order by $k return $k)", 0);
+      error("for $i in 1 to 100 order by -$i return if($i < 50) then error() else $i", FUNERR1);
+    } finally {
+      set(MainOptions.SPILLLIMIT, MainOptions.SPILLLIMIT.value());
+    }
+    // check that no file descriptors refer to temporary files
+    final File fds = new File("/proc/self/fd");
+    final File[] links = fds.listFiles();
+    if(links == null) return;
+    for(final File link : links) {
+      try {
+        final String target = Files.readSymbolicLink(link.toPath()).toString();
+        assertFalse(target.contains(Prop.PROJECT + '-') && target.contains(IO.TMPSUFFIX), target);
+      } catch(final IOException | UnsupportedOperationException ex) {
+        Util.debug(ex);
+      }
+    }
+  }
+
+  /** Evaluates FLWOR expressions in parallel. */
+  @Test public void parallel() {
+    query("(# basex:parallel #) { for $i in 1 to 1000 return $i * 2 } => sum()", 1001000);
+    query("(# basex:parallel #) { for $i in 1 to 1000 return $i } => deep-equal(1 to 1000)",
+        true);
+    query("let $m := 3 return (# basex:parallel #) { for $i in 1 to 10 let $j := $i * $m "
+        + "where $j mod 2 = 0 for $k in 1 to 2 return $j + $k }",
+        "7\n8\n13\n14\n19\n20\n25\n26\n31\n32");
+    query("<a>1</a> ! ((# basex:parallel #) { for $i in 1 to 3 return . + $i })", "2\n3\n4");
+    query("(# basex:parallel unordered #) { for $i in 1 to 1000 return $i } => sort() "
+        + "=> deep-equal(1 to 1000)", true);
+    query("((# basex:parallel #) { for $i in 1 to 1000 order by -$i return $i })[1]", 1000);
+    query("(# basex:parallel #) { for $i in () return $i }", "");
+
+    error("(# basex:parallel #) { for $i in 1 to 1000 return if($i = 500) then error() else $i }",
+        FUNERR1);
+  }
 }
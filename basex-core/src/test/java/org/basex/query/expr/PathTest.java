@@ -278,4 +278,18 @@ public final class PathTest extends SandboxTest {
     check("let $i := 0 return <a/>/*[position() = 1 to $i]",
         "", empty());
   }
+
+  /** Set-at-a-time evaluation of steps on pre values. */
+  @Test public void pres() {
+    execute(new Add(NAME, FILE));
+    for(final String path : new String[] { "//*/*", "//*//*", "//*/descendant-or-self::node()",
+        "//*/@*", "//*/text()", "//li/self::li", "/*//li[text()]", "//*/*/@*",
+        "//*[@*]//node()", "//ul/../*//li" }) {
+      // positional predicates enforce node-at-a-time evaluation
+      final String nodes = path.replaceAll("(::node\\(\\)|\\*|li|text\\(\\))",
+          "$1[position() < 1000000]");
+      query("let $a := " + path + " let $b := " + nodes + " return count($a) = count($b) and "
+          + "(every $i in 1 to count($a) satisfies $a[$i] is $b[$i])", true);
+    }
+  }
 }
@@ -4,7 +4,9 @@ import static org.basex.query.QueryError.*;
 import static org.basex.query.func.Function.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.io.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Test;
 
@@ -54,4 +56,35 @@ public final class AdminModuleTest extends SandboxTest {
     error(func.args("", "X "), ADMIN_TYPE_X);
     error(func.args("", "X\r"), ADMIN_TYPE_X);
   }
+
+  /** Test method. */
+  @Test public void writeLogs() {
+    context.soptions.set(StaticOptions.LOG, true);
+    try {
+      query("(1 to 1000) ! " + _ADMIN_WRITE_LOG.args(" 'entry' || .",
+          " if(. mod 2 = 1) then 'ODD' else 'EVEN'") + ", 'ok'", "ok");
+      final String date = " format-date(current-date(), '[Y0001]-[M01]-[D01]')";
+      query("count(" + _ADMIN_LOGS.args(date) + "[starts-with(., 'entry')])", 1000);
+      query(_ADMIN_LOGS.args(date) + "[starts-with(., 'entry')][last()] ! string()", "entry1000");
+
+      // filter entries
+      query("count(" + _ADMIN_LOGS.args(date, false, " map { 'type': 'ODD' }") + ")", 500);
+      query("count(" + _ADMIN_LOGS.args(date, false, " map { 'user': 'admin', 'type': 'EVEN' }") +
+          ")", 500);
+      query("count(" + _ADMIN_LOGS.args(date, false, " map { 'user': 'unknown' }") + ")", 0);
+      query("let $time := " + _ADMIN_LOGS.args(date) + "[. = 'entry500']/@time "
+          + "let $logs := " + _ADMIN_LOGS.args(date, false, " map { 'start': $time }")
+          + "return (count($logs) >= 501, every $log in $logs satisfies $log/@time >= $time)",
+          "true\ntrue");
+      query("let $time := " + _ADMIN_LOGS.args(date) + "[. = 'entry500']/@time "
+          + "let $logs := " + _ADMIN_LOGS.args(date, false, " map { 'end': $time }")
+          + "return (count($logs) >= 500, every $log in $logs satisfies $log/@time <= $time)",
+          "true\ntrue");
+      error(_ADMIN_LOGS.args(date, false, " map { 'start': '25:00' }"), ADMIN_TIME_X);
+    } finally {
+      context.soptions.set(StaticOptions.LOG, false);
+      context.log.close();
+      for(final IOFile file : context.log.files()) file.delete();
+    }
+  }
 }
@@ -5,6 +5,7 @@ import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.basex.*;
+import org.basex.io.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.constr.*;
 import org.basex.query.expr.gflwor.*;
@@ -2552,6 +2553,40 @@ public final class FnModuleTest extends SandboxTest {
   @Test public void unparsedTextLines() {
     final Function func = UNPARSED_TEXT_LINES;
     query(func.args(" ()"), "");
+
+    final IOFile file = new IOFile(sandbox(), "lines.txt");
+    final String path = file.path();
+    write(file, "a\r\nb\n\nc\n");
+    query(func.args(path), "a\nb\n\nc");
+    query("count(" + func.args(path) + ')', 4);
+    query("head(" + func.args(path) + ')', "a");
+    query("for $line in " + func.args(path) + " where $line return $line", "a\nb\nc");
+    query(func.args(path) + "[. = 'b']", "b");
+
+    write(file, "");
+    query(func.args(path), "");
+    error(func.args(path, "xyz"), ENCODING_X);
+    error(func.args(path.replace("lines", "unknown")), RESNF_X);
+  }
+
+  /** Test method. */
+  @Test public void unparsedTextTokenize() {
+    final IOFile file = new IOFile(sandbox(), "tokens.txt");
+    final String text = UNPARSED_TEXT.args(file.path());
+    for(final String input : new String[] { "", "a", "a,b", ",a,,b,", "a\r\nb\n", "\n" }) {
+      write(file, input);
+      for(final String pattern : new String[] { ",", "\\n", "\\r?\\n", "a", ",+" }) {
+        query("deep-equal(" + TOKENIZE.args(" " + text, pattern) + ", " +
+            TOKENIZE.args(" string(" + text + ')', pattern) + ')', true);
+      }
+    }
+    write(file, "a\nb\n");
+    query(TOKENIZE.args(" " + text, "\\n") + " ! string-length()", "1\n1\n0");
+
+    // text is only read incrementally if it is tokenized
+    check(TOKENIZE.args(" " + text, ","), "a\nb\n", exists(UNPARSED_TEXT));
+    check(TOKENIZE.args(" " + text, ",+"), "a\nb\n", empty(UNPARSED_TEXT));
+    check(text, "a\nb\n", empty(UNPARSED_TEXT));
   }
 
   /** Test method. */
@@ -145,6 +145,12 @@ public final class XQueryModuleTest extends SandboxTest {
     query(func.args(" (true#0, false#0)", " map { 'parallel': 1000000000 }"), "true\nfalse");
     query(func.args(" (true#0, false#0)", " map { 'parallel': <_>1</_> }"), "true\nfalse");
 
+    // nested calls, task counts
+    query("sum(" + func.args(" (1 to 10) ! function() { sum(" +
+        func.args(" (1 to 10) ! function() { 1 }") + ") }") + ')', 100);
+    query(func.args(" (1 to 2) ! function() { " + _JOB_LIST_DETAILS.args(
+        " " + _JOB_CURRENT.args()) + "/@tasks ! xs:integer(.) }") + " => min() > 0", true);
+
     // optimizations
     check(func.args(" ()"), "", empty());
     check(func.args(" false#0"), false, root(DynFuncCall.class));
@@ -0,0 +1,58 @@
+package org.basex.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the client/server session API, with idle sessions being watched by a selector.
+ *
+ * @author BaseX Team 2005-24, BSD License
+ * @author Christian Gruen
+ */
+public final class ClientSessionNioTest extends ClientSessionTest {
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeAll public static void startServer() throws IOException {
+    Prop.put(StaticOptions.SERVERNIO, "true");
+    ClientSessionTest.startServer();
+  }
+
+  /**
+   * Resets the global option.
+   */
+  @AfterAll public static void resetOption() {
+    Prop.remove(StaticOptions.SERVERNIO);
+  }
+
+  /**
+   * Runs requests on many concurrent sessions.
+   * @throws IOException I/O exception
+   */
+  @Test public void sessions() throws IOException {
+    final ArrayList<ClientSession> sessions = new ArrayList<>();
+    try {
+      for(int s = 0; s < 100; s++) sessions.add(createClient());
+      for(int r = 0; r < 3; r++) {
+        for(int s = 0; s < sessions.size(); s++) {
+          assertEquals(Integer.toString(s + r), sessions.get(s).query(s + " + " + r).execute());
+        }
+      }
+      // sessions that have been closed by the client are removed
+      for(int s = 0; s < 50; s++) sessions.remove(0).close();
+      for(int c = 0; c < 100 && server().context.sessions.size() > 51; c++) Performance.sleep(10);
+      assertEquals(51, server().context.sessions.size());
+    } finally {
+      for(final ClientSession session : sessions) session.close();
+    }
+  }
+}
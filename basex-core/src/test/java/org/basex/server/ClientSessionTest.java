@@ -5,8 +5,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.*;
 
 import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.in.*;
 import org.basex.util.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 
 /**
  * This class tests the client/server session API.
@@ -34,6 +39,14 @@ public class ClientSessionTest extends SessionTest {
     stopServer(server);
   }
 
+  /**
+   * Returns the server instance.
+   * @return server
+   */
+  static BaseXServer server() {
+    return server;
+  }
+
   /** Starts a session. */
   @BeforeEach public void startSession() {
     try {
@@ -44,4 +57,78 @@ public class ClientSessionTest extends SessionTest {
       fail(Util.message(ex));
     }
   }
+
+  /**
+   * Sends a batch of requests.
+   * @throws IOException I/O exception
+   */
+  @Test public void batch() throws IOException {
+    final ClientBatch batch = ((ClientSession) session).batch(false);
+    batch.create(NAME, new ArrayInput("<a/>"));
+    for(int i = 0; i < 100; i++) batch.add("doc" + i + ".xml", new ArrayInput("<x>" + i + "</x>"));
+    batch.put("doc0.xml", new ArrayInput("<y/>")).putBinary("bin", new ArrayInput("\0\1"));
+    batch.execute("UNKNOWN").execute("XQUERY 1 +").execute("XQUERY insert node <z/> into /a");
+
+    final String[] status = batch.execute();
+    assertEquals(106, status.length);
+    for(int s = 0; s < 103; s++) assertNull(status[s]);
+    assertNotNull(status[103]);
+    assertNotNull(status[104]);
+    assertNull(status[105]);
+    assertEquals(0, batch.size());
+
+    assertEqual("101", session.execute("XQUERY count(db:get('" + NAME + "'))"));
+    assertEqual("<y/>", session.execute("XQUERY db:get('" + NAME + "', 'doc0.xml')"));
+    assertEqual("1", session.execute("XQUERY count(//z)"));
+  }
+
+  /**
+   * Sends a batch of requests that are executed as a single job.
+   * @throws IOException I/O exception
+   */
+  @Test public void batchSingleJob() throws IOException {
+    final ClientBatch batch = ((ClientSession) session).batch(true);
+    batch.create(NAME, new ArrayInput("<a/>"));
+    batch.add("b.xml", new ArrayInput("<b/>")).add("c.xml", new ArrayInput("<c"));
+    batch.add("d.xml", new ArrayInput("<d/>"));
+    String[] status = batch.execute();
+    assertNull(status[0]);
+    assertNull(status[1]);
+    assertNotNull(status[2]);
+    assertEquals("", status[3]);
+    // changes of preceding requests are not rolled back
+    assertEqual("2", session.execute("XQUERY count(db:get('" + NAME + "'))"));
+
+    // invalid commands: no request will be executed
+    status = batch.add("d.xml", new ArrayInput("<d/>")).execute("UNKNOWN").execute();
+    assertEquals("", status[0]);
+    assertNotNull(status[1]);
+    assertEqual("2", session.execute("XQUERY count(db:get('" + NAME + "'))"));
+  }
+
+  /**
+   * Closes sessions that do not request the next window of query results in time.
+   * @throws IOException I/O exception
+   */
+  @Test public void queryWindowTimeout() throws IOException {
+    final StaticOptions sopts = server.context.soptions;
+    sopts.set(StaticOptions.KEEPALIVE, 1);
+    try {
+      session.execute("CREATE DB " + NAME + " <a/>");
+      final Query query = session.query("db:get('" + NAME + "'), 1 to 5000");
+      assertEqual("<a/>", query.next());
+
+      // database is locked until the server stops waiting for the client
+      final Performance perf = new Performance();
+      final Context ctx = new Context(server.context, null);
+      new XQuery("insert node <b/> into db:get('" + NAME + "')/a").execute(ctx);
+      assertTrue(perf.ns(false) >= 500_000_000L);
+      assertThrows(IOException.class, () -> {
+        while(query.more()) query.next();
+      });
+      session = createClient();
+    } finally {
+      sopts.set(StaticOptions.KEEPALIVE, StaticOptions.KEEPALIVE.value());
+    }
+  }
 }
@@ -267,6 +267,44 @@ public abstract class SessionTest extends SandboxTest {
     }
   }
 
+  /**
+   * Runs a query and retrieves a large number of results.
+   * @throws IOException I/O exception */
+  @Test public void queryWindows() throws IOException {
+    try(Query query = session.query("1 to 5000")) {
+      int c = 0;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(5000, c);
+    }
+  }
+
+  /**
+   * Runs other requests while query results are retrieved.
+   * @throws IOException I/O exception */
+  @Test public void queryInterleaved() throws IOException {
+    try(Query query = session.query("1 to 3000"); Query query2 = session.query("1 to 2000")) {
+      assertEqual("1", query.next());
+      assertEqual("1", query2.next());
+      assertEqual("2", session.execute("XQUERY 2"));
+      int c = 1;
+      while(query.more()) assertEqual(Integer.toString(++c), query.next());
+      assertEquals(3000, c);
+      c = 1;
+      while(query2.more()) assertEqual(Integer.toString(++c), query2.next());
+      assertEquals(2000, c);
+    }
+  }
+
+  /**
+   * Stops a query before all results have been retrieved.
+   * @throws IOException I/O exception */
+  @Test public void queryStop() throws IOException {
+    try(Query query = session.query("1 to 100000")) {
+      assertEqual("1", query.next());
+    }
+    assertEqual("1", session.execute("XQUERY 1"));
+  }
+
   /**
    * Queries binary content.
    * @throws IOException I/O exception */